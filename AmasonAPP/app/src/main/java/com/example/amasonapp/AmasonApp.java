@@ -0,0 +1,29 @@
+package com.example.amasonapp;
+
+import android.app.Application;
+
+import com.example.amasonapp.depuracion.GrabadorSnapshots;
+import com.example.amasonapp.depuracion.VigilanteHiloPrincipal;
+import com.example.amasonapp.startup.ServiciosFirebase;
+
+/**
+ * APLICACIÓN
+ *
+ * Punto de entrada del proceso. Solo instala las herramientas globales; los
+ * servicios de Firebase se crean al necesitarlos, en las tareas de arranque en
+ * segundo plano de cada pantalla (ver {@link ServiciosFirebase}). Firebase ya no
+ * se inicializa con su proveedor de contenido al crear el proceso.
+ */
+public class AmasonApp extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // En depuración, avisa del trabajo lento o de disco en el hilo principal
+        VigilanteHiloPrincipal.instalar(this);
+        // En depuración, graba las instantáneas de Firestore si se ha pedido (ver GrabadorSnapshots)
+        GrabadorSnapshots.instalar(this);
+        // Solo guarda el contexto: ningún SDK se inicializa aquí
+        ServiciosFirebase.instalar(this);
+    }
+}
@@ -1,29 +1,50 @@
 package com.example.amasonapp;
 
+import androidx.annotation.VisibleForTesting;
 import androidx.appcompat.app.AppCompatActivity;
 import android.content.Context;
 import android.content.Intent;
+import android.graphics.drawable.Drawable;
 import android.net.ConnectivityManager;
 import android.net.Network;
 import android.net.NetworkCapabilities;
 import android.net.NetworkRequest;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.DisplayMetrics;
+import android.util.Log;
 
 import android.view.View;
 import android.widget.Button;
+import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.activity.result.ActivityResultLauncher;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.activity.result.contract.ActivityResultContracts;
-
+import androidx.lifecycle.ViewModelProvider;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.request.target.CustomViewTarget;
+import com.bumptech.glide.request.transition.Transition;
+import com.example.amasonapp.data.ContenidoEmpaquetado;
+import com.example.amasonapp.data.FlujoConsulta;
 import com.example.amasonapp.data.TextosRepository;
+import com.example.amasonapp.model.EnlaceTutorial;
 import com.example.amasonapp.model.Texto;
+import com.example.amasonapp.startup.OrquestadorArranque;
+import com.example.amasonapp.startup.PrimerFotograma;
+import com.example.amasonapp.startup.ServiciosFirebase;
+import com.example.amasonapp.telemetria.RegistroUso;
+import com.example.amasonapp.viewmodels.PantallaViewModel;
 import com.google.android.gms.auth.api.signin.GoogleSignIn;
 import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
 import com.google.android.gms.auth.api.signin.GoogleSignInClient;
-import com.google.android.gms.auth.api.signin.GoogleSignInOptions;
 import com.google.android.gms.common.api.ApiException;
 import com.google.android.gms.tasks.Task;
 import com.google.android.material.button.MaterialButton;
@@ -33,6 +54,7 @@ import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.auth.GoogleAuthProvider;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * PANTALLA DE ACCESO (LOGIN)
@@ -44,14 +66,25 @@ import java.util.List;
  */
 public class LoginActivity extends AppCompatActivity {
 
+    private static final String TAG = "LoginActivity";
+
+    // Objetivo de tiempo hasta el primer fotograma en arranque en frío, medido en
+    // la gama más baja que soportamos (dispositivos de memoria reducida)
+    private static final long OBJETIVO_PRIMER_FOTOGRAMA_MS = 1000;
+
     // --- Componentes de la Interfaz (UI) ---
+    private View layoutLogin;
+    private ImageView imageViewLogo;
     private TextView textViewBienvenida;
     private MaterialButton buttonGoogleSignIn;
     private Button buttonIdioma;
     private LinearLayout layoutSinConexion;
 
     // --- Gestión de Datos y Localización ---
-    private TextosRepository textosRepository;
+    // (el idioma y los textos se retienen en el ViewModel al rotar)
+    private PantallaViewModel estado;
+    private volatile TextosRepository textosRepository;
+    private FlujoConsulta<List<Texto>> flujoTextos;
     private String idiomaActual = "es"; // Idioma inicial: Castellano
     private List<Texto> textosActuales;
 
@@ -64,43 +97,165 @@ public class LoginActivity extends AppCompatActivity {
     private ConnectivityManager connectivityManager;
     private ConnectivityManager.NetworkCallback networkCallback;
 
+    // --- Arranque paralelo de la pantalla ---
+    private OrquestadorArranque orquestador;
+    private OrquestadorArranque.Finalizador textosCargadosEnArranque;
+    private static final long PLAZO_SERVICIOS_MS = 3000;
+    private static final long PLAZO_DATOS_MS = 8000;
+    private static final String TAREA_AUTH = "auth";
+    private static final String TAREA_GOOGLE = "google_client";
+    private static final String TAREA_FIRESTORE = "firestore";
+    private static final String TAREA_RED = "red";
+    private static final String TAREA_TRADUCCIONES = "traducciones";
+    private static final String TAREA_GLIDE = "glide";
+    private static final String TAREA_FONDO = "fondo";
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_login);
+        PrimerFotograma.vigilar(this, "LoginActivity", OBJETIVO_PRIMER_FOTOGRAMA_MS);
+        estado = new ViewModelProvider(this).get(PantallaViewModel.class);
+        idiomaActual = estado.getIdioma();
 
-        // Pasos de inicialización ordenados lógicamente
+        // Pasos ligeros en el hilo principal: vistas, botones y launcher de resultados
         inicializarVistas();
-        mAuth = FirebaseAuth.getInstance();
         configurarGoogleSignIn();
         configurarBotonIdioma();
-        inicializarMonitoreoRed();
         configurarBotonGoogle();
+        connectivityManager = (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
+        buttonIdioma.setText(idiomaActual.equals("en") ? "EN" : "ES");
+
+        // Al recrearse por una rotación los textos retenidos se pintan sin esperar
+        // al arranque de Firestore
+        if (estado.tieneFlujoTextos()) {
+            iniciarEscuchaDatos();
+        }
+
+        // Servicios de Firebase, Google, red y textos bilingües en paralelo
+        iniciarArranque();
+    }
+
+    /**
+     * Declara las tareas de arranque de la pantalla. Los servicios se crean en
+     * segundo plano a la vez y la escucha de textos arranca en cuanto Firestore
+     * está listo; si no responde dentro del plazo se muestra el aviso sin conexión.
+     */
+    private void iniciarArranque() {
+        orquestador = new OrquestadorArranque()
+                .enSegundoPlano(TAREA_AUTH, PLAZO_SERVICIOS_MS, fin -> {
+                    obtenerAuth();
+                    fin.completar();
+                })
+                .enSegundoPlano(TAREA_GOOGLE, PLAZO_SERVICIOS_MS, fin -> {
+                    obtenerGoogleClient();
+                    fin.completar();
+                })
+                .enSegundoPlano(TAREA_FIRESTORE, PLAZO_SERVICIOS_MS, fin -> {
+                    // En la primera ejecución, la instantánea empaquetada llena la caché
+                    // antes de abrir las escuchas
+                    ContenidoEmpaquetado.cargar(this, ServiciosFirebase.firestore());
+                    textosRepository = new TextosRepository();
+                    fin.completar();
+                })
+                .enHiloPrincipal(TAREA_RED, PLAZO_SERVICIOS_MS, fin -> {
+                    // En el hilo principal: onDestroy debe ver siempre el callback registrado
+                    inicializarMonitoreoRed();
+                    fin.completar();
+                })
+                .enSegundoPlano(TAREA_GLIDE, PLAZO_SERVICIOS_MS, fin -> {
+                    // Glide monta su registro y sus cachés la primera vez que se pide
+                    Glide.get(this);
+                    fin.completar();
+                })
+                .enHiloPrincipal(TAREA_FONDO, PLAZO_DATOS_MS, this::cargarImagenes, TAREA_GLIDE)
+                .enHiloPrincipal(TAREA_TRADUCCIONES, PLAZO_DATOS_MS, fin -> {
+                    textosCargadosEnArranque = fin;
+                    iniciarEscuchaDatos();
+                    if (textosActuales != null) {
+                        fin.completar();
+                    }
+                }, TAREA_FIRESTORE);
+
+        orquestador.iniciar(new OrquestadorArranque.OyenteArranque() {
+            @Override
+            public void onTareaFinalizada(String nombre, OrquestadorArranque.Estado estado) {
+                if (TAREA_TRADUCCIONES.equals(nombre) && estado != OrquestadorArranque.Estado.COMPLETADA) {
+                    mostrarMensajeSinConexion();
+                }
+            }
 
-        // Iniciamos la carga de textos bilingües de la UI
-        textosRepository = new TextosRepository();
-        iniciarEscuchaDatos();
+            @Override
+            public void onArranqueCompletado(Map<String, OrquestadorArranque.Estado> estados) {
+                textosCargadosEnArranque = null;
+            }
+        });
     }
 
     /**
      * Vincula las variables con los componentes definidos en el XML activity_login.
      */
     private void inicializarVistas() {
+        layoutLogin = findViewById(R.id.layout_login);
+        imageViewLogo = findViewById(R.id.imageView_logo);
         textViewBienvenida = findViewById(R.id.textView_bienvenida);
         buttonGoogleSignIn = findViewById(R.id.button_google_signin);
         buttonIdioma = findViewById(R.id.button_idioma_login);
         layoutSinConexion = findViewById(R.id.layout_sin_conexion_login);
     }
 
+    /**
+     * Decodifica el fondo y el logo en segundo plano. El fondo se reduce al tamaño
+     * de la pantalla y esa versión queda en la caché de disco de Glide, de modo
+     * que los siguientes arranques ya no leen el PNG original. Hasta entonces se
+     * ve el degradado del tema de arranque.
+     */
+    private void cargarImagenes(OrquestadorArranque.Finalizador fin) {
+        long inicio = SystemClock.elapsedRealtime();
+        DisplayMetrics pantalla = getResources().getDisplayMetrics();
+        Glide.with(this)
+                .load(R.drawable.login_background)
+                .override(pantalla.widthPixels, pantalla.heightPixels)
+                .centerCrop()
+                .diskCacheStrategy(DiskCacheStrategy.RESOURCE)
+                .priority(Priority.IMMEDIATE)
+                .into(new CustomViewTarget<View, Drawable>(layoutLogin) {
+                    @Override
+                    public void onResourceReady(@NonNull Drawable fondo,
+                            @Nullable Transition<? super Drawable> transicion) {
+                        getView().setBackground(fondo);
+                        // El fondo de la ventana queda tapado: se retira para no pintarlo dos veces
+                        getWindow().setBackgroundDrawable(null);
+                        Log.d(TAG, "Fondo listo en " + (SystemClock.elapsedRealtime() - inicio) + " ms");
+                        fin.completar();
+                    }
+
+                    @Override
+                    public void onLoadFailed(@Nullable Drawable error) {
+                        // Se queda el degradado del tema
+                        fin.fallar(new IllegalStateException("No se pudo decodificar el fondo del login"));
+                    }
+
+                    @Override
+                    protected void onResourceCleared(@Nullable Drawable marcador) {
+                        getView().setBackground(marcador);
+                    }
+                });
+
+        // El logo se ajusta al tamaño de su vista (200dp) y también se guarda ya reducido
+        Glide.with(this)
+                .load(R.drawable.logo_amason)
+                .diskCacheStrategy(DiskCacheStrategy.RESOURCE)
+                .into(imageViewLogo);
+    }
+
     /**
      * Define el comportamiento del botón de cambio de idioma.
      * Alterna entre "es" y "en" actualizando la UI de forma inmediata.
      */
     private void configurarBotonIdioma() {
+        // Los textos de ambos idiomas ya están en caché: cambiar no necesita red
         buttonIdioma.setOnClickListener(v -> {
-            if (!hayConexionInternet())
-                return;
-
             // Alternancia lógica de idiomas
             if (idiomaActual.equals("es")) {
                 idiomaActual = "en";
@@ -109,6 +264,8 @@ public class LoginActivity extends AppCompatActivity {
                 idiomaActual = "es";
                 buttonIdioma.setText("ES");
             }
+            estado.setIdioma(idiomaActual);
+            RegistroUso.getInstance(this).idiomaCambiado(idiomaActual);
 
             // Aplicamos los textos traducidos si ya han sido cargados
             if (textosActuales != null) {
@@ -122,8 +279,11 @@ public class LoginActivity extends AppCompatActivity {
      */
     private void configurarBotonGoogle() {
         buttonGoogleSignIn.setOnClickListener(v -> {
-            if (!hayConexionInternet())
+            // Iniciar sesión es lo único de esta pantalla que necesita red
+            if (!hayConexionInternet()) {
+                Toast.makeText(this, R.string.titulo_sin_conexion, Toast.LENGTH_SHORT).show();
                 return;
+            }
             iniciarSesionConGoogle();
         });
     }
@@ -133,14 +293,6 @@ public class LoginActivity extends AppCompatActivity {
      * login.
      */
     private void configurarGoogleSignIn() {
-        // Solicitamos el ID Token para autenticar posteriormente en Firebase
-        GoogleSignInOptions gso = new GoogleSignInOptions.Builder(GoogleSignInOptions.DEFAULT_SIGN_IN)
-                .requestIdToken(getString(R.string.default_web_client_id))
-                .requestEmail()
-                .build();
-
-        mGoogleSignInClient = GoogleSignIn.getClient(this, gso);
-
         // Nuevo estándar de Android para recibir resultados de actividades externas
         googleSignInLauncher = registerForActivityResult(
                 new ActivityResultContracts.StartActivityForResult(),
@@ -153,8 +305,30 @@ public class LoginActivity extends AppCompatActivity {
                 });
     }
 
+    /**
+     * Devuelve la instancia de FirebaseAuth creada durante el arranque (o la crea
+     * en el momento si se necesita antes de que la tarea termine).
+     */
+    private synchronized FirebaseAuth obtenerAuth() {
+        if (mAuth == null) {
+            mAuth = ServiciosFirebase.auth();
+        }
+        return mAuth;
+    }
+
+    /**
+     * Devuelve el cliente de Google, construyéndolo si la tarea de arranque aún no
+     * ha terminado cuando el usuario pulsa el botón.
+     */
+    private synchronized GoogleSignInClient obtenerGoogleClient() {
+        if (mGoogleSignInClient == null) {
+            mGoogleSignInClient = ServiciosFirebase.google();
+        }
+        return mGoogleSignInClient;
+    }
+
     private void iniciarSesionConGoogle() {
-        Intent signInIntent = mGoogleSignInClient.getSignInIntent();
+        Intent signInIntent = obtenerGoogleClient().getSignInIntent();
         googleSignInLauncher.launch(signInIntent);
     }
 
@@ -172,7 +346,7 @@ public class LoginActivity extends AppCompatActivity {
      */
     private void autenticarConFirebase(String idToken) {
         AuthCredential credential = GoogleAuthProvider.getCredential(idToken, null);
-        mAuth.signInWithCredential(credential)
+        obtenerAuth().signInWithCredential(credential)
                 .addOnCompleteListener(this, task -> {
                     if (task.isSuccessful()) {
                         navegarAMainActivity();
@@ -187,6 +361,10 @@ public class LoginActivity extends AppCompatActivity {
      */
     private void navegarAMainActivity() {
         Intent intent = new Intent(this, MainActivity.class);
+        // Si se llegó aquí desde un enlace directo, se reenvía tras iniciar sesión
+        if (EnlaceTutorial.desdeUri(getIntent().getData()) != null) {
+            intent.setData(getIntent().getData());
+        }
         startActivity(intent);
         finish();
     }
@@ -195,25 +373,41 @@ public class LoginActivity extends AppCompatActivity {
      * Suscribe la pantalla a los cambios en la colección de textos de Firebase.
      */
     private void iniciarEscuchaDatos() {
-        textosRepository.empezarEscucha(new TextosRepository.TextosCallback() {
-            @Override
-            public void onTextosCargados(List<Texto> textos) {
-                textosActuales = textos;
-                actualizarTextos(textos);
-            }
+        if (textosRepository == null && !estado.tieneFlujoTextos())
+            return;
 
-            @Override
-            public void onError(Exception e) {
-                mostrarMensajeSinConexion();
+        // Si ya se observa (por ejemplo, al recuperar la red) solo se reabre la
+        // escucha en caso de que un error la hubiera cerrado
+        if (flujoTextos != null) {
+            flujoTextos.reintentar();
+            return;
+        }
+
+        // El flujo se suspende solo mientras la pantalla está oculta
+        flujoTextos = estado.obtenerFlujoTextos(textosRepository);
+        flujoTextos.observe(this, textos -> {
+            textosActuales = textos;
+            actualizarTextos(textos);
+            if (textosCargadosEnArranque != null) {
+                textosCargadosEnArranque.completar();
+            }
+        });
+        flujoTextos.getErrores().observe(this, e -> {
+            mostrarMensajeSinConexion();
+            if (textosCargadosEnArranque != null) {
+                textosCargadosEnArranque.fallar(e);
             }
         });
     }
 
     /**
-     * Mapea los textos recibidos a sus respectivos componentes de UI.
+     * Mapea los textos recibidos a sus respectivos componentes de UI. Se pinta
+     * siempre que haya datos, vengan del servidor o de la caché (incluida la
+     * instantánea empaquetada en la primera ejecución sin red).
      */
-    private void actualizarTextos(List<Texto> textos) {
-        if (!hayConexionInternet())
+    @VisibleForTesting
+    void actualizarTextos(List<Texto> textos) {
+        if (textos.isEmpty())
             return;
 
         layoutSinConexion.setVisibility(View.GONE);
@@ -237,9 +431,12 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     /**
-     * Oculta el login y muestra un aviso si no hay red detectada.
+     * Oculta el login y muestra un aviso de falta de red, salvo que ya haya
+     * textos que pintar: en ese caso la pantalla sigue usable desde la caché.
      */
     private void mostrarMensajeSinConexion() {
+        if (textosActuales != null && !textosActuales.isEmpty())
+            return;
         textViewBienvenida.setVisibility(View.GONE);
         buttonGoogleSignIn.setVisibility(View.GONE);
         layoutSinConexion.setVisibility(View.VISIBLE);
@@ -247,10 +444,9 @@ public class LoginActivity extends AppCompatActivity {
 
     /**
      * Establece un observador sobre el estado de la antena/wifi.
+     * Se ejecuta como tarea de arranque en el hilo principal.
      */
     private void inicializarMonitoreoRed() {
-        connectivityManager = (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
-
         if (!hayConexionInternet()) {
             mostrarMensajeSinConexion();
         }
@@ -297,10 +493,11 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     @Override
-    protected void onStop() {
-        super.onStop();
-        if (textosRepository != null) {
-            textosRepository.detenerEscucha();
+    protected void onDestroy() {
+        super.onDestroy();
+        // No en onStop: el selector de cuentas de Google también tapa la pantalla
+        if (orquestador != null) {
+            orquestador.cancelar();
         }
         if (connectivityManager != null && networkCallback != null) {
             connectivityManager.unregisterNetworkCallback(networkCallback);
@@ -1,31 +1,59 @@
 package com.example.amasonapp;
 
+import androidx.annotation.VisibleForTesting;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.drawerlayout.widget.DrawerLayout;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentTransaction;
+import androidx.core.content.ContextCompat;
+import androidx.core.content.FileProvider;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.work.Data;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.MenuItem;
 import android.widget.Button;
 import android.widget.LinearLayout;
 import android.widget.TextView;
+import android.widget.Toast;
+import android.net.Uri;
 import android.content.Context;
 import android.net.ConnectivityManager;
 import android.net.Network;
 import android.net.NetworkCapabilities;
 import android.net.NetworkRequest;
+import com.example.amasonapp.data.ContenidoEmpaquetado;
+import com.example.amasonapp.data.FlujoConsulta;
+import com.example.amasonapp.data.ManifiestoRepository;
+import com.example.amasonapp.data.ProgresoRepository;
+import com.example.amasonapp.data.Secciones;
 import com.example.amasonapp.data.TextosRepository;
+import com.example.amasonapp.depuracion.VigilanteHiloPrincipal;
+import com.example.amasonapp.startup.OrquestadorArranque;
+import com.example.amasonapp.startup.PrimerFotograma;
+import com.example.amasonapp.startup.ServiciosFirebase;
+import com.example.amasonapp.telemetria.RegistroUso;
+import com.example.amasonapp.trabajos.ExportacionPdfWorker;
+import com.example.amasonapp.trabajos.PrecargaWorker;
+import com.example.amasonapp.model.EnlaceTutorial;
+import com.example.amasonapp.model.ManifiestoSeccion;
 import com.example.amasonapp.model.Texto;
+import com.example.amasonapp.fragments.CatalogoFragment;
 import com.example.amasonapp.fragments.TutorialFragment;
-import com.google.android.gms.auth.api.signin.GoogleSignIn;
+import com.example.amasonapp.viewmodels.PantallaViewModel;
 import com.google.android.gms.auth.api.signin.GoogleSignInClient;
-import com.google.android.gms.auth.api.signin.GoogleSignInOptions;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.navigation.NavigationView;
+import com.google.android.material.progressindicator.LinearProgressIndicator;
 import com.google.firebase.auth.FirebaseAuth;
+import java.io.File;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * ACTIVIDAD PRINCIPAL (CENTRO DE CONTROL)
@@ -39,9 +67,15 @@ import java.util.List;
 public class MainActivity extends AppCompatActivity {
 
     // --- Gestión de Datos y Estado ---
-    private TextosRepository textosRepository;
+    // (el idioma, la sección y los textos se retienen en el ViewModel al rotar)
+    private PantallaViewModel estado;
+    private volatile TextosRepository textosRepository;
+    private FlujoConsulta<List<Texto>> flujoTextos;
     private String idiomaActual = "es";
     private List<Texto> textosActuales;
+    private boolean cerrandoSesion;
+    // La pantalla se oculta por otra abierta desde ella (visor, compartir el PDF)
+    private boolean navegacionInterna;
 
     // --- Componentes de la Interfaz (UI) ---
     private Button buttonTraduccion;
@@ -51,6 +85,8 @@ public class MainActivity extends AppCompatActivity {
     private DrawerLayout drawerLayout;
     private NavigationView navigationView;
     private FloatingActionButton buttonMenu;
+    private FloatingActionButton buttonExportar;
+    private LinearProgressIndicator progresoExportacion;
 
     // --- Servicios y Autenticación ---
     private FirebaseAuth mAuth;
@@ -58,36 +94,191 @@ public class MainActivity extends AppCompatActivity {
     private ConnectivityManager connectivityManager;
     private ConnectivityManager.NetworkCallback networkCallback;
 
+    // --- Arranque paralelo de la pantalla ---
+    private OrquestadorArranque orquestador;
+    // Finalizador de la tarea de traducciones, pendiente hasta la primera respuesta
+    private OrquestadorArranque.Finalizador textosCargadosEnArranque;
+    private static final long PLAZO_SERVICIOS_MS = 3000;
+    private static final long PLAZO_DATOS_MS = 8000;
+    private static final String TAREA_AUTH = "auth";
+    private static final String TAREA_GOOGLE = "google_client";
+    private static final String TAREA_FIRESTORE = "firestore";
+    private static final String TAREA_RED = "red";
+    private static final String TAREA_USUARIO = "usuario";
+    private static final String TAREA_TRADUCCIONES = "traducciones";
+    private static final String TAREA_PROGRESO = "progreso";
+    private static final String TAREA_PRECARGA = "precarga";
+    private static final String TAREA_MANIFIESTO = "manifiesto";
+
+    // Ítems del menú lateral por clave de traducción (evita getIdentifier en cada cambio de idioma)
+    private static final Map<String, Integer> ITEMS_MENU = new HashMap<>();
+    static {
+        ITEMS_MENU.put("nav_login", R.id.nav_login);
+        ITEMS_MENU.put("nav_database", R.id.nav_database);
+        ITEMS_MENU.put("nav_ftp", R.id.nav_ftp);
+        ITEMS_MENU.put("nav_email", R.id.nav_email);
+        ITEMS_MENU.put("nav_mailbox", R.id.nav_mailbox);
+        ITEMS_MENU.put("nav_admin", R.id.nav_admin);
+        ITEMS_MENU.put("nav_logs", R.id.nav_logs);
+        ITEMS_MENU.put("nav_todo", R.id.nav_todo);
+    }
+
+    // Ítem del menú lateral de cada sección (en el orden del menú)
+    private static final Map<String, Integer> MENU_POR_SECCION = new LinkedHashMap<>();
+    static {
+        MENU_POR_SECCION.put("tutoriales_login", R.id.nav_login);
+        MENU_POR_SECCION.put("tutoriales_database", R.id.nav_database);
+        MENU_POR_SECCION.put("tutoriales_ftp", R.id.nav_ftp);
+        MENU_POR_SECCION.put("tutoriales_email", R.id.nav_email);
+        MENU_POR_SECCION.put("tutoriales_buzon", R.id.nav_mailbox);
+        MENU_POR_SECCION.put("tutoriales_admin", R.id.nav_admin);
+        MENU_POR_SECCION.put("tutoriales_logs", R.id.nav_logs);
+        MENU_POR_SECCION.put(Secciones.CATALOGO, R.id.nav_todo);
+    }
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_main);
 
-        // 1. Inicializamos los servicios de autenticación de Google
-        mAuth = FirebaseAuth.getInstance();
-        GoogleSignInOptions gso = new GoogleSignInOptions.Builder(GoogleSignInOptions.DEFAULT_SIGN_IN)
-                .requestIdToken(getString(R.string.default_web_client_id)).requestEmail().build();
-        mGoogleSignInClient = GoogleSignIn.getClient(this, gso);
+        // La actividad es exportada por los enlaces directos: sin sesión, cualquier
+        // lanzamiento (enlace válido, mal formado o intent explícito) pasa por el
+        // Login, que reenvía el enlace al terminar solo si es válido
+        EnlaceTutorial enlace = EnlaceTutorial.desdeUri(getIntent().getData());
+        if (ServiciosFirebase.auth().getCurrentUser() == null) {
+            Intent login = new Intent(this, LoginActivity.class);
+            if (enlace != null) {
+                login.setData(getIntent().getData());
+            }
+            startActivity(login);
+            finish();
+            return;
+        }
+
+        setContentView(R.layout.activity_main);
+        PrimerFotograma.vigilar(this, "MainActivity");
+        estado = new ViewModelProvider(this).get(PantallaViewModel.class);
+        idiomaActual = estado.getIdioma();
 
-        // 2. Vinculamos las vistas del XML activity_main
+        // 1. Vinculamos las vistas del XML activity_main y configuramos la navegación
+        // (trabajo ligero que debe hacerse en el hilo principal)
         vincularComponentes();
-
-        // 3. Configuramos la lógica de navegación y botones
-        mostrarNombreUsuario();
         configurarBotonTraduccion();
         configurarBotonLogout();
         configurarMenuButton();
+        configurarBotonExportar();
         configurarDrawerNavigation();
+        connectivityManager = (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
+        buttonTraduccion.setText(idiomaActual.equals("en") ? "EN" : "ES");
 
-        // 4. Cargamos el primer tutorial por defecto (Login) si es la primera vez
+        // 2. Cargamos el paso enlazado o la sección guardada (Login la primera vez).
+        // Al recrearse, el FragmentManager ya restaura el fragmento, y los textos
+        // retenidos se vuelven a observar sin esperar al arranque de Firestore
         if (savedInstanceState == null) {
-            loadFragment(TutorialFragment.newInstance("tutoriales_login"));
+            if (enlace != null) {
+                abrirEnlace(enlace);
+            } else {
+                abrirSeccion(estado.getSeccion());
+            }
+        }
+        if (estado.tieneFlujoTextos()) {
+            iniciarEscuchaDatos();
+        }
+
+        // 3. El resto de servicios se inicializa en paralelo con su propio plazo
+        iniciarArranque();
+    }
+
+    /**
+     * Declara las tareas de arranque y sus dependencias. Firestore, el cliente de
+     * Google y el monitoreo de red corren a la vez; los textos y el saludo se
+     * pintan en cuanto sus dependencias están listas. La sección visible no se
+     * precarga: su propia escucha ya lee la caché y la red en cuanto se abre.
+     */
+    private void iniciarArranque() {
+        orquestador = new OrquestadorArranque()
+                .enSegundoPlano(TAREA_AUTH, PLAZO_SERVICIOS_MS, fin -> {
+                    obtenerAuth();
+                    fin.completar();
+                })
+                .enSegundoPlano(TAREA_GOOGLE, PLAZO_SERVICIOS_MS, fin -> {
+                    obtenerGoogleClient();
+                    fin.completar();
+                })
+                .enSegundoPlano(TAREA_FIRESTORE, PLAZO_SERVICIOS_MS, fin -> {
+                    // En la primera ejecución, la instantánea empaquetada llena la caché
+                    // antes de abrir las escuchas
+                    ContenidoEmpaquetado.cargar(this, ServiciosFirebase.firestore());
+                    textosRepository = new TextosRepository();
+                    fin.completar();
+                })
+                .enHiloPrincipal(TAREA_RED, PLAZO_SERVICIOS_MS, fin -> {
+                    // En el hilo principal: onDestroy debe ver siempre el callback registrado
+                    inicializarMonitoreoRed();
+                    fin.completar();
+                })
+                .enHiloPrincipal(TAREA_USUARIO, PLAZO_SERVICIOS_MS, fin -> {
+                    mostrarNombreUsuario();
+                    fin.completar();
+                }, TAREA_AUTH)
+                .enHiloPrincipal(TAREA_TRADUCCIONES, PLAZO_DATOS_MS, fin -> {
+                    textosCargadosEnArranque = fin;
+                    iniciarEscuchaDatos();
+                    // Tras una rotación los textos retenidos ya pueden estar pintados
+                    if (textosActuales != null) {
+                        fin.completar();
+                    }
+                }, TAREA_FIRESTORE)
+                .enHiloPrincipal(TAREA_PROGRESO, PLAZO_DATOS_MS, fin ->
+                        // Trae el progreso de otros dispositivos y sube lo pendiente
+                        ProgresoRepository.getInstance(this).descargar(fin::completar, fin::fallar),
+                        TAREA_AUTH, TAREA_FIRESTORE)
+                .enHiloPrincipal(TAREA_MANIFIESTO, PLAZO_SERVICIOS_MS, fin -> {
+                    // Única escucha contra el servidor para saber qué secciones han cambiado
+                    iniciarEscuchaManifiesto();
+                    fin.completar();
+                }, TAREA_FIRESTORE)
+                .enSegundoPlano(TAREA_PRECARGA, PLAZO_SERVICIOS_MS, fin -> {
+                    // Con sesión iniciada, deja programada la precarga nocturna del contenido
+                    PrecargaWorker.programar(this);
+                    fin.completar();
+                }, TAREA_AUTH);
+
+        orquestador.iniciar(new OrquestadorArranque.OyenteArranque() {
+            @Override
+            public void onTareaFinalizada(String nombre, OrquestadorArranque.Estado estado) {
+                // Si las traducciones no llegan a tiempo avisamos de la falta de conexión
+                if (TAREA_TRADUCCIONES.equals(nombre) && estado != OrquestadorArranque.Estado.COMPLETADA) {
+                    mostrarMensajeSinConexion();
+                }
+            }
+
+            @Override
+            public void onArranqueCompletado(Map<String, OrquestadorArranque.Estado> estados) {
+                textosCargadosEnArranque = null;
+            }
+        });
+    }
+
+    /**
+     * Devuelve la instancia de FirebaseAuth creada durante el arranque (o la crea
+     * en el momento si se necesita antes de que la tarea termine).
+     */
+    private synchronized FirebaseAuth obtenerAuth() {
+        if (mAuth == null) {
+            mAuth = ServiciosFirebase.auth();
         }
+        return mAuth;
+    }
 
-        // 5. Activamos el monitoreo de red y la escucha de textos de Firebase
-        inicializarMonitoreoRed();
-        textosRepository = new TextosRepository();
-        iniciarEscuchaDatos();
+    /**
+     * Devuelve el cliente de Google, construyéndolo si la tarea de arranque aún no
+     * lo ha hecho (por ejemplo, si se pulsa "Salir" durante el arranque).
+     */
+    private synchronized GoogleSignInClient obtenerGoogleClient() {
+        if (mGoogleSignInClient == null) {
+            mGoogleSignInClient = ServiciosFirebase.google();
+        }
+        return mGoogleSignInClient;
     }
 
     private void vincularComponentes() {
@@ -98,6 +289,8 @@ public class MainActivity extends AppCompatActivity {
         drawerLayout = findViewById(R.id.drawer_layout);
         navigationView = findViewById(R.id.nav_view);
         buttonMenu = findViewById(R.id.button_menu);
+        buttonExportar = findViewById(R.id.button_exportar);
+        progresoExportacion = findViewById(R.id.progreso_exportacion);
     }
 
     /**
@@ -107,6 +300,101 @@ public class MainActivity extends AppCompatActivity {
         buttonMenu.setOnClickListener(v -> drawerLayout.openDrawer(navigationView));
     }
 
+    /**
+     * Configura el botón que exporta la sección visible a PDF para consultarla
+     * sin conexión o imprimirla.
+     */
+    private void configurarBotonExportar() {
+        buttonExportar.setOnClickListener(v -> exportarSeccion());
+        // Tras una rotación (o la muerte del proceso) se retoma la exportación en curso
+        if (estado.getExportacion() != null) {
+            mostrarExportacionEnCurso();
+            observarExportacion(estado.getExportacion());
+        }
+    }
+
+    /**
+     * Encola la exportación de la sección actual en el idioma activo. El PDF se
+     * genera en segundo plano y se ofrece para compartir al terminar.
+     */
+    private void exportarSeccion() {
+        String coleccion = estado.getSeccion();
+        if (Secciones.CATALOGO.equals(coleccion)) {
+            Toast.makeText(this, "Elige una sección para exportarla", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        String trabajo = ExportacionPdfWorker.nombreTrabajo(coleccion, idiomaActual);
+        estado.setExportacion(trabajo);
+        mostrarExportacionEnCurso();
+        // Se observa por nombre cuando la petición ya consta: con KEEP puede seguir la anterior
+        ExportacionPdfWorker.encolar(this, coleccion, getTituloSeccion(coleccion).toString(), idiomaActual)
+                .getResult().addListener(() -> observarExportacion(trabajo), ContextCompat.getMainExecutor(this));
+    }
+
+    private void mostrarExportacionEnCurso() {
+        buttonExportar.setEnabled(false);
+        progresoExportacion.setIndeterminate(true);
+        progresoExportacion.setVisibility(android.view.View.VISIBLE);
+    }
+
+    /**
+     * Sigue el avance de una exportación por su nombre único. Se vuelve a llamar
+     * desde onCreate para que una rotación no deje el botón bloqueado.
+     */
+    private void observarExportacion(String trabajo) {
+        WorkManager.getInstance(this).getWorkInfosForUniqueWorkLiveData(trabajo).observe(this, infos -> {
+            if (!trabajo.equals(estado.getExportacion()))
+                return;
+            WorkInfo info = null;
+            for (WorkInfo candidato : infos) {
+                if (info == null || !candidato.getState().isFinished()) {
+                    info = candidato;
+                }
+            }
+            if (info == null) {
+                // WorkManager ya no conserva el trabajo: solo queda liberar el botón
+                estado.setExportacion(null);
+                buttonExportar.setEnabled(true);
+                progresoExportacion.setVisibility(android.view.View.GONE);
+                return;
+            }
+
+            Data avance = info.getProgress();
+            int total = avance.getInt(ExportacionPdfWorker.AVANCE_TOTAL, 0);
+            if (total > 0) {
+                progresoExportacion.setIndeterminate(false);
+                progresoExportacion.setMax(total);
+                progresoExportacion.setProgressCompat(avance.getInt(ExportacionPdfWorker.AVANCE_PASO, 0), true);
+            }
+            if (!info.getState().isFinished())
+                return;
+
+            estado.setExportacion(null);
+            buttonExportar.setEnabled(true);
+            progresoExportacion.setVisibility(android.view.View.GONE);
+            String ruta = info.getOutputData().getString(ExportacionPdfWorker.RESULTADO_RUTA);
+            if (info.getState() == WorkInfo.State.SUCCEEDED && ruta != null) {
+                compartirPdf(new File(ruta));
+            } else {
+                Toast.makeText(this, "No se pudo exportar la sección", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    /**
+     * Ofrece el PDF a otras apps (visor, impresión, correo) con permiso de
+     * lectura temporal a través del FileProvider.
+     */
+    private void compartirPdf(File archivo) {
+        Uri uri = FileProvider.getUriForFile(this, getPackageName() + ".archivos", archivo);
+        Intent compartir = new Intent(Intent.ACTION_SEND)
+                .setType("application/pdf")
+                .putExtra(Intent.EXTRA_STREAM, uri)
+                .addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        startActivity(Intent.createChooser(compartir, archivo.getName()));
+    }
+
     /**
      * Define la lógica de clic en los ítems del menú lateral.
      * Cada ítem carga una colección diferente de Firestore en el fragmento
@@ -114,43 +402,76 @@ public class MainActivity extends AppCompatActivity {
      */
     private void configurarDrawerNavigation() {
         navigationView.setNavigationItemSelectedListener(item -> {
-            Fragment selectedFragment = null;
-            int id = item.getItemId();
-
             // Mapeo de ID de menú a colección de base de datos
-            if (id == R.id.nav_login) {
-                selectedFragment = TutorialFragment.newInstance("tutoriales_login");
-            } else if (id == R.id.nav_database) {
-                selectedFragment = TutorialFragment.newInstance("tutoriales_database");
-            } else if (id == R.id.nav_ftp) {
-                selectedFragment = TutorialFragment.newInstance("tutoriales_ftp");
-            } else if (id == R.id.nav_email) {
-                selectedFragment = TutorialFragment.newInstance("tutoriales_email");
-            } else if (id == R.id.nav_mailbox) {
-                selectedFragment = TutorialFragment.newInstance("tutoriales_buzon");
-            } else if (id == R.id.nav_admin) {
-                selectedFragment = TutorialFragment.newInstance("tutoriales_admin");
-            } else if (id == R.id.nav_logs) {
-                selectedFragment = TutorialFragment.newInstance("tutoriales_logs");
+            String coleccion = null;
+            for (Map.Entry<String, Integer> entrada : MENU_POR_SECCION.entrySet()) {
+                if (entrada.getValue() == item.getItemId()) {
+                    coleccion = entrada.getKey();
+                    break;
+                }
             }
 
-            if (selectedFragment != null) {
+            if (coleccion != null) {
                 drawerLayout.closeDrawers();
-                loadFragment(selectedFragment);
+                abrirSeccion(coleccion);
             }
             return true;
         });
     }
 
+    /**
+     * Muestra la sección indicada y la recuerda para restaurarla si el sistema
+     * destruye el proceso.
+     */
+    private void abrirSeccion(String coleccion) {
+        estado.setSeccion(coleccion);
+        loadFragment(Secciones.CATALOGO.equals(coleccion)
+                ? CatalogoFragment.newInstance()
+                : TutorialFragment.newInstance(coleccion));
+    }
+
+    /**
+     * @param coleccion Colección de la sección.
+     * @return Título (ya traducido) de la sección en el menú lateral.
+     */
+    public CharSequence getTituloSeccion(String coleccion) {
+        Integer menuId = MENU_POR_SECCION.get(coleccion);
+        MenuItem item = menuId != null ? navigationView.getMenu().findItem(menuId) : null;
+        return item != null ? item.getTitle() : coleccion;
+    }
+
+    /**
+     * Abre la sección del enlace colocada directamente en el paso indicado.
+     */
+    private void abrirEnlace(EnlaceTutorial enlace) {
+        estado.setSeccion(enlace.getColeccion());
+        loadFragment(TutorialFragment.newInstance(enlace.getColeccion(), enlace.getOrden()));
+    }
+
+    @Override
+    protected void onNewIntent(Intent intent) {
+        super.onNewIntent(intent);
+        // Enlace recibido con la pantalla ya abierta (singleTop)
+        EnlaceTutorial enlace = EnlaceTutorial.desdeUri(intent.getData());
+        if (enlace != null) {
+            setIntent(intent);
+            drawerLayout.closeDrawers();
+            abrirEnlace(enlace);
+        }
+    }
+
     /**
      * Reemplaza el contenido del contenedor principal por el nuevo fragmento
      * solicitado.
      */
     private void loadFragment(Fragment fragment) {
-        FragmentManager fragmentManager = getSupportFragmentManager();
-        FragmentTransaction transaction = fragmentManager.beginTransaction();
-        transaction.replace(R.id.fragment_container, fragment);
-        transaction.commit();
+        try (VigilanteHiloPrincipal.Guardia g = VigilanteHiloPrincipal.medir(
+                "MainActivity.loadFragment", VigilanteHiloPrincipal.PRESUPUESTO_TRANSACCION_MS)) {
+            FragmentManager fragmentManager = getSupportFragmentManager();
+            FragmentTransaction transaction = fragmentManager.beginTransaction();
+            transaction.replace(R.id.fragment_container, fragment);
+            transaction.commit();
+        }
     }
 
     private void configurarBotonLogout() {
@@ -161,8 +482,16 @@ public class MainActivity extends AppCompatActivity {
      * Desconecta al usuario de Firebase y Google, devolviéndolo al Login.
      */
     private void cerrarSesion() {
-        mAuth.signOut();
-        mGoogleSignInClient.signOut().addOnCompleteListener(this, task -> {
+        // finish() vuelve a pasar por onStop: no repetimos el cierre
+        if (cerrandoSesion)
+            return;
+        cerrandoSesion = true;
+
+        // El progreso del operador se sube (o queda guardado a su nombre) antes de
+        // que otro pueda iniciar sesión en el mismo dispositivo
+        ProgresoRepository.cerrarSesion();
+        obtenerAuth().signOut();
+        obtenerGoogleClient().signOut().addOnCompleteListener(this, task -> {
             Intent intent = new Intent(MainActivity.this, LoginActivity.class);
             intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
             startActivity(intent);
@@ -175,10 +504,8 @@ public class MainActivity extends AppCompatActivity {
      * Afecta al menú, la cabecera y el tutorial que esté cargado actualmente.
      */
     private void configurarBotonTraduccion() {
+        // Los textos de ambos idiomas ya están en caché: cambiar no necesita red
         buttonTraduccion.setOnClickListener(v -> {
-            if (!hayConexionInternet())
-                return;
-
             if (idiomaActual.equals("es")) {
                 idiomaActual = "en";
                 buttonTraduccion.setText("EN");
@@ -186,6 +513,8 @@ public class MainActivity extends AppCompatActivity {
                 idiomaActual = "es";
                 buttonTraduccion.setText("ES");
             }
+            estado.setIdioma(idiomaActual);
+            RegistroUso.getInstance(this).idiomaCambiado(idiomaActual);
 
             // Actualizamos textos de la actividad y del fragmento visible
             if (textosActuales != null) {
@@ -204,29 +533,80 @@ public class MainActivity extends AppCompatActivity {
         Fragment currentFragment = getSupportFragmentManager().findFragmentById(R.id.fragment_container);
         if (currentFragment instanceof TutorialFragment) {
             ((TutorialFragment) currentFragment).actualizarIdioma(idiomaActual);
+        } else if (currentFragment instanceof CatalogoFragment) {
+            ((CatalogoFragment) currentFragment).actualizarIdioma(idiomaActual);
         }
     }
 
     private void iniciarEscuchaDatos() {
-        textosRepository.empezarEscucha(new TextosRepository.TextosCallback() {
-            @Override
-            public void onTextosCargados(List<Texto> textos) {
-                textosActuales = textos;
-                actualizarTextos(textos);
-            }
+        if (textosRepository == null && !estado.tieneFlujoTextos())
+            return;
 
-            @Override
-            public void onError(Exception e) {
-                mostrarMensajeSinConexion();
+        // Si ya se observa (por ejemplo, al recuperar la red) solo se reabre la
+        // escucha en caso de que un error la hubiera cerrado
+        if (flujoTextos != null) {
+            flujoTextos.reintentar();
+            return;
+        }
+
+        // El flujo se suspende solo mientras la pantalla está oculta
+        flujoTextos = estado.obtenerFlujoTextos(textosRepository);
+        flujoTextos.observe(this, textos -> {
+            textosActuales = textos;
+            actualizarTextos(textos);
+            if (textosCargadosEnArranque != null) {
+                textosCargadosEnArranque.completar();
+            }
+        });
+        flujoTextos.getErrores().observe(this, e -> {
+            mostrarMensajeSinConexion();
+            if (textosCargadosEnArranque != null) {
+                textosCargadosEnArranque.fallar(e);
             }
         });
     }
 
+    /**
+     * Escucha el manifiesto de secciones: con cada versión se actualizan los
+     * contadores del menú y se relee la sección abierta si su huella ha cambiado.
+     */
+    private void iniciarEscuchaManifiesto() {
+        ManifiestoRepository manifiesto = ManifiestoRepository.getInstance(this);
+        manifiesto.flujoManifiesto().observe(this, secciones -> {
+            manifiesto.actualizar(secciones);
+            mostrarContadoresPasos(secciones);
+            manifiesto.sincronizar(estado.getSeccion());
+        });
+    }
+
+    /**
+     * Muestra junto a cada sección del menú su número de pasos (y el total en
+     * "todos los tutoriales"). Sin manifiesto los contadores quedan vacíos.
+     */
+    private void mostrarContadoresPasos(Map<String, ManifiestoSeccion> secciones) {
+        int total = 0;
+        for (ManifiestoSeccion seccion : secciones.values()) {
+            total += seccion.getPasos();
+        }
+        for (Map.Entry<String, Integer> entrada : MENU_POR_SECCION.entrySet()) {
+            ManifiestoSeccion seccion = secciones.get(entrada.getKey());
+            int pasos = Secciones.CATALOGO.equals(entrada.getKey()) ? total
+                    : seccion != null ? seccion.getPasos() : 0;
+            MenuItem item = navigationView.getMenu().findItem(entrada.getValue());
+            android.view.View contador = item != null ? item.getActionView() : null;
+            if (contador instanceof TextView) {
+                ((TextView) contador).setText(pasos > 0 ? String.valueOf(pasos) : "");
+            }
+        }
+    }
+
     /**
      * Actualiza dinámicamente los títulos de los ítems del menú de navegación.
+     * Se pinta siempre que haya datos, vengan del servidor o de la caché.
      */
-    private void actualizarTextos(List<Texto> textos) {
-        if (!hayConexionInternet())
+    @VisibleForTesting
+    void actualizarTextos(List<Texto> textos) {
+        if (textos.isEmpty())
             return;
 
         layoutSinConexion.setVisibility(android.view.View.GONE);
@@ -241,9 +621,9 @@ public class MainActivity extends AppCompatActivity {
                 buttonLogout.setVisibility(android.view.View.VISIBLE);
             }
             // Actualización de los títulos del Drawer Navigation
-            else if (clave.startsWith("nav_")) {
-                int menuId = getResources().getIdentifier(clave, "id", getPackageName());
-                MenuItem item = navigationView.getMenu().findItem(menuId);
+            else {
+                Integer menuId = ITEMS_MENU.get(clave);
+                MenuItem item = menuId != null ? navigationView.getMenu().findItem(menuId) : null;
                 if (item != null)
                     item.setTitle(textoTraducido);
             }
@@ -272,15 +652,21 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Muestra el aviso de falta de red solo si no hay nada que enseñar: con
+     * textos en caché la pantalla sigue funcionando sin conexión.
+     */
     private void mostrarMensajeSinConexion() {
+        if (textosActuales != null && !textosActuales.isEmpty())
+            return;
         layoutSinConexion.setVisibility(android.view.View.VISIBLE);
     }
 
     /**
      * Sistema de detección de red para garantizar la sincronización con Firebase.
+     * Se ejecuta como tarea de arranque en el hilo principal.
      */
     private void inicializarMonitoreoRed() {
-        connectivityManager = (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
         if (!hayConexionInternet()) {
             mostrarMensajeSinConexion();
         }
@@ -288,6 +674,8 @@ public class MainActivity extends AppCompatActivity {
             @Override
             public void onAvailable(Network network) {
                 runOnUiThread(() -> {
+                    // El progreso acumulado sin conexión se sube en cuanto vuelve la red
+                    ProgresoRepository.getInstance(MainActivity.this).sincronizar();
                     if (textosActuales != null && !textosActuales.isEmpty()) {
                         actualizarTextos(textosActuales);
                     } else {
@@ -326,10 +714,27 @@ public class MainActivity extends AppCompatActivity {
         sendBroadcast(intent);
     }
 
+    @Override
+    public void startActivity(Intent intent, Bundle options) {
+        navegacionInterna = true;
+        super.startActivity(intent, options);
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        navegacionInterna = false;
+    }
+
     @Override
     protected void onStop() {
         super.onStop();
-        cerrarSesion();
+        RegistroUso.getInstance(this).volcar();
+        // La sesión se cierra al pasar a segundo plano; una rotación también pasa
+        // por onStop, y abrir el visor o compartir el PDF no es salir de la app
+        if (!isChangingConfigurations() && !navegacionInterna) {
+            cerrarSesion();
+        }
     }
 
     public String getIdiomaActual() {
@@ -339,8 +744,8 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (textosRepository != null)
-            textosRepository.detenerEscucha();
+        if (orquestador != null)
+            orquestador.cancelar();
         if (connectivityManager != null && networkCallback != null) {
             connectivityManager.unregisterNetworkCallback(networkCallback);
         }
@@ -0,0 +1,103 @@
+package com.example.amasonapp;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+
+import com.example.amasonapp.data.ImagenCache;
+import com.example.amasonapp.model.TutorialArticulo;
+import com.example.amasonapp.views.VisorTeselasView;
+
+import java.io.File;
+import java.io.FileInputStream;
+
+/**
+ * VISOR A PANTALLA COMPLETA DE CAPTURAS
+ *
+ * Se abre al pulsar la imagen de una tarjeta de tutorial y permite ampliar
+ * capturas densas (logs, consultas de base de datos...) sin cargar la imagen
+ * completa en memoria: la decodificación se delega en {@link VisorTeselasView}.
+ */
+public class VisorImagenActivity extends AppCompatActivity {
+
+    // Claves de los extras con la referencia a la imagen
+    private static final String EXTRA_RECURSO = "imagen_recurso";
+    private static final String EXTRA_RUTA = "imagen_ruta";
+    private static final String EXTRA_HASH = "imagen_hash";
+
+    private VisorTeselasView visor;
+
+    /**
+     * Construye el Intent para abrir la imagen de un paso de tutorial.
+     *
+     * @param context  Contexto desde el que se lanza el visor.
+     * @param articulo Paso cuya imagen se quiere ampliar.
+     * @return Intent listo para startActivity.
+     */
+    public static Intent crearIntent(Context context, TutorialArticulo articulo) {
+        Intent intent = new Intent(context, VisorImagenActivity.class);
+        if (articulo.tieneImagenRemota()) {
+            intent.putExtra(EXTRA_RUTA, articulo.getImagenRuta());
+            intent.putExtra(EXTRA_HASH, articulo.getImagenHash());
+        } else {
+            intent.putExtra(EXTRA_RECURSO, articulo.getImagenNombre());
+        }
+        return intent;
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_visor_imagen);
+
+        visor = findViewById(R.id.visor_teselas);
+        findViewById(R.id.button_cerrar_visor).setOnClickListener(v -> finish());
+
+        cargarImagen(getIntent());
+    }
+
+    /**
+     * Resuelve el origen de la imagen: recurso empaquetado o archivo de la caché
+     * de imágenes remotas (que normalmente ya está en disco tras verse la tarjeta).
+     */
+    private void cargarImagen(Intent intent) {
+        String ruta = intent.getStringExtra(EXTRA_RUTA);
+        String hash = intent.getStringExtra(EXTRA_HASH);
+
+        if (ruta != null && hash != null) {
+            ImagenCache.getInstance(this).obtener(ruta, hash, new ImagenCache.ImagenCallback() {
+                @Override
+                public void onImagenDisponible(File archivo) {
+                    visor.setOrigen(() -> new FileInputStream(archivo));
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    finish();
+                }
+            });
+            return;
+        }
+
+        String nombre = intent.getStringExtra(EXTRA_RECURSO);
+        int recursoId = nombre != null
+                ? getResources().getIdentifier(nombre, "drawable", getPackageName())
+                : 0;
+        if (recursoId == 0) {
+            finish();
+            return;
+        }
+        // openRawResource devuelve el PNG original, sin escalado por densidad
+        visor.setOrigen(() -> getResources().openRawResource(recursoId));
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (visor != null) {
+            visor.liberar();
+        }
+    }
+}
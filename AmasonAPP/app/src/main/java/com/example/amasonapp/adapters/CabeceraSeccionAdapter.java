@@ -0,0 +1,62 @@
+package com.example.amasonapp.adapters;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.amasonapp.R;
+
+/**
+ * ADAPTADOR DE CABECERA DE SECCIÓN
+ *
+ * Muestra un único elemento con el título de una sección. En la vista con todos
+ * los tutoriales se encadena delante del adaptador de pasos de cada sección.
+ */
+public class CabeceraSeccionAdapter extends RecyclerView.Adapter<CabeceraSeccionAdapter.CabeceraViewHolder> {
+
+    private CharSequence titulo;
+
+    public CabeceraSeccionAdapter(CharSequence titulo) {
+        this.titulo = titulo;
+    }
+
+    /**
+     * @param nuevoTitulo Título traducido de la sección.
+     */
+    public void setTitulo(CharSequence nuevoTitulo) {
+        if (nuevoTitulo == null || nuevoTitulo.equals(titulo))
+            return;
+        titulo = nuevoTitulo;
+        notifyItemChanged(0);
+    }
+
+    @NonNull
+    @Override
+    public CabeceraViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_seccion_cabecera, parent, false);
+        return new CabeceraViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull CabeceraViewHolder holder, int position) {
+        holder.titulo.setText(titulo);
+    }
+
+    @Override
+    public int getItemCount() {
+        return 1;
+    }
+
+    public static class CabeceraViewHolder extends RecyclerView.ViewHolder {
+        final TextView titulo;
+
+        public CabeceraViewHolder(@NonNull View itemView) {
+            super(itemView);
+            titulo = itemView.findViewById(R.id.textView_seccion_titulo);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.amasonapp.adapters;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.annotation.Nullable;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+import com.example.amasonapp.R;
+import com.example.amasonapp.model.TutorialArticulo;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * PRECÁLCULO DE TEXTOS DE LOS TUTORIALES
+ *
+ * Las descripciones largas con texto justificado son costosas de medir. Esta
+ * clase calcula en segundo plano su {@link PrecomputedTextCompat} para el idioma
+ * activo y lo guarda en caché (clave: idioma + texto; la medición no depende
+ * del ancho), de modo que al enlazar una tarjeta solo hay que adjuntar el
+ * resultado ya medido.
+ *
+ * Los parámetros de medición se toman, antes de la primera instantánea, de la
+ * descripción de una tarjeta inflada en el hilo de cálculo, para que coincidan
+ * exactamente con los del TextView que los va a mostrar.
+ */
+public class PrecalculadorTextos {
+
+    // Número máximo de descripciones medidas que se conservan
+    private static final int MAX_ENTRADAS = 300;
+
+    private static final String TAG = "PrecalculadorTextos";
+
+    private final LruCache<String, PrecomputedTextCompat> cache = new LruCache<>(MAX_ENTRADAS);
+    private final ExecutorService ejecutor = Executors.newSingleThreadExecutor();
+    private final Handler hiloPrincipal = new Handler(Looper.getMainLooper());
+
+    // Parámetros de medición del TextView de referencia
+    private volatile PrecomputedTextCompat.Params params;
+
+    /**
+     * Programa como primera tarea del hilo de cálculo la lectura de los
+     * parámetros de medición, así que cualquier precálculo posterior ya los tiene.
+     *
+     * @param context Contexto con el tema de la pantalla.
+     */
+    public PrecalculadorTextos(Context context) {
+        ejecutor.execute(() -> {
+            try {
+                // Una tarjeta sin padre no se adjunta a nada: se puede inflar fuera del hilo principal
+                View tarjeta = LayoutInflater.from(context).inflate(R.layout.item_tutorial_card, null, false);
+                configurar(tarjeta.findViewById(R.id.textView_tutorial_description));
+            } catch (RuntimeException e) {
+                // Sin parámetros se mide al enlazar, como antes de tener el precálculo
+                Log.w(TAG, "No se pudieron leer los parámetros de medición", e);
+            }
+        });
+    }
+
+    /**
+     * Toma los parámetros de medición de un TextView de descripción.
+     *
+     * @param prototipo TextView de una tarjeta (textView_tutorial_description).
+     */
+    private void configurar(TextView prototipo) {
+        params = TextViewCompat.getTextMetricsParams(prototipo);
+    }
+
+    /**
+     * Mide en segundo plano las descripciones del idioma indicado que aún no estén
+     * en caché. Si no se pudieron obtener los parámetros, se avisa sin precalcular.
+     *
+     * @param articulos   Pasos del tutorial recién recibidos.
+     * @param idioma      Idioma activo ("es" o "en").
+     * @param alTerminar  Acción a ejecutar en el hilo principal al acabar.
+     */
+    public void precalcular(List<TutorialArticulo> articulos, String idioma, Runnable alTerminar) {
+        if (ejecutor.isShutdown()) {
+            alTerminar.run();
+            return;
+        }
+
+        // Los parámetros se leen dentro de la tarea: la configuración inicial va antes en la cola
+        ejecutor.execute(() -> {
+            PrecomputedTextCompat.Params paramsActuales = params;
+            if (paramsActuales == null) {
+                hiloPrincipal.post(alTerminar);
+                return;
+            }
+            for (TutorialArticulo articulo : articulos) {
+                String texto = articulo.getTextoSegunIdioma(idioma);
+                if (texto == null || texto.isEmpty())
+                    continue;
+                String clave = clave(texto, idioma);
+                if (cache.get(clave) == null) {
+                    cache.put(clave, PrecomputedTextCompat.create(texto, paramsActuales));
+                }
+            }
+            hiloPrincipal.post(alTerminar);
+        });
+    }
+
+    /**
+     * Devuelve el texto ya medido, o null si aún no se ha calculado.
+     *
+     * @param texto  Descripción a mostrar.
+     * @param idioma Idioma de la descripción.
+     * @return Texto precalculado listo para TextViewCompat.setPrecomputedText.
+     */
+    @Nullable
+    public PrecomputedTextCompat obtener(@Nullable String texto, String idioma) {
+        if (texto == null || params == null)
+            return null;
+        return cache.get(clave(texto, idioma));
+    }
+
+    /**
+     * Detiene el hilo de cálculo y vacía la caché.
+     */
+    public void liberar() {
+        ejecutor.shutdownNow();
+        cache.evictAll();
+    }
+
+    private String clave(String texto, String idioma) {
+        return idioma + '|' + texto;
+    }
+}
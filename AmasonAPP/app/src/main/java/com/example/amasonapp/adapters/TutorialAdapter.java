@@ -1,19 +1,38 @@
 package com.example.amasonapp.adapters;
 
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+import android.util.LruCache;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.signature.ObjectKey;
 import com.example.amasonapp.R;
+import com.example.amasonapp.VisorImagenActivity;
+import com.example.amasonapp.data.ImagenCache;
+import com.example.amasonapp.depuracion.VigilanteHiloPrincipal;
 import com.example.amasonapp.model.TutorialArticulo;
+import com.example.amasonapp.views.BlurHash;
+import com.example.amasonapp.views.ImagenProporcionalView;
 
+import java.io.File;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * ADAPTADOR PARA LAS TARJETAS DE TUTORIAL
@@ -33,6 +52,19 @@ public class TutorialAdapter extends RecyclerView.Adapter<TutorialAdapter.Tutori
     // Contexto de la aplicación necesario para acceder a recursos
     private Context context;
 
+    // Caché opcional de descripciones ya medidas en segundo plano
+    private PrecalculadorTextos precalculador;
+
+    // Lado en píxeles al que se decodifican los BlurHash (luego se estiran)
+    private static final int LADO_MARCADOR = 24;
+
+    // Marcadores ya decodificados, por cadena BlurHash (cada uno ocupa ~2 KB)
+    private static final LruCache<String, Bitmap> MARCADORES = new LruCache<>(64);
+
+    // Identificadores de drawable ya resueltos por nombre (getIdentifier recorre la
+    // tabla de recursos en cada llamada)
+    private final Map<String, Integer> recursosImagen = new HashMap<>();
+
     /**
      * Constructor del adaptador.
      * 
@@ -46,38 +78,163 @@ public class TutorialAdapter extends RecyclerView.Adapter<TutorialAdapter.Tutori
         this.context = context;
     }
 
+    /**
+     * Asigna el precalculador de textos.
+     *
+     * @param precalculador Caché de descripciones medidas fuera del hilo principal.
+     */
+    public void setPrecalculador(PrecalculadorTextos precalculador) {
+        this.precalculador = precalculador;
+    }
+
     @NonNull
     @Override
     public TutorialViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        // Inflamos el diseño de la tarjeta individual (item_tutorial_card.xml)
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_tutorial_card, parent, false);
-        return new TutorialViewHolder(view);
+        try (VigilanteHiloPrincipal.Guardia g = VigilanteHiloPrincipal.medir(
+                "TutorialAdapter.onCreateViewHolder", VigilanteHiloPrincipal.PRESUPUESTO_ENLACE_MS)) {
+            // Inflamos el diseño de la tarjeta individual (item_tutorial_card.xml)
+            View view = LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_tutorial_card, parent, false);
+            return new TutorialViewHolder(view);
+        }
     }
 
     @Override
     public void onBindViewHolder(@NonNull TutorialViewHolder holder, int position) {
+        try (VigilanteHiloPrincipal.Guardia g = VigilanteHiloPrincipal.medir(
+                "TutorialAdapter.onBindViewHolder", VigilanteHiloPrincipal.PRESUPUESTO_ENLACE_MS)) {
+            enlazar(holder, position);
+        }
+    }
+
+    /**
+     * Rellena una tarjeta con el texto y la imagen del paso indicado.
+     */
+    private void enlazar(TutorialViewHolder holder, int position) {
         // Obtenemos el artículo correspondiente a la posición actual
         TutorialArticulo articulo = articulos.get(position);
 
         // 1. Asignamos el texto descriptivo según el idioma
+        // (si ya se midió en segundo plano solo se adjunta el resultado)
         String textoMostrar = articulo.getTextoSegunIdioma(idiomaActual);
-        holder.description.setText(textoMostrar);
+        PrecomputedTextCompat precalculado = precalculador != null
+                ? precalculador.obtener(textoMostrar, idiomaActual)
+                : null;
+        if (precalculado != null) {
+            TextViewCompat.setPrecomputedText(holder.description, precalculado);
+        } else {
+            holder.description.setText(textoMostrar);
+        }
+
+        // Al pulsar la captura se abre el visor con zoom a pantalla completa
+        holder.image.setOnClickListener(v ->
+                context.startActivity(VisorImagenActivity.crearIntent(context, articulo)));
+
+        // 2. Con las dimensiones publicadas la tarjeta se mide ya a su tamaño final y
+        // se pinta el marcador hasta que la imagen real esté decodificada
+        holder.image.setProporcion(articulo.getImagenAncho(), articulo.getImagenAlto());
+        Drawable marcador = crearMarcador(articulo);
 
-        // 2. Cargamos la imagen dinámicamente usando su nombre (string) guardado en
+        // 3. Si el paso apunta a Firebase Storage, la imagen se sirve desde la caché
+        // en disco (descargándola en segundo plano la primera vez)
+        if (articulo.tieneImagenRemota()) {
+            cargarImagenRemota(holder, articulo, marcador);
+            return;
+        }
+
+        // Cancelamos cualquier carga remota pendiente de un uso anterior de la tarjeta
+        holder.hashEnlazado = null;
+
+        // 4. Cargamos la imagen dinámicamente usando su nombre (string) guardado en
         // Firestore
-        int imageResId = context.getResources().getIdentifier(
-                articulo.getImagenNombre(),
-                "drawable",
-                context.getPackageName());
-
-        // Si la imagen existe en drawable la mostramos, si no, ponemos una por defecto
-        if (imageResId != 0) {
-            holder.image.setImageResource(imageResId);
-        } else {
-            // Imagen de respaldo en caso de error en el nombre del recurso
-            holder.image.setImageResource(R.drawable.ic_ftp);
+        int imageResId = resolverImagen(articulo.getImagenNombre());
+
+        // Si la imagen existe en drawable la decodificamos en segundo plano (ajustada
+        // al tamaño de la tarjeta); si no, ponemos una por defecto
+        Glide.with(holder.image)
+                .load(imageResId != 0 ? imageResId : R.drawable.ic_ftp)
+                .placeholder(marcador)
+                .into(holder.image);
+    }
+
+    /**
+     * @return Identificador del drawable con ese nombre, o 0 si no existe.
+     */
+    private int resolverImagen(String nombre) {
+        if (nombre == null)
+            return 0;
+        Integer id = recursosImagen.get(nombre);
+        if (id == null) {
+            id = context.getResources().getIdentifier(nombre, "drawable", context.getPackageName());
+            recursosImagen.put(nombre, id);
+        }
+        return id;
+    }
+
+    /**
+     * Construye el marcador de posición publicado con el paso: el BlurHash si lo
+     * hay, el color medio si no, o nada.
+     */
+    private Drawable crearMarcador(TutorialArticulo articulo) {
+        String blurHash = articulo.getImagenBlurHash();
+        if (blurHash != null && !blurHash.isEmpty()) {
+            Bitmap bitmap = MARCADORES.get(blurHash);
+            if (bitmap == null) {
+                bitmap = BlurHash.decodificar(blurHash, LADO_MARCADOR, LADO_MARCADOR);
+                if (bitmap != null) {
+                    MARCADORES.put(blurHash, bitmap);
+                }
+            }
+            if (bitmap != null) {
+                return new BitmapDrawable(context.getResources(), bitmap);
+            }
+        }
+
+        String color = articulo.getImagenColor();
+        if (color != null && !color.isEmpty()) {
+            try {
+                return new ColorDrawable(Color.parseColor(color));
+            } catch (IllegalArgumentException e) {
+                Log.w("TutorialAdapter", "Color de marcador no válido: " + color);
+            }
         }
+        return null;
+    }
+
+    /**
+     * Pide la imagen a la caché de contenido y la decodifica con Glide al estar
+     * disponible. La tarjeta recuerda qué huella tiene enlazada para descartar
+     * resultados que lleguen después de haber sido reciclada.
+     */
+    private void cargarImagenRemota(TutorialViewHolder holder, TutorialArticulo articulo, Drawable marcador) {
+        final String hash = articulo.getImagenHash();
+        holder.hashEnlazado = hash;
+        Glide.with(holder.image).clear(holder.image);
+        holder.image.setImageDrawable(marcador);
+
+        ImagenCache.getInstance(context).obtener(articulo.getImagenRuta(), hash,
+                new ImagenCache.ImagenCallback() {
+                    @Override
+                    public void onImagenDisponible(File archivo) {
+                        if (!hash.equals(holder.hashEnlazado))
+                            return;
+                        // El archivo ya es la caché en disco; Glide solo mantiene la de memoria
+                        Glide.with(holder.image)
+                                .load(archivo)
+                                .signature(new ObjectKey(hash))
+                                .placeholder(marcador)
+                                .diskCacheStrategy(DiskCacheStrategy.NONE)
+                                .error(R.drawable.ic_ftp)
+                                .into(holder.image);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        if (hash.equals(holder.hashEnlazado)) {
+                            holder.image.setImageResource(R.drawable.ic_ftp);
+                        }
+                    }
+                });
     }
 
     @Override
@@ -85,6 +242,14 @@ public class TutorialAdapter extends RecyclerView.Adapter<TutorialAdapter.Tutori
         return articulos.size();
     }
 
+    /**
+     * @param position Posición en la lista.
+     * @return Artículo mostrado en esa posición, o null si no existe.
+     */
+    public TutorialArticulo getArticulo(int position) {
+        return position >= 0 && position < articulos.size() ? articulos.get(position) : null;
+    }
+
     /**
      * Actualiza el idioma de visualización y refresca la lista completa.
      * 
@@ -110,10 +275,13 @@ public class TutorialAdapter extends RecyclerView.Adapter<TutorialAdapter.Tutori
      * Clase interna ViewHolder que mantiene las referencias a las vistas de cada
      * tarjeta.
      */
-    static class TutorialViewHolder extends RecyclerView.ViewHolder {
-        ImageView image;
+    public static class TutorialViewHolder extends RecyclerView.ViewHolder {
+        ImagenProporcionalView image;
         TextView description;
 
+        // Huella de la imagen remota asignada actualmente a esta tarjeta
+        String hashEnlazado;
+
         public TutorialViewHolder(@NonNull View itemView) {
             super(itemView);
             // Vinculamos los elementos del layout item_tutorial_card.xml
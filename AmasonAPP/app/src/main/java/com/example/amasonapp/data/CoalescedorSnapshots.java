@@ -0,0 +1,166 @@
+package com.example.amasonapp.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ETAPA DE COALESCENCIA DE INSTANTÁNEAS
+ *
+ * Se interpone entre el listener de Firestore y la UI para que las ráfagas de
+ * instantáneas (ediciones masivas en la consola, ecos de escrituras pendientes)
+ * no provoquen una reconstrucción de la lista por cada una:
+ *
+ * 1. Descarta las instantáneas que no traen cambios de documentos (solo
+ *    metadatos, como la confirmación de una escritura que ya se entregó).
+ * 2. Agrupa las que llegan dentro de la ventana configurada y mapea solo la
+ *    última, siempre en un hilo de fondo. Una instantánea con escrituras
+ *    pendientes solo se salta si otra más reciente ocupa su lugar, de modo que
+ *    los cambios locales llegan a la UI sin esperar al servidor.
+ * 3. Entrega a la UI como mucho un resultado por fotograma (vsync).
+ *
+ * La primera instantánea no espera a la ventana para no retrasar la carga inicial.
+ */
+class CoalescedorSnapshots<T> implements EventListener<QuerySnapshot> {
+
+    /**
+     * Destino de los datos ya mapeados (siempre en el hilo principal).
+     */
+    interface Destino<T> {
+        void onDatos(T datos);
+
+        void onError(Exception e);
+    }
+
+    // Contadores globales para las métricas del gestor
+    static final AtomicLong DESCARTADAS = new AtomicLong();
+    static final AtomicLong FUSIONADAS = new AtomicLong();
+
+    private final GestorSuscripciones.Mapeador<T> mapeador;
+    private final Destino<T> destino;
+    private final ScheduledExecutorService ejecutor;
+    private final long ventanaMs;
+    private final Handler hiloPrincipal = new Handler(Looper.getMainLooper());
+
+    // --- Estado confinado al hilo del ejecutor (un único hilo) ---
+    private QuerySnapshot snapshotPendiente;
+    private boolean mapeoProgramado;
+    private boolean primeraRecibida;
+
+    // --- Estado compartido con el hilo principal ---
+    private final AtomicReference<T> valorPendiente = new AtomicReference<>();
+    private final AtomicBoolean fotogramaProgramado = new AtomicBoolean(false);
+    private volatile boolean cerrado;
+
+    /**
+     * @param mapeador  Conversión de la instantánea a datos de UI.
+     * @param destino   Receptor en el hilo principal.
+     * @param ejecutor  Ejecutor de un solo hilo donde llegan y se mapean las instantáneas.
+     * @param ventanaMs Tiempo durante el que se agrupan instantáneas consecutivas.
+     */
+    CoalescedorSnapshots(GestorSuscripciones.Mapeador<T> mapeador, Destino<T> destino,
+            ScheduledExecutorService ejecutor, long ventanaMs) {
+        this.mapeador = mapeador;
+        this.destino = destino;
+        this.ejecutor = ejecutor;
+        this.ventanaMs = ventanaMs;
+    }
+
+    @Override
+    public void onEvent(@Nullable QuerySnapshot value, @Nullable FirebaseFirestoreException e) {
+        if (cerrado)
+            return;
+
+        if (e != null) {
+            hiloPrincipal.post(() -> {
+                if (!cerrado) {
+                    destino.onError(e);
+                }
+            });
+            return;
+        }
+        if (value == null || esDescartable(value)) {
+            DESCARTADAS.incrementAndGet();
+            return;
+        }
+
+        if (snapshotPendiente != null) {
+            // La anterior aún no se había mapeado: la sustituimos por la más reciente
+            FUSIONADAS.incrementAndGet();
+        }
+        snapshotPendiente = value;
+        if (mapeoProgramado)
+            return;
+
+        mapeoProgramado = true;
+        long retraso = primeraRecibida ? ventanaMs : 0;
+        primeraRecibida = true;
+        ejecutor.schedule(this::mapearPendiente, retraso, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Las instantáneas que no cambian documentos no aportan nada. Las que traen
+     * escrituras locales pendientes no se descartan: la confirmada por el
+     * servidor llega sin cambios de documentos y no sustituiría a la local.
+     */
+    private boolean esDescartable(QuerySnapshot value) {
+        return primeraRecibida && value.getDocumentChanges().isEmpty();
+    }
+
+    private void mapearPendiente() {
+        mapeoProgramado = false;
+        QuerySnapshot snapshot = snapshotPendiente;
+        snapshotPendiente = null;
+        if (snapshot == null || cerrado)
+            return;
+
+        T datos;
+        try {
+            datos = mapeador.mapear(snapshot);
+        } catch (Exception conversionError) {
+            hiloPrincipal.post(() -> {
+                if (!cerrado) {
+                    destino.onError(conversionError);
+                }
+            });
+            return;
+        }
+
+        if (valorPendiente.getAndSet(datos) != null) {
+            FUSIONADAS.incrementAndGet();
+        }
+        if (fotogramaProgramado.compareAndSet(false, true)) {
+            hiloPrincipal.post(() -> Choreographer.getInstance().postFrameCallback(frameTimeNanos -> entregar()));
+        }
+    }
+
+    /**
+     * Se ejecuta al comienzo del siguiente fotograma con el valor más reciente.
+     */
+    private void entregar() {
+        fotogramaProgramado.set(false);
+        T datos = valorPendiente.getAndSet(null);
+        if (datos != null && !cerrado) {
+            destino.onDatos(datos);
+        }
+    }
+
+    /**
+     * Ignora cualquier instantánea o entrega posterior (al retirar el listener).
+     */
+    void cerrar() {
+        cerrado = true;
+    }
+}
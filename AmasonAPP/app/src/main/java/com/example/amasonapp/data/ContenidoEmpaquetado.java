@@ -0,0 +1,101 @@
+package com.example.amasonapp.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.LoadBundleTask;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * INSTANTÁNEA DE CONTENIDO EMPAQUETADA
+ *
+ * La APK lleva en sus assets un bundle de Firestore con las traducciones y
+ * todas las secciones, que genera el importador (opción --bundle). En la
+ * primera ejecución se carga en la caché local, de modo que el Login y el
+ * primer tutorial se pintan sin esperar a la red.
+ *
+ * Las consultas del bundle son las mismas que escucha la app, así que Firestore
+ * reanuda cada escucha desde la hora de la instantánea y solo descarga lo que ha
+ * cambiado desde entonces. La versión (contenido.version) evita volver a cargar
+ * el mismo bundle en cada arranque; una APK nueva con otra versión se carga una vez.
+ */
+public final class ContenidoEmpaquetado {
+
+    private static final String TAG = "ContenidoEmpaquetado";
+
+    static final String ARCHIVO_BUNDLE = "contenido.bundle";
+    static final String ARCHIVO_VERSION = "contenido.version";
+
+    private static final String PREFERENCIAS = "contenido_empaquetado";
+    private static final String CLAVE_VERSION = "version_cargada";
+
+    // Lo que se espera a la carga antes de abrir las escuchas; si tarda más, sigue
+    // en segundo plano y las escuchas reciben los documentos al terminar
+    private static final long ESPERA_MAXIMA_MS = 1500;
+
+    // Una sola carga por proceso, aunque la pidan el Login y la pantalla principal
+    private static boolean comprobado;
+
+    private ContenidoEmpaquetado() {
+    }
+
+    /**
+     * Carga la instantánea si esta versión aún no está en la caché local. Es
+     * bloqueante (con un plazo corto): debe llamarse en segundo plano, antes de
+     * abrir las escuchas de la pantalla.
+     *
+     * @param context Cualquier contexto; se usa el de la aplicación.
+     * @param db      Instancia de Firestore ya creada.
+     */
+    public static synchronized void cargar(Context context, FirebaseFirestore db) {
+        if (comprobado)
+            return;
+        comprobado = true;
+
+        Context app = context.getApplicationContext();
+        SharedPreferences preferencias = app.getSharedPreferences(PREFERENCIAS, Context.MODE_PRIVATE);
+        try {
+            String version = new String(leerAsset(app, ARCHIVO_VERSION), StandardCharsets.UTF_8).trim();
+            if (version.equals(preferencias.getString(CLAVE_VERSION, null)))
+                return;
+
+            long inicio = System.nanoTime();
+            LoadBundleTask carga = db.loadBundle(leerAsset(app, ARCHIVO_BUNDLE));
+            carga.addOnSuccessListener(progreso -> {
+                preferencias.edit().putString(CLAVE_VERSION, version).apply();
+                Log.d(TAG, "Instantánea " + version + " cargada: " + progreso.getDocumentsLoaded()
+                        + " documentos en " + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+            });
+            Tasks.await(carga, ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS);
+        } catch (FileNotFoundException e) {
+            // Compilación sin instantánea (por ejemplo, en desarrollo): todo llega de la red
+            Log.d(TAG, "La APK no incluye instantánea de contenido");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Caducada o fallida: las pantallas siguen funcionando con la red
+            Log.w(TAG, "No se pudo cargar la instantánea a tiempo", e);
+        }
+    }
+
+    private static byte[] leerAsset(Context context, String nombre) throws IOException {
+        try (InputStream entrada = context.getAssets().open(nombre)) {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            byte[] bloque = new byte[16 * 1024];
+            int leidos;
+            while ((leidos = entrada.read(bloque)) != -1) {
+                salida.write(bloque, 0, leidos);
+            }
+            return salida.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.amasonapp.data;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
+
+import com.example.amasonapp.depuracion.VigilanteHiloPrincipal;
+
+/**
+ * FLUJO DE DATOS LIGADO AL CICLO DE VIDA
+ *
+ * LiveData que representa una consulta de Firestore. El listener solo existe
+ * mientras haya algún observador en estado STARTED o superior:
+ *
+ * - Al pasar a inactivo (pantalla oculta) se retira la suscripción tras un
+ *   breve margen, de modo que una rotación no cierra y reabre el listener.
+ * - Al volver a activo, LiveData reenvía el último valor guardado y la
+ *   suscripción se vuelve a abrir para recibir los cambios.
+ *
+ * Los observadores se retiran solos al destruirse su propietario, así que las
+ * pantallas no necesitan detener la escucha a mano. En depuración, cada
+ * pantalla que observa el flujo se registra en {@link GestorSuscripciones}, que
+ * avisa si el listener sigue abierto cuando ya no queda ninguna.
+ */
+public class FlujoConsulta<T> extends LiveData<T> {
+
+    // Margen antes de soltar el listener al dejar de haber observadores visibles
+    private static final long PLAZO_DESCONEXION_MS = 1000;
+
+    private final String coleccion;
+    private final String[] camposOrden;
+    private final GestorSuscripciones.Mapeador<T> mapeador;
+
+    // Número máximo de documentos (0 = sin límite)
+    private final long limite;
+
+    // Filtro opcional a un único documento de la colección
+    private final String documento;
+
+    // Decide en cada conexión si basta la caché local (null = siempre el servidor)
+    private final CriterioCache<T> criterioCache;
+    // La caché devolvió datos incompletos: este flujo ya solo escucha el servidor
+    private boolean cacheIncompleta;
+    private final MutableLiveData<Exception> errores = new MutableLiveData<>();
+    private final Handler hiloPrincipal = new Handler(Looper.getMainLooper());
+    private final Runnable desconexion = this::desconectar;
+
+    private GestorSuscripciones.Suscripcion suscripcion;
+
+    /**
+     * Criterio para escuchar solo la caché local cuando se sabe que está al día;
+     * los cambios del servidor los trae entonces otra lectura.
+     */
+    public interface CriterioCache<T> {
+        /**
+         * @return true si basta con la caché. Se consulta cada vez que se abre la escucha.
+         */
+        boolean usarCache();
+
+        /**
+         * @param datos Datos leídos de la caché.
+         * @return false si faltan (por ejemplo, tras un desalojo): se pasa al servidor.
+         */
+        boolean estaCompleta(T datos);
+    }
+
+    /**
+     * @param coleccion  Colección de Firestore.
+     * @param campoOrden Campo de ordenación, o null para el orden natural.
+     * @param mapeador   Conversión de las instantáneas (en segundo plano).
+     */
+    FlujoConsulta(String coleccion, String campoOrden, GestorSuscripciones.Mapeador<T> mapeador) {
+        this(coleccion, GestorSuscripciones.camposDe(campoOrden), 0, mapeador);
+    }
+
+    /**
+     * @param coleccion   Colección de Firestore.
+     * @param camposOrden Campos de ordenación, en orden de prioridad.
+     * @param limite      Número máximo de documentos (0 = sin límite).
+     * @param mapeador    Conversión de las instantáneas (en segundo plano).
+     */
+    FlujoConsulta(String coleccion, String[] camposOrden, long limite, GestorSuscripciones.Mapeador<T> mapeador) {
+        this(coleccion, null, camposOrden, limite, null, mapeador);
+    }
+
+    /**
+     * @param coleccion     Colección de Firestore.
+     * @param documento     ID del único documento que se escucha, o null para toda la colección.
+     * @param camposOrden   Campos de ordenación, en orden de prioridad.
+     * @param limite        Número máximo de documentos (0 = sin límite).
+     * @param criterioCache Cuándo basta la caché local, o null para escuchar siempre el servidor.
+     * @param mapeador      Conversión de las instantáneas (en segundo plano).
+     */
+    FlujoConsulta(String coleccion, String documento, String[] camposOrden, long limite,
+            CriterioCache<T> criterioCache, GestorSuscripciones.Mapeador<T> mapeador) {
+        this.coleccion = coleccion;
+        this.documento = documento;
+        this.camposOrden = camposOrden;
+        this.limite = limite;
+        this.criterioCache = criterioCache;
+        this.mapeador = mapeador;
+    }
+
+    /**
+     * @return Errores de la consulta (red, permisos o formato).
+     */
+    public LiveData<Exception> getErrores() {
+        return errores;
+    }
+
+    /**
+     * Vuelve a abrir la escucha si un error la cerró y hay alguien mirando
+     * (por ejemplo, al recuperar la conexión).
+     */
+    public void reintentar() {
+        if (hasActiveObservers()) {
+            conectar();
+        }
+    }
+
+    @Override
+    public void observe(@NonNull LifecycleOwner propietario, @NonNull Observer<? super T> observador) {
+        super.observe(propietario, observador);
+        if (propietario.getLifecycle().getCurrentState() != Lifecycle.State.DESTROYED) {
+            GestorSuscripciones.getInstance().vigilar(propietario, this);
+        }
+    }
+
+    @Override
+    protected void onActive() {
+        hiloPrincipal.removeCallbacks(desconexion);
+        conectar();
+    }
+
+    @Override
+    protected void onInactive() {
+        hiloPrincipal.postDelayed(desconexion, PLAZO_DESCONEXION_MS);
+    }
+
+    private void conectar() {
+        if (suscripcion != null && suscripcion.estaActiva())
+            return;
+
+        boolean soloCache = criterioCache != null && !cacheIncompleta && criterioCache.usarCache();
+        suscripcion = GestorSuscripciones.getInstance().suscribir(this, coleccion, documento, camposOrden, null,
+                limite, soloCache, mapeador, new GestorSuscripciones.Oyente<T>() {
+                    @Override
+                    public void onDatos(T datos) {
+                        // Al reanudar, el gestor puede reenviar el mismo valor que ya tenemos
+                        if (datos == getValue())
+                            return;
+                        if (soloCache && !criterioCache.estaCompleta(datos)) {
+                            pasarAlServidor();
+                            return;
+                        }
+                        try (VigilanteHiloPrincipal.Guardia g = VigilanteHiloPrincipal.medir(
+                                "FlujoConsulta." + coleccion, VigilanteHiloPrincipal.PRESUPUESTO_CALLBACK_DATOS_MS)) {
+                            setValue(datos);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        // Firestore cierra el listener tras un error: soltamos la suscripción
+                        // para que la próxima activación (o reintentar) la abra de nuevo
+                        desconectar();
+                        errores.setValue(e);
+                    }
+                });
+    }
+
+    /**
+     * La caché no tiene la consulta completa: se abre la escucha contra el
+     * servidor (que entrega primero lo que haya en caché) y se suelta la local.
+     */
+    private void pasarAlServidor() {
+        cacheIncompleta = true;
+        GestorSuscripciones.Suscripcion anterior = suscripcion;
+        suscripcion = null;
+        conectar();
+        if (anterior != null) {
+            anterior.cancelar();
+        }
+    }
+
+    private void desconectar() {
+        if (suscripcion != null) {
+            suscripcion.cancelar();
+            suscripcion = null;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.amasonapp.data;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
+
+import com.example.amasonapp.depuracion.VigilanteHiloPrincipal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FLUJO PAGINADO LIGADO AL CICLO DE VIDA
+ *
+ * Lista de una consulta ordenada que se carga por páginas. Cada página es una
+ * consulta con su propio límite que empieza justo después del último documento
+ * de la anterior (startAfter):
+ *
+ * - Pedir la página siguiente solo abre una escucha para los documentos nuevos;
+ *   las páginas ya cargadas no se vuelven a leer ni a mapear.
+ * - El valor publicado es la concatenación de las páginas recibidas, en orden.
+ * - Como en {@link FlujoConsulta}, las escuchas solo existen mientras haya algún
+ *   observador visible y se sueltan tras un breve margen al ocultarse.
+ *
+ * El cursor de cada página se fija al pedirla: un documento insertado después en
+ * una página ya completa desplaza su último documento fuera de la lista hasta
+ * que el flujo se vuelve a crear.
+ */
+public class FlujoPaginado<E> extends LiveData<List<E>> {
+
+    // Margen antes de soltar las escuchas al dejar de haber observadores visibles
+    private static final long PLAZO_DESCONEXION_MS = 1000;
+
+    /**
+     * Valores de los campos de orden de un elemento, para empezar la página
+     * siguiente justo después de él.
+     */
+    public interface Cursor<E> {
+        Object[] valoresDe(E ultimo);
+    }
+
+    private final String coleccion;
+    private final String[] camposOrden;
+    private final int tamanoPagina;
+    private final Cursor<E> cursor;
+    private final GestorSuscripciones.Mapeador<List<E>> mapeador;
+
+    private final List<Pagina> paginas = new ArrayList<>();
+    private final MutableLiveData<Exception> errores = new MutableLiveData<>();
+    private final Handler hiloPrincipal = new Handler(Looper.getMainLooper());
+    private final Runnable desconexion = this::desconectar;
+
+    /**
+     * Una página: su cursor, su escucha y los elementos ya mapeados.
+     */
+    private final class Pagina {
+        final Object[] despuesDe;
+        GestorSuscripciones.Suscripcion suscripcion;
+        // null hasta la primera entrega
+        List<E> elementos;
+
+        Pagina(Object[] despuesDe) {
+            this.despuesDe = despuesDe;
+        }
+    }
+
+    /**
+     * @param coleccion    Colección de Firestore.
+     * @param camposOrden  Campos de ordenación, en orden de prioridad.
+     * @param tamanoPagina Documentos por página.
+     * @param cursor       Valores de los campos de orden de un elemento.
+     * @param mapeador     Conversión de las instantáneas de una página (en segundo plano).
+     */
+    FlujoPaginado(String coleccion, String[] camposOrden, int tamanoPagina, Cursor<E> cursor,
+            GestorSuscripciones.Mapeador<List<E>> mapeador) {
+        this.coleccion = coleccion;
+        this.camposOrden = camposOrden;
+        this.tamanoPagina = tamanoPagina;
+        this.cursor = cursor;
+        this.mapeador = mapeador;
+        paginas.add(new Pagina(null));
+    }
+
+    /**
+     * @return Errores de la consulta (red, permisos o formato).
+     */
+    public LiveData<Exception> getErrores() {
+        return errores;
+    }
+
+    /**
+     * Pide la página siguiente, solo si la última ya llegó completa (si llegó
+     * incompleta, no hay más documentos). Mientras no llegue, el valor no cambia.
+     *
+     * @return true si se ha pedido una página nueva.
+     */
+    public boolean cargarSiguiente() {
+        Pagina ultima = paginas.get(paginas.size() - 1);
+        if (ultima.elementos == null || ultima.elementos.size() < tamanoPagina)
+            return false;
+
+        Pagina siguiente = new Pagina(cursor.valoresDe(ultima.elementos.get(ultima.elementos.size() - 1)));
+        paginas.add(siguiente);
+        if (hasActiveObservers()) {
+            conectar(siguiente);
+        }
+        return true;
+    }
+
+    /**
+     * Vuelve a abrir las escuchas que un error cerró si hay alguien mirando.
+     */
+    public void reintentar() {
+        if (hasActiveObservers()) {
+            conectarTodas();
+        }
+    }
+
+    @Override
+    public void observe(@NonNull LifecycleOwner propietario, @NonNull Observer<? super List<E>> observador) {
+        super.observe(propietario, observador);
+        if (propietario.getLifecycle().getCurrentState() != Lifecycle.State.DESTROYED) {
+            GestorSuscripciones.getInstance().vigilar(propietario, this);
+        }
+    }
+
+    @Override
+    protected void onActive() {
+        hiloPrincipal.removeCallbacks(desconexion);
+        conectarTodas();
+    }
+
+    @Override
+    protected void onInactive() {
+        hiloPrincipal.postDelayed(desconexion, PLAZO_DESCONEXION_MS);
+    }
+
+    private void conectarTodas() {
+        for (Pagina pagina : paginas) {
+            conectar(pagina);
+        }
+    }
+
+    private void conectar(Pagina pagina) {
+        if (pagina.suscripcion != null && pagina.suscripcion.estaActiva())
+            return;
+
+        pagina.suscripcion = GestorSuscripciones.getInstance().suscribir(this, coleccion, null, camposOrden,
+                pagina.despuesDe, tamanoPagina, false, mapeador, new GestorSuscripciones.Oyente<List<E>>() {
+                    @Override
+                    public void onDatos(List<E> datos) {
+                        // Al reanudar, el gestor puede reenviar la misma página que ya tenemos
+                        if (datos == pagina.elementos)
+                            return;
+                        pagina.elementos = datos;
+                        publicar();
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        // Firestore cierra el listener tras un error: la próxima activación
+                        // (o reintentar) lo abre de nuevo
+                        if (pagina.suscripcion != null) {
+                            pagina.suscripcion.cancelar();
+                            pagina.suscripcion = null;
+                        }
+                        errores.setValue(e);
+                    }
+                });
+    }
+
+    /**
+     * Publica las páginas recibidas hasta la primera que aún no ha llegado, para
+     * no dejar huecos en el orden. Solo se copian referencias: nada se remapea.
+     */
+    private void publicar() {
+        int total = 0;
+        int recibidas = 0;
+        for (Pagina pagina : paginas) {
+            if (pagina.elementos == null)
+                break;
+            total += pagina.elementos.size();
+            recibidas++;
+        }
+
+        List<E> todos = new ArrayList<>(total);
+        for (int i = 0; i < recibidas; i++) {
+            todos.addAll(paginas.get(i).elementos);
+        }
+        try (VigilanteHiloPrincipal.Guardia g = VigilanteHiloPrincipal.medir(
+                "FlujoPaginado." + coleccion, VigilanteHiloPrincipal.PRESUPUESTO_CALLBACK_DATOS_MS)) {
+            setValue(todos);
+        }
+    }
+
+    private void desconectar() {
+        for (Pagina pagina : paginas) {
+            if (pagina.suscripcion != null) {
+                pagina.suscripcion.cancelar();
+                pagina.suscripcion = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package com.example.amasonapp.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LiveData;
+
+import com.example.amasonapp.BuildConfig;
+import com.example.amasonapp.depuracion.GrabadorSnapshots;
+import com.example.amasonapp.startup.ServiciosFirebase;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenSource;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SnapshotListenOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * GESTOR DE SUSCRIPCIONES A FIRESTORE
+ *
+ * Centraliza los listeners en tiempo real de toda la aplicación. Cada consulta
+ * (colección + campos de orden + cursor + límite) tiene como mucho un listener activo, compartido
+ * por todos los que se suscriben a ella: los datos se mapean una sola vez y se
+ * reparten a cada suscriptor.
+ *
+ * Suscribirse dos veces con el mismo propietario a la misma consulta no crea un
+ * segundo listener, sino que devuelve la suscripción existente. Además expone
+ * métricas (listeners activos y su antigüedad) y, en compilaciones de depuración,
+ * avisa cuando un flujo sigue escuchando después de destruirse la última
+ * pantalla que lo observaba.
+ *
+ * Todas las operaciones deben realizarse desde el hilo principal.
+ */
+public class GestorSuscripciones {
+
+    private static final String TAG = "Suscripciones";
+
+    // Margen tras ON_DESTROY antes de considerar fugada una suscripción
+    private static final long MARGEN_FUGA_MS = 2000;
+
+    private static GestorSuscripciones instancia;
+
+    // Ventana por defecto para agrupar ráfagas de instantáneas consecutivas
+    private static final long VENTANA_COALESCENCIA_MS = 50;
+
+    private final FirebaseFirestore db;
+    private final Handler hiloPrincipal = new Handler(Looper.getMainLooper());
+
+    // Hilo único donde se reciben, filtran y mapean las instantáneas
+    private final ScheduledExecutorService ejecutorSnapshots = Executors.newSingleThreadScheduledExecutor();
+    private long ventanaCoalescenciaMs = VENTANA_COALESCENCIA_MS;
+
+    // Consultas activas indexadas por su clave
+    private final Map<String, Consulta<?>> consultas = new LinkedHashMap<>();
+
+    // Pantallas cuyo ciclo de vida ya se está vigilando, con los flujos que observan
+    private final Map<LifecycleOwner, Set<LiveData<?>>> vigilados = new WeakHashMap<>();
+
+    /**
+     * Transforma la instantánea recibida en los datos que consume la UI.
+     */
+    public interface Mapeador<T> {
+        T mapear(QuerySnapshot snapshot) throws Exception;
+    }
+
+    /**
+     * Receptor de los datos mapeados de una consulta.
+     */
+    public interface Oyente<T> {
+        void onDatos(T datos);
+
+        void onError(Exception e);
+    }
+
+    /**
+     * Listener compartido de una consulta junto a todos sus suscriptores.
+     */
+    private static class Consulta<T> {
+        final String clave;
+        final long creadaEn = SystemClock.elapsedRealtime();
+        final List<Suscripcion> suscriptores = new ArrayList<>();
+        ListenerRegistration registro;
+        CoalescedorSnapshots<T> coalescedor;
+        T ultimoValor;
+
+        Consulta(String clave) {
+            this.clave = clave;
+        }
+    }
+
+    /**
+     * Manejador que recibe quien se suscribe. Cancelarlo es idempotente.
+     */
+    public final class Suscripcion {
+        private final String clave;
+        private final Object propietario;
+        private Oyente<?> oyente;
+        private boolean activa = true;
+
+        private Suscripcion(String clave, Object propietario, Oyente<?> oyente) {
+            this.clave = clave;
+            this.propietario = propietario;
+            this.oyente = oyente;
+        }
+
+        public boolean estaActiva() {
+            return activa;
+        }
+
+        /**
+         * Retira este suscriptor. Si era el último, se elimina el listener de Firestore.
+         */
+        public void cancelar() {
+            if (!activa)
+                return;
+            activa = false;
+            Consulta<?> consulta = consultas.get(clave);
+            if (consulta == null)
+                return;
+            consulta.suscriptores.remove(this);
+            if (consulta.suscriptores.isEmpty()) {
+                consulta.coalescedor.cerrar();
+                consulta.registro.remove();
+                consultas.remove(clave);
+            }
+        }
+    }
+
+    private GestorSuscripciones() {
+        db = ServiciosFirebase.firestore();
+    }
+
+    /**
+     * Devuelve el gestor único de la aplicación.
+     *
+     * @return Instancia compartida.
+     */
+    public static GestorSuscripciones getInstance() {
+        comprobarHiloPrincipal();
+        if (instancia == null) {
+            instancia = new GestorSuscripciones();
+        }
+        return instancia;
+    }
+
+    /**
+     * Cambia la ventana de agrupación para las consultas que se creen a partir de ahora.
+     *
+     * @param ventanaMs Milisegundos durante los que se fusionan instantáneas (0 = solo por fotograma).
+     */
+    public void setVentanaCoalescenciaMs(long ventanaMs) {
+        this.ventanaCoalescenciaMs = Math.max(0, ventanaMs);
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // SUSCRIPCIÓN
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Suscribe un flujo, que es el propietario de la suscripción: la cancela al
+     * quedarse sin observadores visibles. Las pantallas que lo observan se vigilan
+     * aparte (ver {@link #vigilar}).
+     *
+     * @param documento ID del único documento que se escucha, o null para toda la colección.
+     * @param despuesDe Valores de los campos de orden tras los que empieza la consulta
+     *                  (startAfter), o null para empezar por el principio.
+     * @param soloCache Si es true, el listener solo lee la caché local (sin red);
+     *                  otra lectura se encarga de traer los cambios del servidor.
+     */
+    <T> Suscripcion suscribir(LiveData<?> flujo, String coleccion, String documento, String[] camposOrden,
+            Object[] despuesDe, long limite, boolean soloCache, Mapeador<T> mapeador, Oyente<T> oyente) {
+        comprobarHiloPrincipal();
+        return suscribirInterno(flujo, coleccion, documento, camposOrden, despuesDe, limite, soloCache, mapeador,
+                oyente);
+    }
+
+    static String[] camposDe(String campoOrden) {
+        return campoOrden == null ? new String[0] : new String[] { campoOrden };
+    }
+
+    /**
+     * Clave de una consulta: "coleccion" (o "coleccion/documento"),
+     * "coleccion|campo1,campo2", con cursor "...>valor1,valor2" y, con límite,
+     * "...#limite". Cada página de una consulta paginada es otra clave, y la
+     * escucha solo de caché ("...@cache") no se comparte con la del servidor.
+     */
+    static String claveDe(String coleccion, String documento, String[] camposOrden, Object[] despuesDe,
+            long limite, boolean soloCache) {
+        String base = documento == null ? coleccion : coleccion + "/" + documento;
+        String clave = camposOrden.length == 0 ? base : base + "|" + String.join(",", camposOrden);
+        if (despuesDe != null) {
+            StringBuilder cursor = new StringBuilder(clave).append('>');
+            for (int i = 0; i < despuesDe.length; i++) {
+                cursor.append(i == 0 ? "" : ",").append(despuesDe[i]);
+            }
+            clave = cursor.toString();
+        }
+        if (limite > 0) {
+            clave += "#" + limite;
+        }
+        return soloCache ? clave + "@cache" : clave;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Suscripcion suscribirInterno(Object propietario, String coleccion, String documento,
+            String[] camposOrden, Object[] despuesDe, long limite, boolean soloCache, Mapeador<T> mapeador,
+            Oyente<T> oyente) {
+        String clave = claveDe(coleccion, documento, camposOrden, despuesDe, limite, soloCache);
+
+        Consulta<T> consulta = (Consulta<T>) consultas.get(clave);
+        if (consulta != null) {
+            for (Suscripcion existente : consulta.suscriptores) {
+                if (existente.propietario == propietario) {
+                    // Suscripción repetida: solo se actualiza el destino de los datos
+                    existente.oyente = oyente;
+                    return existente;
+                }
+            }
+        }
+
+        Suscripcion suscripcion = new Suscripcion(clave, propietario, oyente);
+
+        if (consulta == null) {
+            consulta = crearConsulta(clave, coleccion, documento, camposOrden, despuesDe, limite, soloCache,
+                    mapeador);
+        } else if (consulta.ultimoValor != null) {
+            // La consulta ya estaba viva: entregamos el último valor sin esperar a la red
+            final T valor = consulta.ultimoValor;
+            hiloPrincipal.post(() -> {
+                if (suscripcion.activa) {
+                    oyente.onDatos(valor);
+                }
+            });
+        }
+        consulta.suscriptores.add(suscripcion);
+        return suscripcion;
+    }
+
+    private <T> Consulta<T> crearConsulta(String clave, String coleccion, String documento, String[] camposOrden,
+            Object[] despuesDe, long limite, boolean soloCache, Mapeador<T> mapeador) {
+        Consulta<T> consulta = new Consulta<>(clave);
+
+        Query query = db.collection(coleccion);
+        if (documento != null) {
+            query = query.whereEqualTo(FieldPath.documentId(), documento);
+        }
+        for (String campo : camposOrden) {
+            query = query.orderBy(campo, Query.Direction.ASCENDING);
+        }
+        if (despuesDe != null) {
+            query = query.startAfter(despuesDe);
+        }
+        if (limite > 0) {
+            query = query.limit(limite);
+        }
+
+        // Las instantáneas llegan y se mapean en segundo plano; la UI recibe como mucho
+        // una actualización consolidada por fotograma
+        consulta.coalescedor = new CoalescedorSnapshots<>(conGrabacion(coleccion, clave, mapeador), new CoalescedorSnapshots.Destino<T>() {
+            @Override
+            public void onDatos(T datos) {
+                consulta.ultimoValor = datos;
+                repartir(consulta, datos);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                repartirError(consulta, e);
+            }
+        }, ejecutorSnapshots, ventanaCoalescenciaMs);
+        SnapshotListenOptions opciones = new SnapshotListenOptions.Builder()
+                .setExecutor(ejecutorSnapshots)
+                .setSource(soloCache ? ListenSource.CACHE : ListenSource.DEFAULT)
+                .build();
+        consulta.registro = query.addSnapshotListener(opciones, consulta.coalescedor);
+        consultas.put(clave, consulta);
+        return consulta;
+    }
+
+    /**
+     * En depuración, si se está grabando una traza, anota cada instantánea justo
+     * antes de mapearla (ver {@link GrabadorSnapshots}).
+     */
+    private static <T> Mapeador<T> conGrabacion(String coleccion, String clave, Mapeador<T> mapeador) {
+        if (GrabadorSnapshots.getActivo() == null)
+            return mapeador;
+        return snapshot -> {
+            GrabadorSnapshots grabador = GrabadorSnapshots.getActivo();
+            if (grabador != null) {
+                grabador.grabar(coleccion, clave, snapshot);
+            }
+            return mapeador.mapear(snapshot);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void repartir(Consulta<T> consulta, T datos) {
+        // Copia defensiva: un suscriptor puede cancelarse dentro de su propio callback
+        for (Suscripcion suscripcion : new ArrayList<>(consulta.suscriptores)) {
+            if (suscripcion.activa) {
+                ((Oyente<T>) suscripcion.oyente).onDatos(datos);
+            }
+        }
+    }
+
+    private void repartirError(Consulta<?> consulta, Exception e) {
+        for (Suscripcion suscripcion : new ArrayList<>(consulta.suscriptores)) {
+            if (suscripcion.activa) {
+                suscripcion.oyente.onError(e);
+            }
+        }
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // MÉTRICAS
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return Número de listeners de Firestore abiertos en este momento.
+     */
+    public int getListenersActivos() {
+        return consultas.size();
+    }
+
+    /**
+     * @return Número total de suscriptores repartidos entre todos los listeners.
+     */
+    public int getSuscriptoresActivos() {
+        int total = 0;
+        for (Consulta<?> consulta : consultas.values()) {
+            total += consulta.suscriptores.size();
+        }
+        return total;
+    }
+
+    /**
+     * @return Instantáneas ignoradas por no traer cambios de documentos (solo metadatos).
+     */
+    public long getSnapshotsDescartados() {
+        return CoalescedorSnapshots.DESCARTADAS.get();
+    }
+
+    /**
+     * @return Instantáneas absorbidas por otra más reciente antes de llegar a la UI.
+     */
+    public long getSnapshotsFusionados() {
+        return CoalescedorSnapshots.FUSIONADAS.get();
+    }
+
+    /**
+     * @return Antigüedad en milisegundos de cada listener activo, por consulta.
+     */
+    public Map<String, Long> getEdadListenersMs() {
+        long ahora = SystemClock.elapsedRealtime();
+        Map<String, Long> edades = new HashMap<>();
+        for (Consulta<?> consulta : consultas.values()) {
+            edades.put(consulta.clave, ahora - consulta.creadaEn);
+        }
+        return edades;
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // DETECCIÓN DE FUGAS (solo depuración)
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Anota que una pantalla observa un flujo. Cuando la pantalla llega a
+     * ON_DESTROY se comprueba, pasado un margen mayor que el que el flujo espera
+     * antes de desconectarse, que el flujo haya soltado su listener si ya nadie
+     * más lo observa en primer plano (tras una rotación, la pantalla nueva).
+     */
+    void vigilar(LifecycleOwner observador, LiveData<?> flujo) {
+        if (!BuildConfig.DEBUG)
+            return;
+        comprobarHiloPrincipal();
+
+        Set<LiveData<?>> flujos = vigilados.get(observador);
+        if (flujos != null) {
+            flujos.add(flujo);
+            return;
+        }
+        flujos = Collections.newSetFromMap(new WeakHashMap<>());
+        flujos.add(flujo);
+        vigilados.put(observador, flujos);
+
+        observador.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner owner) {
+                owner.getLifecycle().removeObserver(this);
+                Set<LiveData<?>> observados = vigilados.remove(owner);
+                if (observados == null)
+                    return;
+                List<LiveData<?>> pendientes = new ArrayList<>(observados);
+                String nombre = owner.toString();
+                hiloPrincipal.postDelayed(() -> comprobarFugas(nombre, pendientes), MARGEN_FUGA_MS);
+            }
+        });
+    }
+
+    private void comprobarFugas(String observador, List<LiveData<?>> flujos) {
+        for (LiveData<?> flujo : flujos) {
+            if (flujo.hasActiveObservers())
+                continue;
+            for (Consulta<?> consulta : consultas.values()) {
+                for (Suscripcion suscripcion : consulta.suscriptores) {
+                    if (suscripcion.propietario == flujo && suscripcion.activa) {
+                        long edad = SystemClock.elapsedRealtime() - consulta.creadaEn;
+                        Log.e(TAG, "Listener fugado en " + consulta.clave + " (" + edad + " ms)");
+                        throw new IllegalStateException("La suscripción a " + consulta.clave
+                                + " sigue activa tras destruirse " + observador);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void comprobarHiloPrincipal() {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            throw new IllegalStateException("GestorSuscripciones debe usarse desde el hilo principal");
+        }
+    }
+}
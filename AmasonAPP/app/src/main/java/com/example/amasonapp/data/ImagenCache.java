@@ -0,0 +1,330 @@
+package com.example.amasonapp.data;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.amasonapp.startup.ServiciosFirebase;
+import com.google.android.gms.tasks.Tasks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * CACHÉ EN DISCO DE IMÁGENES REMOTAS DE TUTORIALES
+ *
+ * Descarga en segundo plano las capturas alojadas en Firebase Storage y las
+ * guarda en una caché limitada por tamaño. Cada archivo se nombra con la huella
+ * SHA-256 de su contenido, de modo que una misma captura usada en varias
+ * secciones se descarga una sola vez y se sirve desde disco en los siguientes
+ * arranques.
+ */
+public class ImagenCache {
+
+    // Carpeta (dentro de getCacheDir) donde se guardan las imágenes
+    private static final String DIRECTORIO = "imagenes_tutorial";
+
+    // Tamaño máximo de la caché; al superarlo se eliminan las menos usadas
+    private static final long TAMANO_MAXIMO_BYTES = 64L * 1024 * 1024;
+
+    // Formato válido de huella: SHA-256 en hexadecimal
+    private static final Pattern FORMATO_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private static volatile ImagenCache instancia;
+
+    private final File directorio;
+    private final long tamanoMaximo;
+
+    // Hilos dedicados a comprobar el disco y descargar sin bloquear la UI
+    private final ExecutorService ejecutor = Executors.newFixedThreadPool(2);
+    private final Handler hiloPrincipal = new Handler(Looper.getMainLooper());
+
+    // Descargas en curso por huella: las peticiones repetidas se suman a la misma
+    private final Map<String, Descarga> descargasEnCurso = new HashMap<>();
+
+    /**
+     * Descarga en marcha: quién espera su resultado en el hilo principal y una
+     * señal para los trabajos que lo esperan en su propio hilo.
+     */
+    private static final class Descarga {
+        final List<ImagenCallback> callbacks = new ArrayList<>();
+        final CountDownLatch terminada = new CountDownLatch(1);
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // CALLBACK: Entrega de la imagen ya disponible en disco
+    // -----------------------------------------------------------------------------------------
+
+    public interface ImagenCallback {
+        /**
+         * Se ejecuta en el hilo principal cuando la imagen está guardada en disco.
+         *
+         * @param archivo Archivo local con el contenido de la imagen.
+         */
+        void onImagenDisponible(File archivo);
+
+        /**
+         * Se ejecuta en el hilo principal si la descarga o la verificación fallan.
+         *
+         * @param e Excepción capturada.
+         */
+        void onError(Exception e);
+    }
+
+    private ImagenCache(Context context, long tamanoMaximo) {
+        this.directorio = new File(context.getCacheDir(), DIRECTORIO);
+        this.tamanoMaximo = tamanoMaximo;
+    }
+
+    /**
+     * Devuelve la instancia compartida de la caché para toda la aplicación.
+     *
+     * @param context Cualquier contexto; se usa el de la aplicación.
+     * @return Caché única del proceso.
+     */
+    public static ImagenCache getInstance(Context context) {
+        if (instancia == null) {
+            synchronized (ImagenCache.class) {
+                if (instancia == null) {
+                    instancia = new ImagenCache(context.getApplicationContext(), TAMANO_MAXIMO_BYTES);
+                }
+            }
+        }
+        return instancia;
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // CONSULTA Y DESCARGA
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Obtiene una imagen remota. Si ya está en disco se entrega directamente; si
+     * no, se descarga de Firebase Storage, se verifica su huella y se guarda.
+     *
+     * @param ruta     Ruta del archivo en Firebase Storage.
+     * @param hash     Huella SHA-256 esperada del contenido.
+     * @param callback Receptor del resultado (se invoca en el hilo principal).
+     */
+    public void obtener(String ruta, String hash, ImagenCallback callback) {
+        final String clave = hash.toLowerCase(Locale.ROOT);
+        if (!FORMATO_HASH.matcher(clave).matches()) {
+            callback.onError(new IllegalArgumentException("Huella de imagen no válida: " + hash));
+            return;
+        }
+
+        synchronized (descargasEnCurso) {
+            Descarga enCurso = descargasEnCurso.get(clave);
+            if (enCurso != null) {
+                // Ya hay una petición en marcha para este contenido
+                enCurso.callbacks.add(callback);
+                return;
+            }
+            enCurso = new Descarga();
+            enCurso.callbacks.add(callback);
+            descargasEnCurso.put(clave, enCurso);
+        }
+
+        ejecutor.execute(() -> {
+            try {
+                File archivo = archivoPara(clave);
+                if (!archivo.exists()) {
+                    descargar(ruta, clave, archivo);
+                    recortar();
+                } else {
+                    // Marcamos el acceso para que la política LRU lo conserve
+                    archivo.setLastModified(System.currentTimeMillis());
+                }
+                notificar(clave, archivo, null);
+            } catch (Exception e) {
+                notificar(clave, null, e);
+            }
+        });
+    }
+
+    /**
+     * Versión síncrona para trabajos en segundo plano: deja la imagen en disco
+     * en el hilo que llama. Si la pantalla ya la está descargando no se repite.
+     *
+     * @param ruta Ruta del archivo en Firebase Storage.
+     * @param hash Huella SHA-256 esperada del contenido.
+     * @return Bytes descargados (0 si ya estaba en disco o en camino).
+     * @throws Exception Si la descarga o la verificación fallan.
+     */
+    public long precargar(String ruta, String hash) throws Exception {
+        String clave = hash.toLowerCase(Locale.ROOT);
+        if (!FORMATO_HASH.matcher(clave).matches()) {
+            throw new IllegalArgumentException("Huella de imagen no válida: " + hash);
+        }
+
+        synchronized (descargasEnCurso) {
+            if (descargasEnCurso.containsKey(clave))
+                return 0;
+            descargasEnCurso.put(clave, new Descarga());
+        }
+        try {
+            File archivo = archivoPara(clave);
+            if (archivo.exists())
+                return 0;
+            descargar(ruta, clave, archivo);
+            recortar();
+            return archivo.length();
+        } finally {
+            // Las pantallas que pidieran la imagen mientras tanto la reciben ya en disco
+            File archivo = archivoPara(clave);
+            notificar(clave, archivo.exists() ? archivo : null,
+                    archivo.exists() ? null : new IOException("No se pudo precargar " + ruta));
+        }
+    }
+
+    /**
+     * Versión síncrona que devuelve el archivo en disco, descargándolo si hace
+     * falta. Pensada para trabajos en segundo plano que decodifican la imagen
+     * por su cuenta (por ejemplo, a resolución de impresión).
+     *
+     * @param ruta Ruta del archivo en Firebase Storage.
+     * @param hash Huella SHA-256 esperada del contenido.
+     * Si otra petición ya está descargando el mismo contenido, espera a que
+     * termine en lugar de volver sin la imagen.
+     *
+     * @return Archivo verificado.
+     * @throws Exception Si la descarga o la verificación fallan.
+     */
+    public File obtenerArchivo(String ruta, String hash) throws Exception {
+        String clave = hash.toLowerCase(Locale.ROOT);
+        File archivo = archivoPara(clave);
+        while (true) {
+            Descarga enCurso;
+            synchronized (descargasEnCurso) {
+                enCurso = descargasEnCurso.get(clave);
+            }
+            if (enCurso != null) {
+                enCurso.terminada.await();
+            } else {
+                precargar(ruta, hash);
+            }
+            // Si la otra descarga falló (o empezó una justo antes) se vuelve a intentar
+            if (archivo.exists()) {
+                archivo.setLastModified(System.currentTimeMillis());
+                return archivo;
+            }
+        }
+    }
+
+    /**
+     * @param hash Huella SHA-256 del contenido.
+     * @return true si la imagen está ahora mismo en disco (la política LRU puede
+     *         retirarla después).
+     */
+    public boolean estaEnDisco(String hash) {
+        return archivoPara(hash.toLowerCase(Locale.ROOT)).exists();
+    }
+
+    /**
+     * Descarga el archivo a un temporal y solo lo publica si su contenido coincide
+     * con la huella; así nunca queda en caché una imagen corrupta o equivocada.
+     */
+    private void descargar(String ruta, String hash, File destino) throws Exception {
+        if (!directorio.exists() && !directorio.mkdirs()) {
+            throw new IOException("No se pudo crear la caché de imágenes");
+        }
+
+        File temporal = new File(directorio, hash + ".tmp");
+        try {
+            Tasks.await(ServiciosFirebase.storage().getReference(ruta).getFile(temporal));
+
+            String huellaReal = calcularHash(temporal);
+            if (!hash.equals(huellaReal)) {
+                throw new IOException("La huella de " + ruta + " no coincide con su contenido");
+            }
+            if (!temporal.renameTo(destino)) {
+                throw new IOException("No se pudo guardar la imagen en caché");
+            }
+        } finally {
+            if (temporal.exists()) {
+                temporal.delete();
+            }
+        }
+    }
+
+    /**
+     * Elimina las imágenes usadas hace más tiempo hasta volver al tamaño máximo.
+     */
+    private void recortar() {
+        File[] archivos = directorio.listFiles((dir, nombre) -> !nombre.endsWith(".tmp"));
+        if (archivos == null)
+            return;
+
+        long total = 0;
+        for (File archivo : archivos) {
+            total += archivo.length();
+        }
+        if (total <= tamanoMaximo)
+            return;
+
+        Arrays.sort(archivos, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File archivo : archivos) {
+            if (total <= tamanoMaximo)
+                break;
+            long tamano = archivo.length();
+            if (archivo.delete()) {
+                total -= tamano;
+            }
+        }
+    }
+
+    private void notificar(String hash, File archivo, Exception error) {
+        final Descarga terminada;
+        synchronized (descargasEnCurso) {
+            terminada = descargasEnCurso.remove(hash);
+        }
+        if (terminada == null)
+            return;
+        terminada.terminada.countDown();
+        if (terminada.callbacks.isEmpty())
+            return;
+
+        hiloPrincipal.post(() -> {
+            for (ImagenCallback callback : terminada.callbacks) {
+                if (error != null) {
+                    callback.onError(error);
+                } else {
+                    callback.onImagenDisponible(archivo);
+                }
+            }
+        });
+    }
+
+    private File archivoPara(String hash) {
+        return new File(directorio, hash);
+    }
+
+    private static String calcularHash(File archivo) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] buffer = new byte[16 * 1024];
+        try (InputStream entrada = new FileInputStream(archivo)) {
+            int leidos;
+            while ((leidos = entrada.read(buffer)) != -1) {
+                digest.update(buffer, 0, leidos);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format(Locale.ROOT, "%02x", b));
+        }
+        return hex.toString();
+    }
+}
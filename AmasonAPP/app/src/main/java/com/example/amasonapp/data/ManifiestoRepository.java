@@ -0,0 +1,251 @@
+package com.example.amasonapp.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.example.amasonapp.model.ManifiestoSeccion;
+import com.example.amasonapp.model.TutorialArticulo;
+import com.example.amasonapp.startup.ServiciosFirebase;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * REPOSITORIO DEL MANIFIESTO DE SECCIONES
+ *
+ * El importador publica en "manifiesto/secciones" la huella, el número de pasos
+ * y los bytes de imágenes de cada sección. La app mantiene una única escucha
+ * ligera sobre ese documento y, en lugar de escuchar cada sección contra el
+ * servidor:
+ *
+ * 1. Recuerda la huella del contenido que ya tiene en la caché de Firestore.
+ * 2. Una sección cuya huella está al día se escucha solo en la caché; si la
+ *    caché devuelve menos pasos de los que anuncia el manifiesto (por ejemplo,
+ *    tras un desalojo), la escucha pasa al servidor.
+ * 3. Cuando el manifiesto trae otra huella, la sección deja de constar como
+ *    sincronizada y, si está abierta, se relee una vez del servidor.
+ *
+ * Si el manifiesto no existe (contenido publicado con un importador anterior),
+ * las secciones vuelven a escucharse contra el servidor como siempre. Las
+ * operaciones de sincronización deben hacerse desde el hilo principal.
+ */
+public class ManifiestoRepository {
+
+    private static final String TAG = "Manifiesto";
+
+    static final String COLECCION = "manifiesto";
+    static final String DOCUMENTO = "secciones";
+
+    private static final String PREFERENCIAS = "manifiesto_secciones";
+    // Huella del contenido de cada sección que hay en la caché de Firestore
+    private static final String PREFIJO_CACHE = "cache.";
+    // Huella de la sección cuyas imágenes dejó descargadas la precarga
+    private static final String PREFIJO_PRECARGA = "precarga.";
+
+    private static ManifiestoRepository instancia;
+
+    private final SharedPreferences preferencias;
+
+    // Último manifiesto recibido y secciones que se están releyendo
+    private Map<String, ManifiestoSeccion> ultimo = Collections.emptyMap();
+    private final Set<String> releyendo = new HashSet<>();
+
+    private ManifiestoRepository(Context context) {
+        this.preferencias = context.getApplicationContext().getSharedPreferences(PREFERENCIAS, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Devuelve el repositorio único de la aplicación (también desde trabajos en
+     * segundo plano).
+     */
+    public static synchronized ManifiestoRepository getInstance(Context context) {
+        if (instancia == null) {
+            instancia = new ManifiestoRepository(context);
+        }
+        return instancia;
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // ESCUCHA DEL MANIFIESTO
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @return Flujo con el manifiesto (colección → resumen); vacío si no está publicado.
+     */
+    public FlujoConsulta<Map<String, ManifiestoSeccion>> flujoManifiesto() {
+        // Solo el documento del manifiesto, no cualquier otro que se publique junto a él
+        return new FlujoConsulta<>(COLECCION, DOCUMENTO, new String[0], 0, null,
+                ManifiestoRepository::mapearManifiesto);
+    }
+
+    private static Map<String, ManifiestoSeccion> mapearManifiesto(QuerySnapshot value) {
+        return value.isEmpty() ? Collections.emptyMap() : mapearDocumento(value.getDocuments().get(0).getData());
+    }
+
+    /**
+     * Lectura puntual del manifiesto en el servidor, para trabajos en segundo plano.
+     *
+     * @return Tarea con el manifiesto; vacío si no está publicado.
+     */
+    public Task<Map<String, ManifiestoSeccion>> obtenerDelServidor() {
+        return ServiciosFirebase.firestore().collection(COLECCION).document(DOCUMENTO)
+                .get(Source.SERVER)
+                .continueWith(tarea -> {
+                    DocumentSnapshot doc = tarea.getResult();
+                    return doc.exists() && doc.getData() != null
+                            ? mapearDocumento(doc.getData())
+                            : Collections.<String, ManifiestoSeccion>emptyMap();
+                });
+    }
+
+    /**
+     * Convierte los campos del documento ({ coleccion: { hash, pasos,
+     * bytesImagenes } }) ignorando las entradas incompletas.
+     */
+    @VisibleForTesting
+    static Map<String, ManifiestoSeccion> mapearDocumento(Map<String, Object> campos) {
+        Map<String, ManifiestoSeccion> manifiesto = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entrada : campos.entrySet()) {
+            if (!(entrada.getValue() instanceof Map))
+                continue;
+            Map<?, ?> seccion = (Map<?, ?>) entrada.getValue();
+            Object hash = seccion.get("hash");
+            if (!(hash instanceof String))
+                continue;
+            manifiesto.put(entrada.getKey(), new ManifiestoSeccion((String) hash,
+                    numero(seccion.get("pasos")).intValue(), numero(seccion.get("bytesImagenes"))));
+        }
+        return manifiesto;
+    }
+
+    private static Long numero(Object valor) {
+        return valor instanceof Number ? ((Number) valor).longValue() : 0L;
+    }
+
+    /**
+     * Registra un manifiesto nuevo. Las secciones que ya no aparecen en él pierden
+     * su huella, así que vuelven a escucharse contra el servidor.
+     *
+     * @param manifiesto Manifiesto recibido.
+     */
+    public void actualizar(Map<String, ManifiestoSeccion> manifiesto) {
+        ultimo = manifiesto;
+        SharedPreferences.Editor editor = preferencias.edit();
+        for (Map.Entry<String, ?> entrada : preferencias.getAll().entrySet()) {
+            String clave = entrada.getKey();
+            String coleccion = clave.substring(clave.indexOf('.') + 1);
+            ManifiestoSeccion seccion = manifiesto.get(coleccion);
+            // Una huella de caché atrasada ya no basta para escuchar solo la caché
+            if (seccion == null || (clave.startsWith(PREFIJO_CACHE) && !seccion.getHash().equals(entrada.getValue()))) {
+                editor.remove(clave);
+            }
+        }
+        editor.apply();
+    }
+
+    /**
+     * @param coleccion Colección de la sección.
+     * @return Resumen de la sección en el último manifiesto, o null.
+     */
+    public ManifiestoSeccion getSeccion(String coleccion) {
+        return ultimo.get(coleccion);
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // SINCRONIZACIÓN DE SECCIONES
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @param coleccion Colección de la sección.
+     * @return true si la caché local tiene la sección completa de la versión
+     *         vigente del manifiesto y basta con escucharla en la caché.
+     */
+    public boolean estaSincronizada(String coleccion) {
+        return preferencias.contains(PREFIJO_CACHE + coleccion);
+    }
+
+    /**
+     * Criterio de caché para la escucha de una sección: se decide al abrir cada
+     * escucha (el manifiesto puede haber llegado entretanto) y, con cada lectura
+     * de la caché, se comprueba que trae todos los pasos que anuncia el manifiesto.
+     *
+     * @param coleccion Colección de la sección.
+     */
+    public FlujoConsulta.CriterioCache<List<TutorialArticulo>> criterioSeccion(String coleccion) {
+        return new FlujoConsulta.CriterioCache<List<TutorialArticulo>>() {
+            @Override
+            public boolean usarCache() {
+                return estaSincronizada(coleccion);
+            }
+
+            @Override
+            public boolean estaCompleta(List<TutorialArticulo> pasos) {
+                ManifiestoSeccion seccion = ultimo.get(coleccion);
+                return !pasos.isEmpty() && (seccion == null || pasos.size() >= seccion.getPasos());
+            }
+        };
+    }
+
+    /**
+     * Relee la sección del servidor si su huella en el manifiesto no coincide
+     * con la del contenido en caché. No hace nada si está al día, si aún no hay
+     * manifiesto o si ya se está releyendo.
+     *
+     * @param coleccion Colección de la sección.
+     */
+    public void sincronizar(String coleccion) {
+        ManifiestoSeccion seccion = ultimo.get(coleccion);
+        if (seccion == null || estaAlDia(coleccion, seccion.getHash()) || !releyendo.add(coleccion))
+            return;
+
+        new TutorialRepository().refrescar(coleccion, () -> {
+            releyendo.remove(coleccion);
+            marcarEnCache(coleccion, seccion.getHash());
+        }, e -> {
+            releyendo.remove(coleccion);
+            Log.w(TAG, "No se pudo releer " + coleccion, e);
+        });
+    }
+
+    /**
+     * @return true si la caché tiene la versión de la sección con esa huella.
+     */
+    public boolean estaAlDia(String coleccion, String hash) {
+        return hash.equals(preferencias.getString(PREFIJO_CACHE + coleccion, null));
+    }
+
+    /**
+     * Anota que la caché tiene la sección completa con esa huella.
+     */
+    public void marcarEnCache(String coleccion, String hash) {
+        preferencias.edit().putString(PREFIJO_CACHE + coleccion, hash).apply();
+    }
+
+    /**
+     * @return true si la precarga ya dejó descargadas las imágenes de esa versión.
+     */
+    public boolean estaPrecargada(String coleccion, String hash) {
+        return hash.equals(preferencias.getString(PREFIJO_PRECARGA + coleccion, null));
+    }
+
+    /**
+     * Anota que la precarga terminó la sección (documentos e imágenes) con esa huella.
+     */
+    public void marcarPrecargada(String coleccion, String hash) {
+        preferencias.edit()
+                .putString(PREFIJO_CACHE + coleccion, hash)
+                .putString(PREFIJO_PRECARGA + coleccion, hash)
+                .apply();
+    }
+}
@@ -0,0 +1,352 @@
+package com.example.amasonapp.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.example.amasonapp.model.ProgresoSeccion;
+import com.example.amasonapp.startup.ServiciosFirebase;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * REPOSITORIO DEL PROGRESO DE LOS OPERADORES
+ *
+ * Registra en qué paso se quedó cada operador en cada sección y qué pasos ha
+ * visto completos, y lo sincroniza entre dispositivos:
+ *
+ * 1. Las actualizaciones (que llegan con cada desplazamiento) solo modifican la
+ *    copia en memoria; si no cambian nada no tienen coste.
+ * 2. Los cambios se guardan en local con un pequeño retardo y la sección queda
+ *    anotada en una cola persistente de pendientes. Repetir actualizaciones de
+ *    la misma sección o paso no añade entradas: se colapsan en el estado actual.
+ * 3. Cuando hay conexión, todas las secciones pendientes se envían en un único
+ *    WriteBatch a progreso_usuarios/{uid}/secciones/{seccion}.
+ *
+ * La lectura es inmediata desde el almacenamiento local, de modo que el
+ * fragmento puede restaurar la posición en cuanto se abre. Todas las
+ * operaciones deben hacerse desde el hilo principal.
+ *
+ * El progreso local, la cola de pendientes y la copia en memoria son de un
+ * único usuario (un fichero de preferencias por uid): en un dispositivo
+ * compartido el siguiente operador no hereda la posición del anterior ni sube
+ * su cola a su propio documento.
+ */
+public class ProgresoRepository {
+
+    private static final String TAG = "Progreso";
+
+    private static final String PREFERENCIAS = "progreso_tutoriales_";
+    private static final String SIN_SESION = "sin_sesion";
+    private static final String CLAVE_PENDIENTES = "pendientes";
+    private static final String SUFIJO_ULTIMO = ".ultimo";
+    private static final String SUFIJO_COMPLETADOS = ".completados";
+    private static final String SUFIJO_ACTUALIZADO = ".actualizado";
+
+    private static final String COLECCION_USUARIOS = "progreso_usuarios";
+    private static final String SUBCOLECCION_SECCIONES = "secciones";
+
+    // Retardo para agrupar en una sola escritura local las ráfagas de desplazamiento
+    private static final long RETARDO_GUARDADO_MS = 500;
+    // Retardo para agrupar cambios antes de subirlos a Firestore
+    private static final long RETARDO_SINCRONIZACION_MS = 15000;
+
+    private static ProgresoRepository instancia;
+
+    private final Context context;
+    // Usuario dueño de este progreso (null sin sesión: nada se sube)
+    private final String uid;
+    private final SharedPreferences preferencias;
+    private final Handler hiloPrincipal = new Handler(Looper.getMainLooper());
+
+    // Progreso en memoria por sección y versión de cada cambio (para saber si un
+    // envío ya terminado sigue reflejando el último estado)
+    private final Map<String, ProgresoSeccion> progresos = new HashMap<>();
+    private final Map<String, Long> versiones = new HashMap<>();
+
+    // Cola persistente de secciones con cambios sin subir
+    private final Set<String> pendientes;
+    private final Set<String> sinGuardar = new HashSet<>();
+    private boolean enviando;
+
+    private final Runnable guardado = this::guardarLocal;
+    private final Runnable sincronizacion = this::sincronizar;
+
+    private ProgresoRepository(Context context, String uid) {
+        this.context = context.getApplicationContext();
+        this.uid = uid;
+        // getSharedPreferences empieza la carga en segundo plano; la primera lectura
+        // solo espera si todavía no ha terminado
+        this.preferencias = this.context.getSharedPreferences(
+                PREFERENCIAS + (uid != null ? uid : SIN_SESION), Context.MODE_PRIVATE);
+        this.pendientes = new HashSet<>(preferencias.getStringSet(CLAVE_PENDIENTES, new HashSet<>()));
+    }
+
+    /**
+     * Devuelve el repositorio del usuario con sesión iniciada. Si el usuario ha
+     * cambiado desde la última llamada, se guarda lo del anterior y se abre el
+     * progreso del nuevo.
+     */
+    public static ProgresoRepository getInstance(Context context) {
+        FirebaseUser usuario = ServiciosFirebase.auth().getCurrentUser();
+        String uid = usuario != null ? usuario.getUid() : null;
+        if (instancia == null || !Objects.equals(instancia.uid, uid)) {
+            if (instancia != null) {
+                instancia.soltar();
+            }
+            instancia = new ProgresoRepository(context, uid);
+        }
+        return instancia;
+    }
+
+    /**
+     * Se llama antes de cerrar la sesión: intenta subir lo pendiente mientras el
+     * usuario sigue autenticado y deja su progreso guardado en su propio fichero.
+     * Lo que no llegue a enviarse se subirá cuando ese mismo usuario vuelva.
+     */
+    public static void cerrarSesion() {
+        if (instancia == null)
+            return;
+        instancia.sincronizar();
+        instancia.soltar();
+        instancia = null;
+    }
+
+    private void soltar() {
+        hiloPrincipal.removeCallbacks(guardado);
+        hiloPrincipal.removeCallbacks(sincronizacion);
+        if (!sinGuardar.isEmpty()) {
+            guardarLocal();
+        }
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // LECTURA LOCAL
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * @param seccion Colección de tutoriales.
+     * @return Progreso guardado en el dispositivo (vacío si no hay ninguno).
+     */
+    public ProgresoSeccion obtener(String seccion) {
+        ProgresoSeccion progreso = progresos.get(seccion);
+        if (progreso == null) {
+            progreso = leerLocal(seccion);
+            progresos.put(seccion, progreso);
+        }
+        return progreso;
+    }
+
+    private ProgresoSeccion leerLocal(String seccion) {
+        Set<Integer> completados = new TreeSet<>();
+        String lista = preferencias.getString(seccion + SUFIJO_COMPLETADOS, "");
+        for (String orden : TextUtils.split(lista, ",")) {
+            try {
+                completados.add(Integer.parseInt(orden));
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "Paso no válido en el progreso local: " + orden);
+            }
+        }
+        return new ProgresoSeccion(
+                preferencias.getInt(seccion + SUFIJO_ULTIMO, 0),
+                completados,
+                preferencias.getLong(seccion + SUFIJO_ACTUALIZADO, 0));
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // REGISTRO (con cada desplazamiento)
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Anota el paso que el operador tiene en la parte superior de la pantalla.
+     */
+    public void marcarUltimoPaso(String seccion, int orden) {
+        if (obtener(seccion).marcarUltimoPaso(orden, System.currentTimeMillis())) {
+            cambiado(seccion);
+        }
+    }
+
+    /**
+     * Anota un paso que se ha visto completo.
+     */
+    public void marcarCompletado(String seccion, int orden) {
+        if (obtener(seccion).marcarCompletado(orden, System.currentTimeMillis())) {
+            cambiado(seccion);
+        }
+    }
+
+    private void cambiado(String seccion) {
+        versiones.merge(seccion, 1L, Long::sum);
+        pendientes.add(seccion);
+        sinGuardar.add(seccion);
+
+        hiloPrincipal.removeCallbacks(guardado);
+        hiloPrincipal.postDelayed(guardado, RETARDO_GUARDADO_MS);
+        hiloPrincipal.removeCallbacks(sincronizacion);
+        hiloPrincipal.postDelayed(sincronizacion, RETARDO_SINCRONIZACION_MS);
+    }
+
+    /**
+     * Escribe en local las secciones modificadas y la cola de pendientes. apply()
+     * hace la escritura en disco en segundo plano.
+     */
+    private void guardarLocal() {
+        SharedPreferences.Editor editor = preferencias.edit();
+        for (String seccion : sinGuardar) {
+            ProgresoSeccion progreso = obtener(seccion);
+            editor.putInt(seccion + SUFIJO_ULTIMO, progreso.getUltimoPaso());
+            editor.putString(seccion + SUFIJO_COMPLETADOS, TextUtils.join(",", progreso.getCompletados()));
+            editor.putLong(seccion + SUFIJO_ACTUALIZADO, progreso.getActualizadoEn());
+        }
+        editor.putStringSet(CLAVE_PENDIENTES, new HashSet<>(pendientes));
+        editor.apply();
+        sinGuardar.clear();
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // SINCRONIZACIÓN CON FIRESTORE
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Sube en un único lote todas las secciones pendientes si hay usuario y
+     * conexión. Se puede llamar a menudo (al salir de la pantalla, al recuperar
+     * la red): si no hay nada que enviar no hace nada.
+     */
+    public void sincronizar() {
+        hiloPrincipal.removeCallbacks(sincronizacion);
+        CollectionReference destino = coleccionUsuario();
+        if (enviando || pendientes.isEmpty() || destino == null || !hayConexion())
+            return;
+
+        // Guardamos antes en local por si el proceso muere durante el envío
+        hiloPrincipal.removeCallbacks(guardado);
+        guardarLocal();
+
+        WriteBatch lote = destino.getFirestore().batch();
+        Map<String, Long> enviadas = new HashMap<>();
+        for (String seccion : pendientes) {
+            ProgresoSeccion progreso = obtener(seccion);
+            List<Object> completados = new ArrayList<>(progreso.getCompletados());
+
+            Map<String, Object> campos = new HashMap<>();
+            campos.put("ultimoPaso", progreso.getUltimoPaso());
+            campos.put("actualizadoEn", progreso.getActualizadoEn());
+            // arrayUnion suma los pasos vistos en otros dispositivos en lugar de pisarlos
+            campos.put("completados", FieldValue.arrayUnion(completados.toArray()));
+            lote.set(destino.document(seccion), campos, SetOptions.merge());
+            enviadas.put(seccion, versiones.getOrDefault(seccion, 0L));
+        }
+
+        enviando = true;
+        lote.commit()
+                .addOnSuccessListener(v -> {
+                    enviando = false;
+                    for (Map.Entry<String, Long> enviada : enviadas.entrySet()) {
+                        // Si hubo cambios durante el envío la sección sigue pendiente
+                        if (enviada.getValue().equals(versiones.getOrDefault(enviada.getKey(), 0L))) {
+                            pendientes.remove(enviada.getKey());
+                        }
+                    }
+                    guardarLocal();
+                    if (!pendientes.isEmpty()) {
+                        hiloPrincipal.postDelayed(sincronizacion, RETARDO_SINCRONIZACION_MS);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    // Las secciones siguen en la cola; se reintentará en el próximo disparo
+                    enviando = false;
+                    Log.w(TAG, "No se pudo sincronizar el progreso", e);
+                });
+    }
+
+    /**
+     * Descarga el progreso guardado desde otros dispositivos y lo fusiona con el
+     * local.
+     *
+     * @param alTerminar Acción al terminar (también si no hay usuario).
+     * @param alFallar   Acción si la lectura falla.
+     */
+    public void descargar(Runnable alTerminar, Consumer<Exception> alFallar) {
+        CollectionReference origen = coleccionUsuario();
+        if (origen == null) {
+            alTerminar.run();
+            return;
+        }
+
+        origen.get()
+                .addOnSuccessListener(snapshot -> {
+                    for (QueryDocumentSnapshot doc : snapshot) {
+                        ProgresoSeccion remoto = convertir(doc);
+                        if (obtener(doc.getId()).fusionar(remoto)) {
+                            sinGuardar.add(doc.getId());
+                        }
+                    }
+                    guardarLocal();
+                    alTerminar.run();
+                    // Lo que quedara pendiente de sesiones anteriores se sube ahora
+                    sincronizar();
+                })
+                .addOnFailureListener(alFallar::accept);
+    }
+
+    private static ProgresoSeccion convertir(QueryDocumentSnapshot doc) {
+        Set<Integer> completados = new TreeSet<>();
+        Object lista = doc.get("completados");
+        if (lista instanceof List) {
+            for (Object orden : (List<?>) lista) {
+                if (orden instanceof Number) {
+                    completados.add(((Number) orden).intValue());
+                }
+            }
+        }
+        Long ultimo = doc.getLong("ultimoPaso");
+        Long actualizado = doc.getLong("actualizadoEn");
+        return new ProgresoSeccion(
+                ultimo != null ? ultimo.intValue() : 0,
+                completados,
+                actualizado != null ? actualizado : 0);
+    }
+
+    /**
+     * @return Destino del progreso de este usuario, o null si ya no es el que
+     *         tiene la sesión iniciada (su cola espera a que vuelva).
+     */
+    private CollectionReference coleccionUsuario() {
+        FirebaseUser usuario = ServiciosFirebase.auth().getCurrentUser();
+        if (uid == null || usuario == null || !uid.equals(usuario.getUid()))
+            return null;
+        return ServiciosFirebase.firestore()
+                .collection(COLECCION_USUARIOS)
+                .document(uid)
+                .collection(SUBCOLECCION_SECCIONES);
+    }
+
+    private boolean hayConexion() {
+        ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (cm == null)
+            return false;
+        Network red = cm.getActiveNetwork();
+        NetworkCapabilities capacidades = red != null ? cm.getNetworkCapabilities(red) : null;
+        return capacidades != null && capacidades.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+    }
+}
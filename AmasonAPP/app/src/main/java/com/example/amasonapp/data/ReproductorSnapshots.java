@@ -0,0 +1,162 @@
+package com.example.amasonapp.data;
+
+import com.example.amasonapp.model.Texto;
+import com.example.amasonapp.model.TutorialArticulo;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FUENTE DE DATOS QUE REPRODUCE TRAZAS GRABADAS
+ *
+ * Sustituye a Firestore para medir el mapeo, los adaptadores y el repintado
+ * con una entrada idéntica en cada ejecución. Cada instantánea de la traza se
+ * mapea con el mismo código que usan los repositorios, en un hilo de fondo y
+ * en el momento en que se grabó (dividido por la velocidad), y el resultado
+ * llega al mismo {@link GestorSuscripciones.Oyente} que reciben las pantallas.
+ *
+ * No usa Firebase ni el framework de Android: funciona en la JVM de un
+ * servidor de integración continua.
+ */
+public class ReproductorSnapshots {
+
+    // Velocidad que entrega todas las instantáneas seguidas, sin respetar los tiempos
+    public static final double SIN_ESPERAS = Double.POSITIVE_INFINITY;
+
+    /**
+     * Conversión de los documentos grabados en los datos de la UI.
+     */
+    public interface MapeadorGrabado<T> {
+        T mapear(List<TrazaSnapshots.Documento> documentos) throws Exception;
+    }
+
+    /**
+     * Reproducción en curso de una consulta.
+     */
+    public static final class Reproduccion {
+        private final CountDownLatch pendientes;
+        private final ScheduledExecutorService programador;
+
+        private Reproduccion(int total, ScheduledExecutorService programador) {
+            this.pendientes = new CountDownLatch(total);
+            this.programador = programador;
+        }
+
+        /**
+         * Espera a que se hayan entregado todas las instantáneas.
+         *
+         * @param plazoMs Tiempo máximo de espera.
+         * @return true si la reproducción terminó dentro del plazo.
+         */
+        public boolean esperar(long plazoMs) throws InterruptedException {
+            return pendientes.await(plazoMs, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Descarta las instantáneas que aún no se han entregado.
+         */
+        public void cancelar() {
+            programador.shutdownNow();
+        }
+    }
+
+    private final List<TrazaSnapshots.Instantanea> traza;
+    private final double velocidad;
+    private final Executor entrega;
+
+    /**
+     * @param traza     Instantáneas grabadas, en orden.
+     * @param velocidad 1 para los tiempos originales, mayor para acelerarlos o
+     *                  {@link #SIN_ESPERAS}.
+     * @param entrega   Ejecutor donde se llama al oyente (el hilo principal en la
+     *                  app; el propio hilo de la reproducción en las pruebas).
+     */
+    public ReproductorSnapshots(List<TrazaSnapshots.Instantanea> traza, double velocidad, Executor entrega) {
+        if (!(velocidad > 0))
+            throw new IllegalArgumentException("La velocidad debe ser positiva: " + velocidad);
+        this.traza = traza;
+        this.velocidad = velocidad;
+        this.entrega = entrega;
+    }
+
+    /**
+     * Lee una traza grabada con {@link com.example.amasonapp.depuracion.GrabadorSnapshots}.
+     */
+    public static ReproductorSnapshots desdeArchivo(File archivo, double velocidad, Executor entrega)
+            throws IOException {
+        try (InputStream origen = new FileInputStream(archivo)) {
+            return new ReproductorSnapshots(TrazaSnapshots.leer(origen), velocidad, entrega);
+        }
+    }
+
+    /**
+     * Reproduce las instantáneas de una sección (o del catálogo unificado).
+     */
+    public Reproduccion reproducirSeccion(String coleccion, GestorSuscripciones.Oyente<List<TutorialArticulo>> oyente) {
+        return reproducir(coleccion, TutorialRepository::mapearGrabados, oyente);
+    }
+
+    /**
+     * Reproduce las instantáneas de la colección de traducciones.
+     */
+    public Reproduccion reproducirTextos(GestorSuscripciones.Oyente<List<Texto>> oyente) {
+        return reproducir(TextosRepository.COLECCION_TEXTOS, TextosRepository::mapearGrabados, oyente);
+    }
+
+    /**
+     * Reproduce, en orden y con sus tiempos, las instantáneas grabadas de una colección.
+     *
+     * @param coleccion Colección cuyas instantáneas se reproducen (las demás se ignoran).
+     * @param mapeador  Conversión de los documentos (en el hilo de la reproducción).
+     * @param oyente    Receptor de los datos, llamado desde el ejecutor de entrega.
+     * @return Manejador para esperar o cancelar la reproducción.
+     */
+    public <T> Reproduccion reproducir(String coleccion, MapeadorGrabado<T> mapeador,
+            GestorSuscripciones.Oyente<T> oyente) {
+        List<TrazaSnapshots.Instantanea> seleccion = new ArrayList<>();
+        for (TrazaSnapshots.Instantanea instantanea : traza) {
+            if (instantanea.coleccion.equals(coleccion)) {
+                seleccion.add(instantanea);
+            }
+        }
+
+        // Un hilo por reproducción: las instantáneas con el mismo retraso salen en orden de grabación
+        ScheduledExecutorService programador = Executors.newSingleThreadScheduledExecutor();
+        Reproduccion reproduccion = new Reproduccion(seleccion.size(), programador);
+        for (TrazaSnapshots.Instantanea instantanea : seleccion) {
+            long retraso = (long) (instantanea.desfaseMs / velocidad);
+            programador.schedule(() -> entregar(instantanea, mapeador, oyente, reproduccion.pendientes),
+                    retraso, TimeUnit.MILLISECONDS);
+        }
+        // Las tareas ya programadas se siguen ejecutando; el hilo termina con la última
+        programador.shutdown();
+        return reproduccion;
+    }
+
+    private <T> void entregar(TrazaSnapshots.Instantanea instantanea, MapeadorGrabado<T> mapeador,
+            GestorSuscripciones.Oyente<T> oyente, CountDownLatch pendientes) {
+        T datos;
+        try {
+            datos = mapeador.mapear(instantanea.documentos);
+        } catch (Exception conversionError) {
+            entrega.execute(() -> {
+                oyente.onError(conversionError);
+                pendientes.countDown();
+            });
+            return;
+        }
+        entrega.execute(() -> {
+            oyente.onDatos(datos);
+            pendientes.countDown();
+        });
+    }
+}
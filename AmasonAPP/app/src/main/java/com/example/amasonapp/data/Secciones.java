@@ -0,0 +1,47 @@
+package com.example.amasonapp.data;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CATÁLOGO DE SECCIONES DE TUTORIALES
+ *
+ * Lista única de las colecciones de Firestore que forman el catálogo. El orden
+ * coincide con el del menú lateral y el índice de cada sección se usa como
+ * identificador compacto (por ejemplo, en la telemetría).
+ */
+public final class Secciones {
+
+    public static final List<String> TODAS = Collections.unmodifiableList(Arrays.asList(
+            "tutoriales_login",
+            "tutoriales_database",
+            "tutoriales_ftp",
+            "tutoriales_email",
+            "tutoriales_buzon",
+            "tutoriales_admin",
+            "tutoriales_logs"));
+
+    // Colección con los pasos de todas las secciones (campos "seccion" y
+    // "seccionIndice"), que mantiene el importador
+    public static final String CATALOGO = "tutoriales";
+
+    private Secciones() {
+    }
+
+    /**
+     * @param coleccion Nombre de la colección.
+     * @return Posición de la sección en el catálogo, o -1 si no existe.
+     */
+    public static int indiceDe(String coleccion) {
+        return TODAS.indexOf(coleccion);
+    }
+
+    /**
+     * @param indice Posición en el catálogo.
+     * @return Nombre de la colección, o null si el índice no es válido.
+     */
+    public static String coleccionEn(int indice) {
+        return indice >= 0 && indice < TODAS.size() ? TODAS.get(indice) : null;
+    }
+}
@@ -1,12 +1,14 @@
 package com.example.amasonapp.data;
 
+import androidx.annotation.VisibleForTesting;
+
 import com.example.amasonapp.model.Texto;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * REPOSITORIO DE TEXTOS Y TRADUCCIONES
@@ -17,102 +19,63 @@ import java.util.List;
  */
 public class TextosRepository {
 
-    // Instancia de la base de datos Firestore
-    private final FirebaseFirestore db;
-
     // Nombre de la colección en Firestore donde se almacenan las etiquetas de texto
-    private final String COLECCION_TEXTOS = "traducciones";
-
-    // Registro del listener para poder detener la escucha activa y evitar fugas de
-    // memoria
-    private ListenerRegistration listenerRegistration;
-
-    /**
-     * Constructor del repositorio.
-     * Inicializa la referencia a Firebase Firestore.
-     */
-    public TextosRepository() {
-        db = FirebaseFirestore.getInstance();
-    }
-
-    // -----------------------------------------------------------------------------------------
-    // INTERFAZ DE CALLBACK: Define cómo se devuelven los datos a la Activity o
-    // Fragment
-    // -----------------------------------------------------------------------------------------
-
-    public interface TextosCallback {
-        /**
-         * Se ejecuta cuando los textos han sido cargados con éxito desde la nube.
-         * 
-         * @param textos Lista de objetos Texto con sus traducciones.
-         */
-        void onTextosCargados(List<Texto> textos);
-
-        /**
-         * Se ejecuta si ocurre algún error durante la sincronización.
-         * 
-         * @param e Excepción capturada.
-         */
-        void onError(Exception e);
-    }
+    static final String COLECCION_TEXTOS = "traducciones";
 
     // -----------------------------------------------------------------------------------------
     // LECTURA EN TIEMPO REAL (SNAPSHOT LISTENER)
     // -----------------------------------------------------------------------------------------
 
     /**
-     * Inicia la escucha activa de la colección de traducciones.
+     * Devuelve la colección de traducciones como un flujo ligado al ciclo de vida.
      * Cualquier cambio realizado en el panel de Firebase se reflejará
-     * instantáneamente en la app.
-     * 
-     * @param callback Interfaz para notificar a la UI sobre los cambios.
+     * instantáneamente en la app mientras la pantalla esté visible; al ocultarse,
+     * la escucha se suspende sola.
+     *
+     * @return Flujo con la lista de textos y sus traducciones.
      */
-    public void empezarEscucha(final TextosCallback callback) {
-        // Establecemos el listener en la colección de traducciones
-        listenerRegistration = db.collection(COLECCION_TEXTOS)
-                .addSnapshotListener((value, e) -> {
-
-                    // 1. Verificación de errores de red o permisos
-                    if (e != null) {
-                        callback.onError(e);
-                        return;
-                    }
-
-                    // 2. Procesamiento de los documentos recibidos
-                    List<Texto> textosList = new ArrayList<>();
-
-                    if (value != null) {
-                        for (QueryDocumentSnapshot doc : value) {
-                            try {
-                                // Mapeo automático del documento de Firestore a la clase POJO Texto
-                                Texto texto = doc.toObject(Texto.class);
-
-                                // Usamos el ID del documento como clave única para identificar el elemento (ej:
-                                // "nav_login")
-                                texto.setClaveTexto(doc.getId());
-                                textosList.add(texto);
-
-                            } catch (Exception conversionError) {
-                                // Manejo de errores en caso de que el formato en Firestore sea incorrecto
-                                callback.onError(conversionError);
-                                return;
-                            }
-                        }
-                    }
+    public FlujoConsulta<List<Texto>> flujoTextos() {
+        // El gestor comparte un único listener por consulta entre todas las pantallas
+        return new FlujoConsulta<>(COLECCION_TEXTOS, null, TextosRepository::mapearTextos);
+    }
 
-                    // 3. Notificación a la UI con la lista actualizada
-                    callback.onTextosCargados(textosList);
-                });
+    /**
+     * Convierte los documentos de la colección de traducciones en objetos Texto.
+     */
+    private static List<Texto> mapearTextos(QuerySnapshot value) {
+        List<Texto> textosList = new ArrayList<>(value.size());
+        for (QueryDocumentSnapshot doc : value) {
+            // Usamos el ID del documento como clave única para identificar el elemento (ej:
+            // "nav_login")
+            textosList.add(mapearTexto(doc.getId(), doc.getData()));
+        }
+        return textosList;
     }
 
     /**
-     * Detiene la escucha de actualizaciones.
-     * Es fundamental llamar a este método en el ciclo de vida onDestroy para
-     * liberar recursos.
+     * Mismo mapeo sobre los documentos de una traza grabada, para reproducirla
+     * sin Firestore (ver {@link ReproductorSnapshots}).
      */
-    public void detenerEscucha() {
-        if (listenerRegistration != null) {
-            listenerRegistration.remove();
+    static List<Texto> mapearGrabados(List<TrazaSnapshots.Documento> documentos) {
+        List<Texto> textosList = new ArrayList<>(documentos.size());
+        for (TrazaSnapshots.Documento doc : documentos) {
+            textosList.add(mapearTexto(doc.id, doc.campos));
         }
+        return textosList;
+    }
+
+    /**
+     * Construye un Texto a partir de los campos del documento sin pasar por la
+     * reflexión de toObject().
+     */
+    @VisibleForTesting
+    static Texto mapearTexto(String clave, Map<String, Object> campos) {
+        Texto texto = new Texto();
+        texto.setClaveTexto(clave);
+        Object es = campos.get("es");
+        Object en = campos.get("en");
+        texto.setEs(es instanceof String ? (String) es : null);
+        texto.setEn(en instanceof String ? (String) en : null);
+        return texto;
     }
-}
\ No newline at end of file
+}
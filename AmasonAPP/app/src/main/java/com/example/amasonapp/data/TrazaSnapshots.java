@@ -0,0 +1,242 @@
+package com.example.amasonapp.data;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FORMATO DE LAS TRAZAS DE INSTANTÁNEAS
+ *
+ * Una traza guarda, en orden, las instantáneas que recibieron los mapeadores
+ * de los repositorios: cuándo llegaron (desde el inicio de la grabación), de
+ * qué consulta y con qué documentos. Con ella se reproduce exactamente la
+ * misma entrada en cualquier compilación y sin Firebase (ver
+ * {@link ReproductorSnapshots}).
+ *
+ * El archivo es binario y secuencial: una cabecera y después un registro por
+ * instantánea, de modo que una grabación cortada sigue siendo legible hasta el
+ * último registro completo. Los campos admiten los tipos que usa el contenido
+ * (texto, enteros, decimales, booleanos, listas y mapas); cualquier otro valor
+ * de Firestore se guarda como su texto.
+ *
+ * Es Java puro para poder leer y reproducir trazas en la JVM.
+ */
+public final class TrazaSnapshots {
+
+    // "AMTR" y versión del formato
+    private static final int MAGICO = 0x414D5452;
+    private static final int VERSION = 1;
+
+    // Marcas de tipo de cada valor
+    private static final byte NULO = 0;
+    private static final byte TEXTO = 1;
+    private static final byte ENTERO = 2;
+    private static final byte DECIMAL = 3;
+    private static final byte BOOLEANO = 4;
+    private static final byte LISTA = 5;
+    private static final byte MAPA = 6;
+
+    private TrazaSnapshots() {
+    }
+
+    /**
+     * Documento de una instantánea: su ID y sus campos tal como los devuelve
+     * Firestore (los enteros como Long).
+     */
+    public static final class Documento {
+        public final String id;
+        public final Map<String, Object> campos;
+
+        public Documento(String id, Map<String, Object> campos) {
+            this.id = id;
+            this.campos = campos;
+        }
+    }
+
+    /**
+     * Instantánea grabada.
+     */
+    public static final class Instantanea {
+        // Milisegundos desde el inicio de la grabación
+        public final long desfaseMs;
+        public final String coleccion;
+        // Clave de la consulta en el gestor (colección, orden, límite y origen)
+        public final String clave;
+        public final List<Documento> documentos;
+
+        public Instantanea(long desfaseMs, String coleccion, String clave, List<Documento> documentos) {
+            this.desfaseMs = desfaseMs;
+            this.coleccion = coleccion;
+            this.clave = clave;
+            this.documentos = Collections.unmodifiableList(documentos);
+        }
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // ESCRITURA
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Escribe la cabecera; se llama una vez al abrir el archivo.
+     */
+    public static void escribirCabecera(DataOutputStream salida) throws IOException {
+        salida.writeInt(MAGICO);
+        salida.writeInt(VERSION);
+    }
+
+    /**
+     * Añade una instantánea al final de la traza.
+     */
+    public static void escribir(DataOutputStream salida, Instantanea instantanea) throws IOException {
+        salida.writeLong(instantanea.desfaseMs);
+        escribirTexto(salida, instantanea.coleccion);
+        escribirTexto(salida, instantanea.clave);
+        salida.writeInt(instantanea.documentos.size());
+        for (Documento documento : instantanea.documentos) {
+            escribirTexto(salida, documento.id);
+            escribirMapa(salida, documento.campos);
+        }
+    }
+
+    private static void escribirValor(DataOutputStream salida, Object valor) throws IOException {
+        if (valor == null) {
+            salida.writeByte(NULO);
+        } else if (valor instanceof String) {
+            salida.writeByte(TEXTO);
+            escribirTexto(salida, (String) valor);
+        } else if (valor instanceof Long || valor instanceof Integer
+                || valor instanceof Short || valor instanceof Byte) {
+            salida.writeByte(ENTERO);
+            salida.writeLong(((Number) valor).longValue());
+        } else if (valor instanceof Number) {
+            salida.writeByte(DECIMAL);
+            salida.writeDouble(((Number) valor).doubleValue());
+        } else if (valor instanceof Boolean) {
+            salida.writeByte(BOOLEANO);
+            salida.writeBoolean((Boolean) valor);
+        } else if (valor instanceof List) {
+            List<?> lista = (List<?>) valor;
+            salida.writeByte(LISTA);
+            salida.writeInt(lista.size());
+            for (Object elemento : lista) {
+                escribirValor(salida, elemento);
+            }
+        } else if (valor instanceof Map) {
+            salida.writeByte(MAPA);
+            escribirMapa(salida, (Map<?, ?>) valor);
+        } else {
+            // Timestamp, GeoPoint, referencias...: el contenido de los tutoriales no los usa
+            salida.writeByte(TEXTO);
+            escribirTexto(salida, valor.toString());
+        }
+    }
+
+    private static void escribirMapa(DataOutputStream salida, Map<?, ?> mapa) throws IOException {
+        salida.writeInt(mapa.size());
+        for (Map.Entry<?, ?> campo : mapa.entrySet()) {
+            escribirTexto(salida, String.valueOf(campo.getKey()));
+            escribirValor(salida, campo.getValue());
+        }
+    }
+
+    // writeUTF se limita a 64 KB por cadena; los textos de un paso pueden ser más largos
+    private static void escribirTexto(DataOutputStream salida, String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        salida.writeInt(bytes.length);
+        salida.write(bytes);
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // LECTURA
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Lee una traza completa. Si la grabación se cortó a mitad de un registro,
+     * se devuelven los registros completos anteriores.
+     *
+     * @param origen Contenido del archivo (no se cierra).
+     * @return Instantáneas en el orden en que se grabaron.
+     * @throws IOException Si el archivo no es una traza o no se puede leer.
+     */
+    public static List<Instantanea> leer(InputStream origen) throws IOException {
+        DataInputStream entrada = new DataInputStream(origen);
+        if (entrada.readInt() != MAGICO)
+            throw new IOException("El archivo no es una traza de instantáneas");
+        int version = entrada.readInt();
+        if (version != VERSION)
+            throw new IOException("Versión de traza no soportada: " + version);
+
+        List<Instantanea> instantaneas = new ArrayList<>();
+        while (true) {
+            try {
+                instantaneas.add(leerInstantanea(entrada));
+            } catch (EOFException fin) {
+                return instantaneas;
+            }
+        }
+    }
+
+    private static Instantanea leerInstantanea(DataInputStream entrada) throws IOException {
+        long desfaseMs = entrada.readLong();
+        String coleccion = leerTexto(entrada);
+        String clave = leerTexto(entrada);
+        int total = entrada.readInt();
+        List<Documento> documentos = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            String id = leerTexto(entrada);
+            documentos.add(new Documento(id, leerMapa(entrada)));
+        }
+        return new Instantanea(desfaseMs, coleccion, clave, documentos);
+    }
+
+    private static Object leerValor(DataInputStream entrada) throws IOException {
+        byte tipo = entrada.readByte();
+        switch (tipo) {
+            case NULO:
+                return null;
+            case TEXTO:
+                return leerTexto(entrada);
+            case ENTERO:
+                return entrada.readLong();
+            case DECIMAL:
+                return entrada.readDouble();
+            case BOOLEANO:
+                return entrada.readBoolean();
+            case LISTA:
+                int total = entrada.readInt();
+                List<Object> lista = new ArrayList<>(total);
+                for (int i = 0; i < total; i++) {
+                    lista.add(leerValor(entrada));
+                }
+                return lista;
+            case MAPA:
+                return leerMapa(entrada);
+            default:
+                throw new IOException("Tipo de valor desconocido en la traza: " + tipo);
+        }
+    }
+
+    private static Map<String, Object> leerMapa(DataInputStream entrada) throws IOException {
+        int total = entrada.readInt();
+        Map<String, Object> mapa = new HashMap<>();
+        for (int i = 0; i < total; i++) {
+            String clave = leerTexto(entrada);
+            mapa.put(clave, leerValor(entrada));
+        }
+        return mapa;
+    }
+
+    private static String leerTexto(DataInputStream entrada) throws IOException {
+        byte[] bytes = new byte[entrada.readInt()];
+        entrada.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,13 +1,20 @@
 package com.example.amasonapp.data;
 
+import androidx.annotation.VisibleForTesting;
+
 import com.example.amasonapp.model.TutorialArticulo;
+import com.example.amasonapp.startup.ServiciosFirebase;
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * REPOSITORIO DE CONTENIDO DE TUTORIALES
@@ -23,35 +30,12 @@ public class TutorialRepository {
     // Instancia de Cloud Firestore
     private final FirebaseFirestore db;
 
-    // Registro para el control del ciclo de vida de la conexión
-    private ListenerRegistration listenerRegistration;
-
     /**
      * Constructor del repositorio.
      * Vincula la instancia activa de Firestore.
      */
     public TutorialRepository() {
-        db = FirebaseFirestore.getInstance();
-    }
-
-    // -----------------------------------------------------------------------------------------
-    // CALLBACK: Comunicación de resultados de carga de tutoriales
-    // -----------------------------------------------------------------------------------------
-
-    public interface TutorialCallback {
-        /**
-         * Notifica que los artículos han sido recuperados y ordenados.
-         * 
-         * @param articulos Lista de pasos del tutorial cargado.
-         */
-        void onTutorialesCargados(List<TutorialArticulo> articulos);
-
-        /**
-         * Notifica fallos de conexión o de formato de datos.
-         * 
-         * @param e Excepción de Firebase o conversión.
-         */
-        void onError(Exception e);
+        db = ServiciosFirebase.firestore();
     }
 
     // -----------------------------------------------------------------------------------------
@@ -59,56 +43,157 @@ public class TutorialRepository {
     // -----------------------------------------------------------------------------------------
 
     /**
-     * Inicia una suscripción en tiempo real a una colección específica de
-     * tutoriales.
-     * Los resultados se ordenan automáticamente por el campo 'orden'.
+     * Devuelve una sección de tutoriales como un flujo ligado al ciclo de vida.
+     * Los resultados se ordenan automáticamente por el campo 'orden' y la escucha
+     * en tiempo real solo está abierta mientras la pantalla es visible. Mientras
+     * el manifiesto garantice que la caché está al día (ver {@link ManifiestoRepository}),
+     * la escucha es solo local.
      * 
      * @param nombreColeccion Nombre de la tabla en Firestore (ej:
      *                        "tutoriales_login").
-     * @param callback        Referencia para devolver los datos.
+     * @param criterioCache   Cuándo basta la caché, o null para escuchar el servidor.
+     * @return Flujo con los pasos de la sección.
+     */
+    public FlujoConsulta<List<TutorialArticulo>> flujoSeccion(String nombreColeccion,
+            FlujoConsulta.CriterioCache<List<TutorialArticulo>> criterioCache) {
+        // Es vital ordenar por el campo 'orden' para que el tutorial tenga sentido
+        // lógico; el gestor comparte el listener si otra pantalla ya lo tiene abierto
+        return new FlujoConsulta<>(nombreColeccion, null, GestorSuscripciones.camposDe("orden"), 0, criterioCache,
+                TutorialRepository::mapearArticulos);
+    }
+
+    /**
+     * Devuelve los pasos de todas las secciones, en el orden del menú, sobre la
+     * colección unificada (índice compuesto seccionIndice + orden). Se carga por
+     * páginas: la pantalla pide la siguiente con
+     * {@link FlujoPaginado#cargarSiguiente()} según se desplaza, y cada página
+     * empieza tras la sección y el paso del último documento de la anterior.
+     *
+     * @param pasosPorPagina Número de pasos de cada página.
+     * @return Flujo con los pasos de las páginas cargadas.
      */
-    public void empezarEscucha(String nombreColeccion, final TutorialCallback callback) {
-        listenerRegistration = db.collection(nombreColeccion)
-                // Es vital ordenar por el campo 'orden' para que el tutorial tenga sentido
-                // lógico
+    public FlujoPaginado<TutorialArticulo> flujoCatalogo(int pasosPorPagina) {
+        return new FlujoPaginado<>(Secciones.CATALOGO, new String[] { "seccionIndice", "orden" }, pasosPorPagina,
+                ultimo -> new Object[] { (long) Secciones.indiceDe(ultimo.getSeccion()), (long) ultimo.getOrden() },
+                TutorialRepository::mapearArticulos);
+    }
+
+    /**
+     * Lectura puntual de una sección completa, ordenada por 'orden', para
+     * trabajos en segundo plano que no necesitan escucha en tiempo real. Usa la
+     * caché local si no hay red.
+     *
+     * @param nombreColeccion Colección de la sección.
+     * @return Tarea con los pasos de la sección.
+     */
+    public Task<List<TutorialArticulo>> obtenerSeccion(String nombreColeccion) {
+        return db.collection(nombreColeccion)
                 .orderBy("orden", Query.Direction.ASCENDING)
-                .addSnapshotListener((value, e) -> {
+                .get()
+                .continueWith(tarea -> mapearArticulos(tarea.getResult()));
+    }
 
-                    // 1. Control de incidencias en la nube
-                    if (e != null) {
-                        callback.onError(e);
-                        return;
-                    }
+    /**
+     * Convierte los documentos de una sección en objetos de negocio.
+     */
+    private static List<TutorialArticulo> mapearArticulos(QuerySnapshot value) {
+        List<TutorialArticulo> articulosList = new ArrayList<>(value.size());
+        for (QueryDocumentSnapshot doc : value) {
+            // Convertimos el documento al modelo TutorialArticulo
+            articulosList.add(mapearDocumento(doc.getData()));
+        }
+        return articulosList;
+    }
+
+    /**
+     * Mismo mapeo sobre los documentos de una traza grabada, para reproducirla
+     * sin Firestore (ver {@link ReproductorSnapshots}).
+     */
+    static List<TutorialArticulo> mapearGrabados(List<TrazaSnapshots.Documento> documentos) {
+        List<TutorialArticulo> articulosList = new ArrayList<>(documentos.size());
+        for (TrazaSnapshots.Documento doc : documentos) {
+            articulosList.add(mapearDocumento(doc.campos));
+        }
+        return articulosList;
+    }
+
+    /**
+     * Mapea los campos de un documento a mano. toObject() resuelve el POJO por
+     * reflexión en cada documento, y con secciones de miles de pasos ese coste se
+     * paga en cada instantánea; aunque el mapeo corre en el hilo de fondo del
+     * gestor de suscripciones, retrasa la entrega a la UI y consume batería.
+     */
+    @VisibleForTesting
+    static TutorialArticulo mapearDocumento(Map<String, Object> campos) {
+        TutorialArticulo articulo = new TutorialArticulo();
+        articulo.setOrden(entero(campos.get("orden")));
+        articulo.setTextoEs(texto(campos.get("textoEs")));
+        articulo.setTextoEn(texto(campos.get("textoEn")));
+        articulo.setImagenNombre(texto(campos.get("imagenNombre")));
+        articulo.setImagenRuta(texto(campos.get("imagenRuta")));
+        articulo.setImagenHash(texto(campos.get("imagenHash")));
+        articulo.setImagenAncho(entero(campos.get("imagenAncho")));
+        articulo.setImagenAlto(entero(campos.get("imagenAlto")));
+        articulo.setImagenColor(texto(campos.get("imagenColor")));
+        articulo.setImagenBlurHash(texto(campos.get("imagenBlurHash")));
+        articulo.setSeccion(texto(campos.get("seccion")));
+        return articulo;
+    }
 
-                    // 2. Mapeo de documentos a objetos de negocio
-                    List<TutorialArticulo> articulosList = new ArrayList<>();
-
-                    if (value != null) {
-                        for (QueryDocumentSnapshot doc : value) {
-                            try {
-                                // Convertimos el documento al modelo TutorialArticulo
-                                TutorialArticulo articulo = doc.toObject(TutorialArticulo.class);
-                                articulosList.add(articulo);
-
-                            } catch (Exception conversionError) {
-                                // Si el documento en Firestore no tiene los campos esperados
-                                callback.onError(conversionError);
-                                return;
-                            }
-                        }
+    // Firestore devuelve los enteros como Long
+    private static int entero(Object valor) {
+        return valor instanceof Number ? ((Number) valor).intValue() : 0;
+    }
+
+    private static String texto(Object valor) {
+        return valor instanceof String ? (String) valor : null;
+    }
+
+    /**
+     * Obtiene un único paso de una sección por su número de orden, sin esperar a
+     * la colección completa. Primero se consulta la caché local y, si el paso no
+     * está, el servidor (o la caché si no hay red).
+     *
+     * @param nombreColeccion Colección de la sección.
+     * @param orden           Número de paso.
+     * @param alObtener       Recibe el paso, o null si la sección no lo tiene.
+     * @param alFallar        Acción a ejecutar si la lectura falla.
+     */
+    public void obtenerPaso(String nombreColeccion, int orden, Consumer<TutorialArticulo> alObtener,
+            Consumer<Exception> alFallar) {
+        Query consulta = db.collection(nombreColeccion).whereEqualTo("orden", orden).limit(1);
+        consulta.get(Source.CACHE)
+                .addOnSuccessListener(enCache -> {
+                    if (!enCache.isEmpty()) {
+                        alObtener.accept(mapearDocumento(enCache.getDocuments().get(0).getData()));
+                        return;
                     }
+                    leerPaso(consulta, alObtener, alFallar);
+                })
+                .addOnFailureListener(e -> leerPaso(consulta, alObtener, alFallar));
+    }
 
-                    // 3. Respuesta a la capa de UI (Fragment)
-                    callback.onTutorialesCargados(articulosList);
-                });
+    private static void leerPaso(Query consulta, Consumer<TutorialArticulo> alObtener, Consumer<Exception> alFallar) {
+        consulta.get()
+                .addOnSuccessListener(snapshot -> alObtener.accept(snapshot.isEmpty()
+                        ? null
+                        : mapearDocumento(snapshot.getDocuments().get(0).getData())))
+                .addOnFailureListener(alFallar::accept);
     }
 
     /**
-     * Cierra la conexión de streaming con Firestore.
+     * Relee la sección completa del servidor (nunca de la caché), de modo que la
+     * caché local quede al día y las escuchas de caché reciban los cambios.
+     *
+     * @param nombreColeccion Colección de la sección.
+     * @param alCompletar     Acción a ejecutar cuando la caché está al día.
+     * @param alFallar        Acción a ejecutar si el servidor no responde.
      */
-    public void detenerEscucha() {
-        if (listenerRegistration != null) {
-            listenerRegistration.remove();
-        }
+    public void refrescar(String nombreColeccion, Runnable alCompletar, Consumer<Exception> alFallar) {
+        db.collection(nombreColeccion)
+                .orderBy("orden", Query.Direction.ASCENDING)
+                .get(Source.SERVER)
+                .addOnSuccessListener(snapshot -> alCompletar.run())
+                .addOnFailureListener(alFallar::accept);
     }
 }
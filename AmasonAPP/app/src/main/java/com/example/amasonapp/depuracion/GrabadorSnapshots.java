@@ -0,0 +1,144 @@
+package com.example.amasonapp.depuracion;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.amasonapp.BuildConfig;
+import com.example.amasonapp.data.TrazaSnapshots;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * GRABADOR DE INSTANTÁNEAS DE FIRESTORE (SOLO DEPURACIÓN)
+ *
+ * Guarda en una traza local cada instantánea que llega a los mapeadores del
+ * gestor de suscripciones (traducciones, secciones, catálogo y manifiesto), con
+ * el momento en que llegó desde el arranque del proceso. La traza se reproduce
+ * después con {@link com.example.amasonapp.data.ReproductorSnapshots} para
+ * comparar compilaciones con la misma entrada.
+ *
+ * Se activa creando un archivo de marca y reiniciando la app:
+ *
+ *   adb shell run-as com.example.amasonapp touch files/grabar_snapshots
+ *
+ * Cada arranque escribe files/trazas/snapshots_&lt;fecha&gt;.traza. La marca se
+ * comprueba y el archivo se escribe desde un hilo propio; en las compilaciones
+ * de release no se instala nada.
+ */
+public final class GrabadorSnapshots {
+
+    private static final String TAG = "GrabadorSnapshots";
+    private static final String MARCA = "grabar_snapshots";
+    private static final String CARPETA = "trazas";
+
+    private static volatile GrabadorSnapshots activo;
+
+    // Referencia de tiempo de la traza (instalación, al crear el proceso)
+    private final long inicio = SystemClock.elapsedRealtime();
+    private final ExecutorService escritor = Executors.newSingleThreadExecutor();
+
+    // Confinado al hilo del escritor; null hasta abrir el archivo
+    private DataOutputStream salida;
+
+    private GrabadorSnapshots() {
+    }
+
+    /**
+     * Prepara la grabación si existe la marca. Se llama una vez desde la aplicación.
+     */
+    public static void instalar(Context context) {
+        if (!BuildConfig.DEBUG)
+            return;
+        Context app = context.getApplicationContext();
+        GrabadorSnapshots grabador = new GrabadorSnapshots();
+        // Activo desde ya para no perder las primeras instantáneas; si no hay marca se retira
+        activo = grabador;
+        grabador.escritor.execute(() -> grabador.abrir(app.getFilesDir()));
+    }
+
+    /**
+     * @return Grabador en uso, o null si no se está grabando.
+     */
+    public static GrabadorSnapshots getActivo() {
+        return activo;
+    }
+
+    /**
+     * Anota una instantánea. Solo captura el instante; la conversión y la
+     * escritura se hacen en el hilo del grabador.
+     *
+     * @param coleccion Colección de la consulta.
+     * @param clave     Clave de la consulta en el gestor.
+     * @param snapshot  Instantánea que va a mapearse.
+     */
+    public void grabar(String coleccion, String clave, QuerySnapshot snapshot) {
+        long desfaseMs = SystemClock.elapsedRealtime() - inicio;
+        try {
+            escritor.execute(() -> escribir(new TrazaSnapshots.Instantanea(desfaseMs, coleccion, clave,
+                    documentosDe(snapshot))));
+        } catch (RejectedExecutionException e) {
+            // Llegó mientras se comprobaba la marca y no había que grabar
+        }
+    }
+
+    private void abrir(File carpetaDatos) {
+        if (!new File(carpetaDatos, MARCA).exists()) {
+            activo = null;
+            escritor.shutdown();
+            return;
+        }
+        File carpeta = new File(carpetaDatos, CARPETA);
+        String nombre = "snapshots_" + new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.ROOT).format(new Date())
+                + ".traza";
+        File archivo = new File(carpeta, nombre);
+        try {
+            if (!carpeta.isDirectory() && !carpeta.mkdirs())
+                throw new IOException("No se pudo crear " + carpeta);
+            salida = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(archivo)));
+            TrazaSnapshots.escribirCabecera(salida);
+            salida.flush();
+            Log.i(TAG, "Grabando instantáneas en " + archivo);
+        } catch (IOException e) {
+            Log.w(TAG, "No se pudo abrir la traza", e);
+            activo = null;
+            escritor.shutdown();
+        }
+    }
+
+    private void escribir(TrazaSnapshots.Instantanea instantanea) {
+        if (salida == null)
+            return;
+        try {
+            TrazaSnapshots.escribir(salida, instantanea);
+            // Se vuelca cada registro: el proceso puede morir sin cerrar el archivo
+            salida.flush();
+        } catch (IOException e) {
+            Log.w(TAG, "No se pudo escribir la traza; se deja de grabar", e);
+            salida = null;
+            activo = null;
+        }
+    }
+
+    private static List<TrazaSnapshots.Documento> documentosDe(QuerySnapshot snapshot) {
+        List<TrazaSnapshots.Documento> documentos = new ArrayList<>(snapshot.size());
+        for (QueryDocumentSnapshot doc : snapshot) {
+            documentos.add(new TrazaSnapshots.Documento(doc.getId(), doc.getData()));
+        }
+        return documentos;
+    }
+}
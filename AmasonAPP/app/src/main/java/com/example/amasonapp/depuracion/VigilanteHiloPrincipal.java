@@ -0,0 +1,207 @@
+package com.example.amasonapp.depuracion;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Looper;
+import android.os.StrictMode;
+import android.util.Log;
+
+import com.example.amasonapp.BuildConfig;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * VIGILANTE DEL HILO PRINCIPAL (SOLO DEPURACIÓN)
+ *
+ * Detecta trabajo lento o de disco en el hilo de la UI:
+ *
+ * 1. Activa StrictMode con detección de lecturas/escrituras en disco y de
+ *    llamadas lentas personalizadas.
+ * 2. Ofrece guardias de tiempo para los puntos calientes (repositorios,
+ *    adaptador y transacciones de fragmentos). Si una llamada en el hilo
+ *    principal supera su presupuesto se notifica a StrictMode y se anota.
+ * 3. Cada infracción se guarda con su traza y la sección abierta en un log
+ *    local, escrito desde un hilo de fondo.
+ *
+ * En las compilaciones de release todo es una operación vacía. En las pruebas
+ * se puede activar {@link #setFallarAlExceder(boolean)} para que exceder un
+ * presupuesto haga fallar la prueba.
+ */
+public final class VigilanteHiloPrincipal {
+
+    private static final String TAG = "VigilanteHilo";
+    private static final String ARCHIVO = "infracciones_hilo_principal.log";
+
+    // Máximo de infracciones que se conservan en memoria para consultarlas
+    private static final int MAXIMO_EN_MEMORIA = 100;
+
+    // --- Presupuestos (ms) de los puntos vigilados; un fotograma dura ~16 ms ---
+    public static final long PRESUPUESTO_ENLACE_MS = 4;
+    public static final long PRESUPUESTO_CALLBACK_DATOS_MS = 8;
+    public static final long PRESUPUESTO_TRANSACCION_MS = 16;
+
+    // Guardia compartida cuando no hay nada que medir (release o hilo de fondo)
+    private static final Guardia GUARDIA_VACIA = new Guardia(null, 0);
+
+    private static volatile boolean activo = BuildConfig.DEBUG;
+    private static volatile boolean fallarAlExceder;
+    private static volatile String seccionActual;
+    private static volatile File archivo;
+
+    private static final List<String> infracciones = new ArrayList<>();
+    private static final ExecutorService escritor = Executors.newSingleThreadExecutor();
+
+    private VigilanteHiloPrincipal() {
+    }
+
+    /**
+     * Guardia de tiempo de un punto vigilado; se usa con try-with-resources.
+     */
+    public static final class Guardia implements AutoCloseable {
+        private final String punto;
+        private final long presupuestoMs;
+        private final long inicio;
+
+        private Guardia(String punto, long presupuestoMs) {
+            this.punto = punto;
+            this.presupuestoMs = presupuestoMs;
+            // Reloj real (nanoTime) para que la medida también valga bajo Robolectric
+            this.inicio = punto != null ? System.nanoTime() : 0;
+        }
+
+        @Override
+        public void close() {
+            if (punto == null)
+                return;
+            long duracion = (System.nanoTime() - inicio) / 1_000_000L;
+            if (duracion > presupuestoMs) {
+                exceso(punto, duracion, presupuestoMs);
+            }
+        }
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // CONFIGURACIÓN
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Activa StrictMode y el log local. Se llama una vez desde la aplicación.
+     */
+    public static void instalar(Context context) {
+        if (!activo)
+            return;
+
+        archivo = new File(context.getApplicationContext().getFilesDir(), ARCHIVO);
+
+        StrictMode.ThreadPolicy.Builder politica = new StrictMode.ThreadPolicy.Builder()
+                .detectDiskReads()
+                .detectDiskWrites()
+                .detectCustomSlowCalls()
+                .penaltyLog();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            politica.penaltyListener(escritor, infraccion ->
+                    anotar("StrictMode: " + infraccion.getClass().getSimpleName(), infraccion));
+        }
+        StrictMode.setThreadPolicy(politica.build());
+    }
+
+    /**
+     * Activa o desactiva la vigilancia (las pruebas la activan aunque no sea debug).
+     */
+    public static void setActivo(boolean valor) {
+        activo = valor;
+    }
+
+    /**
+     * Si es true, exceder un presupuesto lanza AssertionError (para las pruebas).
+     */
+    public static void setFallarAlExceder(boolean valor) {
+        fallarAlExceder = valor;
+    }
+
+    /**
+     * Sección de tutoriales visible, que se añade como contexto a cada infracción.
+     */
+    public static void setSeccionActual(String seccion) {
+        seccionActual = seccion;
+    }
+
+    /**
+     * @return Copia de las últimas infracciones registradas.
+     */
+    public static List<String> getInfracciones() {
+        synchronized (infracciones) {
+            return new ArrayList<>(infracciones);
+        }
+    }
+
+    public static void limpiar() {
+        synchronized (infracciones) {
+            infracciones.clear();
+        }
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // GUARDIAS
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Empieza a medir un punto vigilado. Fuera del hilo principal, o en release,
+     * devuelve una guardia vacía sin coste.
+     *
+     * @param punto         Nombre del punto (ej: "adapter.onBind").
+     * @param presupuestoMs Tiempo máximo aceptable en el hilo principal.
+     */
+    public static Guardia medir(String punto, long presupuestoMs) {
+        if (!activo || Looper.myLooper() != Looper.getMainLooper())
+            return GUARDIA_VACIA;
+        return new Guardia(punto, presupuestoMs);
+    }
+
+    private static void exceso(String punto, long duracion, long presupuesto) {
+        String descripcion = punto + " tardó " + duracion + " ms (presupuesto " + presupuesto + " ms)";
+        StrictMode.noteSlowCall(descripcion);
+        Throwable traza = new Throwable(descripcion);
+        anotar(descripcion, traza);
+        if (fallarAlExceder) {
+            throw new AssertionError(descripcion, traza);
+        }
+    }
+
+    private static void anotar(String descripcion, Throwable traza) {
+        String seccion = seccionActual;
+        String entrada = descripcion + (seccion != null ? " [sección " + seccion + "]" : "");
+        Log.w(TAG, entrada, traza);
+
+        synchronized (infracciones) {
+            if (infracciones.size() == MAXIMO_EN_MEMORIA) {
+                infracciones.remove(0);
+            }
+            infracciones.add(entrada);
+        }
+
+        File destino = archivo;
+        if (destino == null)
+            return;
+        // La escritura al log se hace en segundo plano para no provocar otra infracción
+        escritor.execute(() -> {
+            try (PrintWriter salida = new PrintWriter(new FileWriter(destino, true))) {
+                salida.println(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.ROOT).format(new Date())
+                        + " " + entrada);
+                traza.printStackTrace(salida);
+            } catch (IOException e) {
+                Log.w(TAG, "No se pudo escribir el log de infracciones", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.amasonapp.fragments;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.ConcatAdapter;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.amasonapp.MainActivity;
+import com.example.amasonapp.R;
+import com.example.amasonapp.adapters.CabeceraSeccionAdapter;
+import com.example.amasonapp.adapters.PrecalculadorTextos;
+import com.example.amasonapp.adapters.TutorialAdapter;
+import com.example.amasonapp.data.FlujoPaginado;
+import com.example.amasonapp.data.Secciones;
+import com.example.amasonapp.depuracion.VigilanteHiloPrincipal;
+import com.example.amasonapp.model.TutorialArticulo;
+import com.example.amasonapp.telemetria.RegistroUso;
+import com.example.amasonapp.viewmodels.TutorialViewModel;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FRAGMENTO CON TODOS LOS TUTORIALES
+ *
+ * Lectura continua de todas las secciones, una detrás de otra. Se alimenta de
+ * una única consulta sobre la colección unificada, de modo que recorrer todo el
+ * contenido cuesta un listener y un mapeo por instantánea en lugar de siete.
+ *
+ * La lista encadena, por cada sección, una cabecera y un TutorialAdapter con
+ * sus pasos (ConcatAdapter). Los pasos llegan por páginas: al acercarse al
+ * final de la lista se pide la siguiente, que empieza tras el último paso
+ * cargado, y solo se refrescan las secciones cuyos pasos han cambiado.
+ */
+public class CatalogoFragment extends Fragment {
+
+    // Pasos por página y distancia al final a la que se pide la siguiente
+    private static final int PASOS_POR_PAGINA = 40;
+    private static final int MARGEN_CARGA = 10;
+
+    private RecyclerView recyclerView;
+    private LinearLayoutManager layoutManager;
+    private ConcatAdapter adapter;
+    private PrecalculadorTextos precalculador;
+    private String idiomaActual;
+
+    private TutorialViewModel estado;
+    private FlujoPaginado<TutorialArticulo> flujo;
+    private List<TutorialArticulo> articulosActuales = new ArrayList<>();
+
+    // Adaptadores de cada sección ya presente en la lista, en orden de aparición
+    private final Map<String, SeccionEnLista> secciones = new LinkedHashMap<>();
+
+    /**
+     * Cabecera y pasos de una sección dentro de la lista encadenada.
+     */
+    private static class SeccionEnLista {
+        final CabeceraSeccionAdapter cabecera;
+        final TutorialAdapter pasos;
+
+        SeccionEnLista(CabeceraSeccionAdapter cabecera, TutorialAdapter pasos) {
+            this.cabecera = cabecera;
+            this.pasos = pasos;
+        }
+    }
+
+    public static CatalogoFragment newInstance() {
+        return new CatalogoFragment();
+    }
+
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        estado = new ViewModelProvider(this).get(TutorialViewModel.class);
+    }
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
+            @Nullable Bundle savedInstanceState) {
+        VigilanteHiloPrincipal.setSeccionActual(Secciones.CATALOGO);
+        try (VigilanteHiloPrincipal.Guardia g = VigilanteHiloPrincipal.medir(
+                "CatalogoFragment.onCreateView", VigilanteHiloPrincipal.PRESUPUESTO_TRANSACCION_MS)) {
+            return crearVista(inflater, container);
+        }
+    }
+
+    private View crearVista(LayoutInflater inflater, ViewGroup container) {
+        // Reutilizamos el contenedor genérico de tutoriales
+        View view = inflater.inflate(R.layout.fragment_tutorial_container, container, false);
+
+        recyclerView = view.findViewById(R.id.recyclerView_tutorial);
+        layoutManager = new LinearLayoutManager(getContext());
+        recyclerView.setLayoutManager(layoutManager);
+
+        idiomaActual = getIdiomaFromActivity();
+        precalculador = new PrecalculadorTextos(requireContext());
+        secciones.clear();
+        adapter = new ConcatAdapter();
+        recyclerView.setAdapter(adapter);
+        registrarPasosVisibles();
+        registrarPaginacion();
+
+        cargarCatalogo();
+        return view;
+    }
+
+    private String getIdiomaFromActivity() {
+        if (getActivity() instanceof MainActivity) {
+            return ((MainActivity) getActivity()).getIdiomaActual();
+        }
+        return "es";
+    }
+
+    private CharSequence getTituloSeccion(String coleccion) {
+        if (getActivity() instanceof MainActivity) {
+            return ((MainActivity) getActivity()).getTituloSeccion(coleccion);
+        }
+        return coleccion;
+    }
+
+    /**
+     * Observa las páginas cargadas del catálogo. Al rotar, el flujo retenido
+     * entrega los pasos de todas ellas sin volver a consultarlos.
+     */
+    private void cargarCatalogo() {
+        flujo = estado.flujoCatalogo(PASOS_POR_PAGINA);
+        flujo.observe(getViewLifecycleOwner(), articulos -> {
+            articulosActuales = articulos;
+            precalculador.precalcular(articulos, idiomaActual, () -> {
+                if (adapter != null) {
+                    mostrar(articulos);
+                }
+            });
+        });
+    }
+
+    /**
+     * Reparte los pasos entre sus secciones (vienen ya ordenados por sección y
+     * paso), añade a la lista las secciones que aparecen por primera vez y
+     * refresca solo las que han cambiado (al llegar una página, la última).
+     */
+    private void mostrar(List<TutorialArticulo> articulos) {
+        Map<String, List<TutorialArticulo>> porSeccion = new LinkedHashMap<>();
+        for (TutorialArticulo articulo : articulos) {
+            if (articulo.getSeccion() == null)
+                continue;
+            List<TutorialArticulo> pasos = porSeccion.get(articulo.getSeccion());
+            if (pasos == null) {
+                pasos = new ArrayList<>();
+                porSeccion.put(articulo.getSeccion(), pasos);
+            }
+            pasos.add(articulo);
+        }
+
+        for (Map.Entry<String, List<TutorialArticulo>> entrada : porSeccion.entrySet()) {
+            SeccionEnLista seccion = secciones.get(entrada.getKey());
+            if (seccion == null) {
+                TutorialAdapter pasos = new TutorialAdapter(entrada.getValue(), idiomaActual, getContext());
+                pasos.setPrecalculador(precalculador);
+                seccion = new SeccionEnLista(new CabeceraSeccionAdapter(getTituloSeccion(entrada.getKey())), pasos);
+                secciones.put(entrada.getKey(), seccion);
+                adapter.addAdapter(seccion.cabecera);
+                adapter.addAdapter(seccion.pasos);
+            } else if (!mismosPasos(seccion.pasos, entrada.getValue())) {
+                seccion.pasos.actualizarArticulos(entrada.getValue());
+            }
+        }
+    }
+
+    // Las páginas que no cambian entregan los mismos objetos ya mapeados
+    private static boolean mismosPasos(TutorialAdapter adaptador, List<TutorialArticulo> pasos) {
+        if (adaptador.getItemCount() != pasos.size())
+            return false;
+        for (int i = 0; i < pasos.size(); i++) {
+            if (adaptador.getArticulo(i) != pasos.get(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Pide la página siguiente al acercarse al final; el flujo solo la abre si
+     * la anterior llegó completa (si llegó incompleta, ya no hay más pasos).
+     */
+    private void registrarPaginacion() {
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (flujo == null || dy <= 0)
+                    return;
+                boolean cercaDelFinal = layoutManager.findLastVisibleItemPosition()
+                        >= adapter.getItemCount() - MARGEN_CARGA;
+                if (cercaDelFinal) {
+                    flujo.cargarSiguiente();
+                }
+            }
+        });
+    }
+
+    /**
+     * Anota en la telemetría cada paso que entra en pantalla, con su sección.
+     */
+    private void registrarPasosVisibles() {
+        RegistroUso registro = RegistroUso.getInstance(requireContext());
+        recyclerView.addOnChildAttachStateChangeListener(new RecyclerView.OnChildAttachStateChangeListener() {
+            @Override
+            public void onChildViewAttachedToWindow(@NonNull View view) {
+                RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(view);
+                if (!(holder.getBindingAdapter() instanceof TutorialAdapter))
+                    return;
+                TutorialArticulo articulo = ((TutorialAdapter) holder.getBindingAdapter())
+                        .getArticulo(holder.getBindingAdapterPosition());
+                if (articulo != null) {
+                    registro.pasoVisible(articulo.getSeccion(), articulo.getOrden(), idiomaActual);
+                }
+            }
+
+            @Override
+            public void onChildViewDetachedFromWindow(@NonNull View view) {
+            }
+        });
+    }
+
+    /**
+     * Llamado por MainActivity al cambiar de idioma: se vuelven a medir los
+     * textos y se refrescan pasos y cabeceras.
+     */
+    public void actualizarIdioma(String nuevoIdioma) {
+        if (adapter == null)
+            return;
+
+        idiomaActual = nuevoIdioma;
+        precalculador.precalcular(articulosActuales, nuevoIdioma, () -> {
+            if (adapter == null)
+                return;
+            for (Map.Entry<String, SeccionEnLista> entrada : secciones.entrySet()) {
+                entrada.getValue().cabecera.setTitulo(getTituloSeccion(entrada.getKey()));
+                entrada.getValue().pasos.actualizarIdioma(nuevoIdioma);
+            }
+        });
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        adapter = null;
+        if (precalculador != null) {
+            precalculador.liberar();
+        }
+    }
+}
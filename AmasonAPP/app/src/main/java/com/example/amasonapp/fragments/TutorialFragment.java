@@ -8,16 +8,24 @@ import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.amasonapp.MainActivity;
 import com.example.amasonapp.R;
+import com.example.amasonapp.adapters.PrecalculadorTextos;
 import com.example.amasonapp.adapters.TutorialAdapter;
-import com.example.amasonapp.data.TutorialRepository;
+import com.example.amasonapp.data.FlujoConsulta;
+import com.example.amasonapp.data.ManifiestoRepository;
+import com.example.amasonapp.data.ProgresoRepository;
+import com.example.amasonapp.depuracion.VigilanteHiloPrincipal;
 import com.example.amasonapp.model.TutorialArticulo;
+import com.example.amasonapp.telemetria.RegistroUso;
+import com.example.amasonapp.viewmodels.TutorialViewModel;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -33,11 +41,27 @@ public class TutorialFragment extends Fragment {
 
     // Clave para el paso de argumentos al fragmento
     private static final String ARG_COLECCION = "coleccion_nome";
+    private static final String ARG_ORDEN = "orden_enlazado";
 
     private String coleccionNombre;
+
+    // Paso al que apunta un enlace directo (0 si se abrió desde el menú)
+    private int ordenEnlazado;
     private RecyclerView recyclerView;
+    private LinearLayoutManager layoutManager;
     private TutorialAdapter adapter;
-    private TutorialRepository repository;
+
+    // Pasos cargados y posición de la lista, retenidos al recrearse el fragmento
+    private TutorialViewModel estado;
+
+    // Medición de las descripciones fuera del hilo principal
+    private PrecalculadorTextos precalculador;
+    private List<TutorialArticulo> articulosActuales = new ArrayList<>();
+    private String idiomaActual;
+
+    // Progreso del operador: se restaura una sola vez por vista, con los primeros datos
+    private ProgresoRepository progreso;
+    private boolean posicionRestaurada;
 
     /**
      * Método estático para crear nuevas instancias del fragmento de forma segura.
@@ -54,33 +78,66 @@ public class TutorialFragment extends Fragment {
         return fragment;
     }
 
+    /**
+     * Crea el fragmento abierto directamente en un paso (enlace de soporte).
+     *
+     * @param coleccionNombre Nombre de la colección en Firebase.
+     * @param orden           Número de paso en el que colocar la lista.
+     * @return Una nueva instancia configurada del fragmento.
+     */
+    public static TutorialFragment newInstance(String coleccionNombre, int orden) {
+        TutorialFragment fragment = newInstance(coleccionNombre);
+        fragment.requireArguments().putInt(ARG_ORDEN, orden);
+        return fragment;
+    }
+
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         // Recuperamos el nombre de la colección a mostrar
         if (getArguments() != null) {
             coleccionNombre = getArguments().getString(ARG_COLECCION);
+            ordenEnlazado = getArguments().getInt(ARG_ORDEN);
         }
+        estado = new ViewModelProvider(this).get(TutorialViewModel.class);
     }
 
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
             @Nullable Bundle savedInstanceState) {
+        // La vista del fragmento se crea al ejecutarse la transacción: aquí se mide
+        // el coste real de cambiar de sección
+        VigilanteHiloPrincipal.setSeccionActual(coleccionNombre);
+        try (VigilanteHiloPrincipal.Guardia g = VigilanteHiloPrincipal.medir(
+                "TutorialFragment.onCreateView", VigilanteHiloPrincipal.PRESUPUESTO_TRANSACCION_MS)) {
+            return crearVista(inflater, container);
+        }
+    }
+
+    private View crearVista(LayoutInflater inflater, ViewGroup container) {
         // Inflamos el contenedor genérico de tutoriales
         View view = inflater.inflate(R.layout.fragment_tutorial_container, container, false);
 
         // Configuramos el RecyclerView con un LayoutManager vertical básico
         recyclerView = view.findViewById(R.id.recyclerView_tutorial);
-        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        layoutManager = new LinearLayoutManager(getContext());
+        recyclerView.setLayoutManager(layoutManager);
 
         // Inicializamos el adaptador vacío y lo vinculamos
-        String idiomaActual = getIdiomaFromActivity();
+        idiomaActual = getIdiomaFromActivity();
         adapter = new TutorialAdapter(new ArrayList<>(), idiomaActual, getContext());
+        precalculador = new PrecalculadorTextos(requireContext());
+        adapter.setPrecalculador(precalculador);
         recyclerView.setAdapter(adapter);
+        registrarPasosVisibles();
+        progreso = ProgresoRepository.getInstance(requireContext());
+        posicionRestaurada = false;
+        registrarProgreso();
 
-        // Iniciamos la carga de datos desde el repositorio
-        repository = new TutorialRepository();
+        // Iniciamos la carga de datos desde el repositorio; la escucha sigue el ciclo
+        // de vida de la vista y se suspende sola mientras no es visible (tras una
+        // rotación el flujo retenido entrega los pasos sin volver a consultarlos)
         cargarTutoriales();
 
         return view;
@@ -97,25 +154,122 @@ public class TutorialFragment extends Fragment {
     }
 
     /**
-     * Conecta con el repositorio para empezar a escuchar cambios en la colección
-     * asignada.
+     * Observa la colección asignada. Al volver a primer plano se reenvía el último
+     * valor conocido y se reabre la escucha.
      */
     private void cargarTutoriales() {
         if (coleccionNombre == null)
             return;
 
-        repository.empezarEscucha(coleccionNombre, new TutorialRepository.TutorialCallback() {
-            @Override
-            public void onTutorialesCargados(List<TutorialArticulo> articulos) {
-                // Actualizamos la UI cuando los datos llegan de Firestore
+        RegistroUso.getInstance(requireContext()).seccionAbierta(coleccionNombre, idiomaActual);
+        if (ordenEnlazado > 0) {
+            cargarPasoEnlazado();
+        }
+        // Con la sección al día según el manifiesto basta la caché (si le faltan pasos
+        // se pasa al servidor); si su huella ha cambiado se relee una vez del servidor
+        ManifiestoRepository manifiesto = ManifiestoRepository.getInstance(requireContext());
+        FlujoConsulta<List<TutorialArticulo>> flujo = estado.flujoSeccion(coleccionNombre,
+                manifiesto.criterioSeccion(coleccionNombre));
+        manifiesto.sincronizar(coleccionNombre);
+        flujo.observe(getViewLifecycleOwner(), articulos -> {
+            // Medimos las descripciones en segundo plano y actualizamos la UI al
+            // terminar, de modo que el enlace de cada tarjeta no mida texto
+            articulosActuales = articulos;
+            precalculador.precalcular(articulos, idiomaActual, () -> {
                 if (adapter != null) {
                     adapter.actualizarArticulos(articulos);
+                    restaurarPosicion(articulos);
+                }
+            });
+        });
+        // Manejo silencioso de errores de carga: el flujo reabre la escucha al volver
+        // a primer plano
+    }
+
+    /**
+     * Pinta el paso enlazado en cuanto llega su documento, sin esperar a la
+     * sección: si la colección completa se adelanta, el paso suelto se ignora.
+     */
+    private void cargarPasoEnlazado() {
+        estado.pasoEnlazado(coleccionNombre, ordenEnlazado).observe(getViewLifecycleOwner(), paso -> {
+            if (paso != null && adapter != null && adapter.getItemCount() == 0) {
+                adapter.actualizarArticulos(Collections.singletonList(paso));
+            }
+        });
+    }
+
+    /**
+     * Anota en la telemetría cada paso que entra en pantalla. El registro es una
+     * escritura en memoria, así que puede hacerse durante el desplazamiento.
+     */
+    private void registrarPasosVisibles() {
+        RegistroUso registro = RegistroUso.getInstance(requireContext());
+        recyclerView.addOnChildAttachStateChangeListener(new RecyclerView.OnChildAttachStateChangeListener() {
+            @Override
+            public void onChildViewAttachedToWindow(@NonNull View view) {
+                TutorialArticulo articulo = adapter.getArticulo(recyclerView.getChildAdapterPosition(view));
+                if (articulo != null) {
+                    registro.pasoVisible(coleccionNombre, articulo.getOrden(), idiomaActual);
                 }
             }
 
             @Override
-            public void onError(Exception e) {
-                // Manejo silencioso de errores de carga
+            public void onChildViewDetachedFromWindow(@NonNull View view) {
+            }
+        });
+    }
+
+    /**
+     * Coloca la lista en el último paso que el operador tenía en pantalla. Si la
+     * vista se está recreando se vuelve a la posición exacta guardada; si no, al
+     * paso enlazado o, sin enlace, al último paso del progreso, que se lee de la
+     * copia local sin esperar a la red.
+     */
+    private void restaurarPosicion(List<TutorialArticulo> articulos) {
+        if (posicionRestaurada || articulos.isEmpty())
+            return;
+        posicionRestaurada = true;
+
+        int posicionGuardada = estado.getPosicion();
+        if (posicionGuardada >= 0 && posicionGuardada < articulos.size()) {
+            layoutManager.scrollToPositionWithOffset(posicionGuardada, estado.getDesplazamiento());
+            return;
+        }
+
+        int ultimoPaso = ordenEnlazado > 0 ? ordenEnlazado : progreso.obtener(coleccionNombre).getUltimoPaso();
+        for (int i = 0; i < articulos.size(); i++) {
+            if (articulos.get(i).getOrden() == ultimoPaso) {
+                layoutManager.scrollToPositionWithOffset(i, 0);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Anota el progreso con cada desplazamiento: el paso superior es el último
+     * visto y los que caben enteros cuentan como completados. El repositorio
+     * descarta las anotaciones que no cambian nada.
+     */
+    private void registrarProgreso() {
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                // No anotamos nada hasta haber colocado la lista en la posición guardada
+                if (!posicionRestaurada || coleccionNombre == null)
+                    return;
+
+                TutorialArticulo superior = adapter.getArticulo(layoutManager.findFirstVisibleItemPosition());
+                if (superior == null)
+                    return;
+                progreso.marcarUltimoPaso(coleccionNombre, superior.getOrden());
+
+                int ultimo = layoutManager.findLastCompletelyVisibleItemPosition();
+                for (int i = layoutManager.findFirstCompletelyVisibleItemPosition(); i >= 0 && i <= ultimo; i++) {
+                    TutorialArticulo articulo = adapter.getArticulo(i);
+                    if (articulo != null) {
+                        progreso.marcarCompletado(coleccionNombre, articulo.getOrden());
+                    }
+                }
             }
         });
     }
@@ -125,18 +279,55 @@ public class TutorialFragment extends Fragment {
      * a todos los elementos visibles del tutorial actual.
      */
     public void actualizarIdioma(String nuevoIdioma) {
-        if (adapter != null) {
-            adapter.actualizarIdioma(nuevoIdioma);
+        if (adapter == null)
+            return;
+
+        idiomaActual = nuevoIdioma;
+        precalculador.precalcular(articulosActuales, nuevoIdioma, () -> {
+            if (adapter != null) {
+                adapter.actualizarIdioma(nuevoIdioma);
+            }
+        });
+    }
+
+    /**
+     * Anota la posición exacta de la lista en el estado retenido (también se
+     * escribe en el Bundle por si el sistema destruye el proceso).
+     */
+    private void guardarPosicion() {
+        if (layoutManager == null || !posicionRestaurada)
+            return;
+        int posicion = layoutManager.findFirstVisibleItemPosition();
+        if (posicion == RecyclerView.NO_POSITION)
+            return;
+        View superior = layoutManager.findViewByPosition(posicion);
+        int desplazamiento = superior != null ? superior.getTop() - recyclerView.getPaddingTop() : 0;
+        estado.guardarPosicion(posicion, desplazamiento);
+    }
+
+    @Override
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        guardarPosicion();
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        // Al salir de la pantalla subimos lo pendiente (si hay conexión)
+        if (progreso != null) {
+            progreso.sincronizar();
         }
     }
 
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        // Cerramos la conexión con Firebase al destruir la vista para ahorrar datos y
-        // batería
-        if (repository != null) {
-            repository.detenerEscucha();
+        guardarPosicion();
+        // La escucha de Firebase se cierra sola con la vista; aquí solo liberamos
+        // las mediciones de texto
+        if (precalculador != null) {
+            precalculador.liberar();
         }
     }
 }
@@ -0,0 +1,66 @@
+package com.example.amasonapp.model;
+
+import android.net.Uri;
+
+import com.example.amasonapp.data.Secciones;
+
+import java.util.List;
+
+/**
+ * ENLACE DIRECTO A UN PASO DE TUTORIAL
+ *
+ * Representa un enlace del tipo amason://tutorial/ftp/4 ("paso 4 del
+ * tutorial de FTP"), el que envía soporte a los operadores. La sección puede
+ * escribirse corta (ftp) o con el nombre de la colección (tutoriales_ftp).
+ */
+public class EnlaceTutorial {
+
+    public static final String ESQUEMA = "amason";
+    public static final String HOST = "tutorial";
+
+    private static final String PREFIJO_COLECCION = "tutoriales_";
+
+    private final String coleccion;
+    private final int orden;
+
+    public EnlaceTutorial(String coleccion, int orden) {
+        this.coleccion = coleccion;
+        this.orden = orden;
+    }
+
+    /**
+     * @param uri Datos del intent recibido (puede ser null).
+     * @return El enlace, o null si la URI no apunta a un paso existente del catálogo.
+     */
+    public static EnlaceTutorial desdeUri(Uri uri) {
+        if (uri == null || !ESQUEMA.equals(uri.getScheme()) || !HOST.equals(uri.getHost()))
+            return null;
+        List<String> segmentos = uri.getPathSegments();
+        if (segmentos.size() != 2)
+            return null;
+        return desdeSegmentos(segmentos.get(0), segmentos.get(1));
+    }
+
+    /**
+     * Valida la sección y el número de paso (separado de Uri para poder probarlo en la JVM).
+     */
+    static EnlaceTutorial desdeSegmentos(String seccion, String paso) {
+        String coleccion = seccion.startsWith(PREFIJO_COLECCION) ? seccion : PREFIJO_COLECCION + seccion;
+        if (Secciones.indiceDe(coleccion) < 0)
+            return null;
+        try {
+            int orden = Integer.parseInt(paso);
+            return orden > 0 ? new EnlaceTutorial(coleccion, orden) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public String getColeccion() {
+        return coleccion;
+    }
+
+    public int getOrden() {
+        return orden;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.amasonapp.model;
+
+/**
+ * RESUMEN DE UNA SECCIÓN EN EL MANIFIESTO
+ *
+ * Entrada del documento "manifiesto/secciones" que publica el importador para
+ * cada colección de tutoriales: una huella del contenido, el número de pasos y
+ * los bytes de las imágenes remotas que habría que descargar.
+ */
+public class ManifiestoSeccion {
+
+    // Huella del contenido de la sección; cambia con cualquier paso modificado
+    private final String hash;
+
+    // Número de pasos de la sección
+    private final int pasos;
+
+    // Bytes de las capturas alojadas en Firebase Storage
+    private final long bytesImagenes;
+
+    public ManifiestoSeccion(String hash, int pasos, long bytesImagenes) {
+        this.hash = hash;
+        this.pasos = pasos;
+        this.bytesImagenes = bytesImagenes;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public int getPasos() {
+        return pasos;
+    }
+
+    public long getBytesImagenes() {
+        return bytesImagenes;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.amasonapp.model;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * MODELO DE PROGRESO EN UNA SECCIÓN DE TUTORIALES
+ *
+ * Guarda el último paso que el operador tenía en pantalla y los pasos que ha
+ * llegado a ver completos. Los pasos se identifican por su campo 'orden'.
+ */
+public class ProgresoSeccion {
+
+    // Orden del último paso visto (0 si todavía no se ha abierto la sección)
+    private int ultimoPaso;
+
+    // Órdenes de los pasos vistos completos
+    private final Set<Integer> completados = new TreeSet<>();
+
+    // Instante (ms) de la última modificación, para resolver conflictos entre dispositivos
+    private long actualizadoEn;
+
+    public ProgresoSeccion() {
+    }
+
+    public ProgresoSeccion(int ultimoPaso, Set<Integer> completados, long actualizadoEn) {
+        this.ultimoPaso = ultimoPaso;
+        this.completados.addAll(completados);
+        this.actualizadoEn = actualizadoEn;
+    }
+
+    public int getUltimoPaso() {
+        return ultimoPaso;
+    }
+
+    public Set<Integer> getCompletados() {
+        return Collections.unmodifiableSet(completados);
+    }
+
+    public long getActualizadoEn() {
+        return actualizadoEn;
+    }
+
+    /**
+     * @return true si el valor ha cambiado.
+     */
+    public boolean marcarUltimoPaso(int orden, long ahora) {
+        if (ultimoPaso == orden)
+            return false;
+        ultimoPaso = orden;
+        actualizadoEn = ahora;
+        return true;
+    }
+
+    /**
+     * @return true si el paso no estaba ya completado.
+     */
+    public boolean marcarCompletado(int orden, long ahora) {
+        if (!completados.add(orden))
+            return false;
+        actualizadoEn = ahora;
+        return true;
+    }
+
+    /**
+     * Incorpora el progreso guardado en otro dispositivo: los pasos completados se
+     * suman y el último paso se toma del registro más reciente.
+     *
+     * @return true si el progreso local ha cambiado.
+     */
+    public boolean fusionar(ProgresoSeccion otro) {
+        boolean cambiado = completados.addAll(otro.completados);
+        if (otro.actualizadoEn > actualizadoEn) {
+            cambiado |= ultimoPaso != otro.ultimoPaso;
+            ultimoPaso = otro.ultimoPaso;
+            actualizadoEn = otro.actualizadoEn;
+        }
+        return cambiado;
+    }
+}
@@ -43,4 +43,12 @@ public class Texto {
     public void setClaveTexto(String claveTexto) {
         this.claveTexto = claveTexto;
     }
+
+    public void setEs(String es) {
+        this.es = es;
+    }
+
+    public void setEn(String en) {
+        this.en = en;
+    }
 }
\ No newline at end of file
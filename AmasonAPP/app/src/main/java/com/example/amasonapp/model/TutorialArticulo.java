@@ -20,6 +20,27 @@ public class TutorialArticulo {
     // Nombre del recurso de imagen asociado (ubicado en res/drawable)
     private String imagenNombre;
 
+    // Ruta de la imagen en Firebase Storage (ej: "tutoriales/ftp/paso_01.png").
+    // Si está informada tiene prioridad sobre el recurso empaquetado.
+    private String imagenRuta;
+
+    // Huella SHA-256 (hexadecimal) del contenido de la imagen remota.
+    // Se usa como clave de la caché en disco: capturas idénticas se descargan una vez.
+    private String imagenHash;
+
+    // Dimensiones de la imagen en píxeles, calculadas al publicar el contenido.
+    // Permiten maquetar la tarjeta a su tamaño final antes de decodificar nada.
+    private int imagenAncho;
+    private int imagenAlto;
+
+    // Marcador de posición mientras carga la imagen: color medio ("#RRGGBB")
+    // y BlurHash compacto (unos 20-30 caracteres)
+    private String imagenColor;
+    private String imagenBlurHash;
+
+    // Colección de la sección a la que pertenece (solo en el catálogo unificado)
+    private String seccion;
+
     /**
      * Constructor por defecto necesario para la deserialización de Firestore.
      */
@@ -44,6 +65,34 @@ public class TutorialArticulo {
         return imagenNombre;
     }
 
+    public String getImagenRuta() {
+        return imagenRuta;
+    }
+
+    public String getImagenHash() {
+        return imagenHash;
+    }
+
+    public int getImagenAncho() {
+        return imagenAncho;
+    }
+
+    public int getImagenAlto() {
+        return imagenAlto;
+    }
+
+    public String getImagenColor() {
+        return imagenColor;
+    }
+
+    public String getImagenBlurHash() {
+        return imagenBlurHash;
+    }
+
+    public String getSeccion() {
+        return seccion;
+    }
+
     public void setOrden(int orden) {
         this.orden = orden;
     }
@@ -60,6 +109,52 @@ public class TutorialArticulo {
         this.imagenNombre = imagenNombre;
     }
 
+    public void setImagenRuta(String imagenRuta) {
+        this.imagenRuta = imagenRuta;
+    }
+
+    public void setImagenHash(String imagenHash) {
+        this.imagenHash = imagenHash;
+    }
+
+    public void setImagenAncho(int imagenAncho) {
+        this.imagenAncho = imagenAncho;
+    }
+
+    public void setImagenAlto(int imagenAlto) {
+        this.imagenAlto = imagenAlto;
+    }
+
+    public void setImagenColor(String imagenColor) {
+        this.imagenColor = imagenColor;
+    }
+
+    public void setImagenBlurHash(String imagenBlurHash) {
+        this.imagenBlurHash = imagenBlurHash;
+    }
+
+    public void setSeccion(String seccion) {
+        this.seccion = seccion;
+    }
+
+    /**
+     * @return true si se conocen las dimensiones de la imagen.
+     */
+    public boolean tieneDimensiones() {
+        return imagenAncho > 0 && imagenAlto > 0;
+    }
+
+    /**
+     * Indica si el paso referencia una imagen alojada en Firebase Storage.
+     * Solo se considera remota cuando llegan tanto la ruta como la huella.
+     *
+     * @return true si la imagen debe obtenerse de la caché remota.
+     */
+    public boolean tieneImagenRemota() {
+        return imagenRuta != null && !imagenRuta.isEmpty()
+                && imagenHash != null && !imagenHash.isEmpty();
+    }
+
     /**
      * Helper para obtener el texto descriptivo según el idioma de la aplicación.
      * 
@@ -0,0 +1,360 @@
+package com.example.amasonapp.startup;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ORQUESTADOR DEL ARRANQUE DE PANTALLAS
+ *
+ * Permite declarar las tareas de inicialización de una actividad junto con sus
+ * dependencias y un plazo máximo para cada una. Las tareas independientes se
+ * ejecutan en paralelo (en segundo plano o en el hilo principal, según se
+ * declare) y cada una arranca en cuanto terminan aquellas de las que depende.
+ *
+ * Si una tarea supera su plazo se da por caducada y el arranque continúa sin
+ * ella; la UI recibe en el hilo principal el estado de cada tarea y una señal
+ * final cuando todas han terminado, de forma que puede pintarse en función de
+ * lo que ya está listo en vez de esperar a todo en serie.
+ *
+ * Caducar no es fallar: si la tarea termina más tarde, se notifica de nuevo su
+ * estado y se lanzan entonces las tareas que dependían de ella (que mientras
+ * tanto constan también como caducadas). Así un arranque en frío lento solo
+ * retrasa, por ejemplo, la escucha de textos en vez de anularla.
+ */
+public class OrquestadorArranque {
+
+    private static final String TAG = "Arranque";
+
+    /**
+     * Estados por los que pasa cada tarea.
+     */
+    public enum Estado {
+        PENDIENTE,
+        EN_CURSO,
+        COMPLETADA,
+        FALLIDA,
+        CADUCADA;
+
+        public boolean esFinal() {
+            return this == COMPLETADA || this == FALLIDA || this == CADUCADA;
+        }
+    }
+
+    /**
+     * Trabajo de una tarea. Puede terminar de forma síncrona o más tarde (por
+     * ejemplo, al recibir la primera respuesta de Firestore) llamando al
+     * finalizador recibido.
+     */
+    public interface Trabajo {
+        void ejecutar(Finalizador finalizador) throws Exception;
+    }
+
+    public interface Finalizador {
+        /**
+         * Marca la tarea como completada con éxito.
+         */
+        void completar();
+
+        /**
+         * Marca la tarea como fallida.
+         *
+         * @param e Causa del fallo.
+         */
+        void fallar(Exception e);
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // CALLBACK: Señales de disponibilidad para la UI (siempre en el hilo principal)
+    // -----------------------------------------------------------------------------------------
+
+    public interface OyenteArranque {
+        /**
+         * Se ejecuta cada vez que una tarea termina, con éxito o no.
+         *
+         * @param nombre Nombre de la tarea.
+         * @param estado Estado final (COMPLETADA, FALLIDA o CADUCADA).
+         */
+        void onTareaFinalizada(String nombre, Estado estado);
+
+        /**
+         * Se ejecuta una sola vez cuando todas las tareas han terminado.
+         *
+         * @param estados Estado final de cada tarea.
+         */
+        void onArranqueCompletado(Map<String, Estado> estados);
+    }
+
+    /**
+     * Nodo del grafo de tareas con su estado de ejecución.
+     */
+    private static class Nodo {
+        final String nombre;
+        final long plazoMs;
+        final boolean enHiloPrincipal;
+        final Trabajo trabajo;
+        final String[] dependencias;
+        // Las transiciones de estado se sincronizan sobre el propio nodo
+        volatile Estado estado = Estado.PENDIENTE;
+        // Caducada sin haberse lanzado: arrancará si sus dependencias terminan tarde
+        boolean esperaDependencias;
+        // Solo se toca en el hilo principal: la UI ya ha recibido el final de la tarea
+        boolean notificado;
+        long inicio;
+        Runnable vencimiento;
+
+        Nodo(String nombre, long plazoMs, boolean enHiloPrincipal, Trabajo trabajo, String[] dependencias) {
+            this.nombre = nombre;
+            this.plazoMs = plazoMs;
+            this.enHiloPrincipal = enHiloPrincipal;
+            this.trabajo = trabajo;
+            this.dependencias = dependencias;
+        }
+    }
+
+    private final Map<String, Nodo> nodos = new LinkedHashMap<>();
+    private final Handler hiloPrincipal = new Handler(Looper.getMainLooper());
+    private final ExecutorService ejecutor = Executors.newFixedThreadPool(3);
+    private final long inicioArranque = SystemClock.elapsedRealtime();
+
+    private OyenteArranque oyente;
+    private boolean iniciado;
+    private boolean cancelado;
+    private boolean completadoNotificado;
+
+    // -----------------------------------------------------------------------------------------
+    // DECLARACIÓN DE TAREAS
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Declara una tarea que se ejecuta en un hilo de fondo.
+     *
+     * @param nombre       Identificador único de la tarea.
+     * @param plazoMs      Tiempo máximo antes de darla por caducada.
+     * @param trabajo      Código a ejecutar.
+     * @param dependencias Tareas que deben completarse antes.
+     * @return El propio orquestador, para encadenar declaraciones.
+     */
+    public OrquestadorArranque enSegundoPlano(String nombre, long plazoMs, Trabajo trabajo, String... dependencias) {
+        return agregar(new Nodo(nombre, plazoMs, false, trabajo, dependencias));
+    }
+
+    /**
+     * Declara una tarea que debe ejecutarse en el hilo principal (acceso a vistas).
+     *
+     * @param nombre       Identificador único de la tarea.
+     * @param plazoMs      Tiempo máximo antes de darla por caducada.
+     * @param trabajo      Código a ejecutar.
+     * @param dependencias Tareas que deben completarse antes.
+     * @return El propio orquestador, para encadenar declaraciones.
+     */
+    public OrquestadorArranque enHiloPrincipal(String nombre, long plazoMs, Trabajo trabajo, String... dependencias) {
+        return agregar(new Nodo(nombre, plazoMs, true, trabajo, dependencias));
+    }
+
+    private OrquestadorArranque agregar(Nodo nodo) {
+        if (iniciado) {
+            throw new IllegalStateException("No se pueden añadir tareas tras iniciar el arranque");
+        }
+        if (nodos.containsKey(nodo.nombre)) {
+            throw new IllegalArgumentException("Tarea de arranque duplicada: " + nodo.nombre);
+        }
+        nodos.put(nodo.nombre, nodo);
+        return this;
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // EJECUCIÓN
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Lanza todas las tareas sin dependencias. Debe llamarse desde el hilo
+     * principal, normalmente al final de onCreate.
+     *
+     * @param oyente Receptor de las señales de disponibilidad (puede ser null).
+     */
+    public void iniciar(OyenteArranque oyente) {
+        if (iniciado)
+            return;
+        for (Nodo nodo : nodos.values()) {
+            for (String dependencia : nodo.dependencias) {
+                if (!nodos.containsKey(dependencia)) {
+                    throw new IllegalStateException(
+                            "La tarea " + nodo.nombre + " depende de una tarea inexistente: " + dependencia);
+                }
+            }
+        }
+
+        this.oyente = oyente;
+        this.iniciado = true;
+        for (Nodo nodo : nodos.values()) {
+            if (nodo.dependencias.length == 0) {
+                lanzar(nodo);
+            }
+        }
+        comprobarFinArranque();
+    }
+
+    /**
+     * Consulta si una tarea ha terminado correctamente.
+     *
+     * @param nombre Nombre de la tarea.
+     * @return true si su estado es COMPLETADA.
+     */
+    public boolean estaLista(String nombre) {
+        Nodo nodo = nodos.get(nombre);
+        return nodo != null && nodo.estado == Estado.COMPLETADA;
+    }
+
+    /**
+     * Deja de notificar a la UI y detiene los hilos de fondo. Se llama cuando la
+     * actividad se destruye antes de que el arranque haya terminado.
+     */
+    public void cancelar() {
+        cancelado = true;
+        oyente = null;
+        hiloPrincipal.removeCallbacksAndMessages(null);
+        ejecutor.shutdownNow();
+    }
+
+    private void lanzar(Nodo nodo) {
+        synchronized (nodo) {
+            nodo.estado = Estado.EN_CURSO;
+        }
+        nodo.inicio = SystemClock.elapsedRealtime();
+
+        // Programamos el plazo máximo de la tarea
+        nodo.vencimiento = () -> finalizar(nodo, Estado.CADUCADA, null);
+        hiloPrincipal.postDelayed(nodo.vencimiento, nodo.plazoMs);
+
+        Finalizador finalizador = new Finalizador() {
+            @Override
+            public void completar() {
+                finalizar(nodo, Estado.COMPLETADA, null);
+            }
+
+            @Override
+            public void fallar(Exception e) {
+                finalizar(nodo, Estado.FALLIDA, e);
+            }
+        };
+
+        Runnable ejecucion = () -> {
+            try {
+                nodo.trabajo.ejecutar(finalizador);
+            } catch (Exception e) {
+                finalizador.fallar(e);
+            }
+        };
+
+        if (nodo.enHiloPrincipal) {
+            hiloPrincipal.post(ejecucion);
+        } else {
+            ejecutor.execute(ejecucion);
+        }
+    }
+
+    /**
+     * Registra el final de una tarea y, ya en el hilo principal, notifica a la UI
+     * y arranca las tareas que dependían de ella. Solo cuenta el primer final,
+     * salvo que fuera por caducidad: entonces aún se acepta el resultado real.
+     */
+    private void finalizar(Nodo nodo, Estado estado, Exception error) {
+        boolean tardio;
+        synchronized (nodo) {
+            tardio = nodo.estado == Estado.CADUCADA;
+            if (nodo.estado.esFinal() && (!tardio || estado == Estado.CADUCADA))
+                return;
+            nodo.estado = estado;
+        }
+
+        long duracion = SystemClock.elapsedRealtime() - nodo.inicio;
+        if (tardio) {
+            Log.i(TAG, nodo.nombre + " " + estado + " tras caducar (" + duracion + " ms)", error);
+        } else if (estado == Estado.COMPLETADA) {
+            Log.d(TAG, nodo.nombre + " completada en " + duracion + " ms");
+        } else {
+            Log.w(TAG, nodo.nombre + " " + estado + " tras " + duracion + " ms", error);
+        }
+
+        hiloPrincipal.post(() -> {
+            if (cancelado)
+                return;
+            if (nodo.vencimiento != null) {
+                hiloPrincipal.removeCallbacks(nodo.vencimiento);
+            }
+            nodo.notificado = true;
+            if (oyente != null) {
+                oyente.onTareaFinalizada(nodo.nombre, estado);
+            }
+            lanzarDependientes();
+            comprobarFinArranque();
+        });
+    }
+
+    private void lanzarDependientes() {
+        for (Nodo candidato : nodos.values()) {
+            boolean pendiente = candidato.estado == Estado.PENDIENTE;
+            if (!pendiente && !candidato.esperaDependencias)
+                continue;
+
+            boolean todasFinalizadas = true;
+            boolean todasCompletadas = true;
+            boolean algunaFallida = false;
+            for (String dependencia : candidato.dependencias) {
+                Estado estadoDependencia = nodos.get(dependencia).estado;
+                todasFinalizadas &= estadoDependencia.esFinal();
+                todasCompletadas &= estadoDependencia == Estado.COMPLETADA;
+                algunaFallida |= estadoDependencia == Estado.FALLIDA;
+            }
+
+            if (todasCompletadas) {
+                candidato.esperaDependencias = false;
+                lanzar(candidato);
+            } else if (algunaFallida && todasFinalizadas) {
+                // Alguna dependencia falló: la tarea no puede ejecutarse
+                candidato.esperaDependencias = false;
+                candidato.inicio = SystemClock.elapsedRealtime();
+                finalizar(candidato, Estado.FALLIDA,
+                        new IllegalStateException("Dependencias no disponibles para " + candidato.nombre));
+            } else if (todasFinalizadas && pendiente) {
+                // Alguna dependencia caducó: la tarea también consta como caducada,
+                // pero se lanzará si la dependencia termina más tarde
+                candidato.esperaDependencias = true;
+                candidato.inicio = SystemClock.elapsedRealtime();
+                finalizar(candidato, Estado.CADUCADA, null);
+            }
+        }
+    }
+
+    private void comprobarFinArranque() {
+        Map<String, Estado> estados = new HashMap<>();
+        boolean hayCaducadas = false;
+        for (Nodo nodo : nodos.values()) {
+            if (!nodo.notificado || nodo.estado == Estado.EN_CURSO)
+                return;
+            estados.put(nodo.nombre, nodo.estado);
+            hayCaducadas |= nodo.estado == Estado.CADUCADA;
+        }
+
+        // Con tareas caducadas los hilos siguen disponibles por si terminan tarde
+        if (!hayCaducadas) {
+            ejecutor.shutdown();
+        }
+        if (completadoNotificado)
+            return;
+        completadoNotificado = true;
+        Log.d(TAG, "Arranque completado en " + (SystemClock.elapsedRealtime() - inicioArranque) + " ms");
+        if (oyente != null) {
+            oyente.onArranqueCompletado(Collections.unmodifiableMap(estados));
+        }
+    }
+}
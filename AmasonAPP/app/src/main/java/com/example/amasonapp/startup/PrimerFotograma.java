@@ -0,0 +1,107 @@
+package com.example.amasonapp.startup;
+
+import android.app.Activity;
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * TIEMPO HASTA EL PRIMER FOTOGRAMA
+ *
+ * Mide, en el arranque en frío, cuánto pasa desde que el sistema crea el
+ * proceso hasta que la primera pantalla dibuja su primer fotograma, junto con
+ * el tiempo de inicialización de SDK que se pagó en el hilo principal hasta
+ * entonces (los SDK los crean en segundo plano las tareas de arranque de cada
+ * pantalla, así que debería ser cero).
+ *
+ * El resultado se escribe en el log y se envía a Analytics
+ * ("arranque_primer_fotograma") para comparar versiones. Si la pantalla fija un
+ * objetivo, se anota también si se cumplió y si el dispositivo es de gama baja
+ * (memoria reducida), que es la clase para la que se fijan los objetivos.
+ */
+public final class PrimerFotograma {
+
+    private static final String TAG = "PrimerFotograma";
+
+    // Solo cuenta la primera pantalla del proceso
+    private static final AtomicBoolean medido = new AtomicBoolean();
+
+    private PrimerFotograma() {
+    }
+
+    /**
+     * Vigila el primer dibujado de la actividad. Se llama en onCreate, tras
+     * setContentView.
+     *
+     * @param actividad Pantalla que se está creando.
+     * @param pantalla  Nombre con el que se anota la medida.
+     */
+    public static void vigilar(Activity actividad, String pantalla) {
+        vigilar(actividad, pantalla, 0);
+    }
+
+    /**
+     * Igual que {@link #vigilar(Activity, String)}, comparando la medida con un
+     * objetivo. Superarlo en un dispositivo de gama baja se avisa en el log.
+     *
+     * @param objetivoMs Tiempo máximo aceptable hasta el primer fotograma (0 = sin objetivo).
+     */
+    public static void vigilar(Activity actividad, String pantalla, long objetivoMs) {
+        if (medido.get())
+            return;
+
+        View decor = actividad.getWindow().getDecorView();
+        Handler hiloPrincipal = new Handler(Looper.getMainLooper());
+        decor.getViewTreeObserver().addOnDrawListener(new ViewTreeObserver.OnDrawListener() {
+            @Override
+            public void onDraw() {
+                if (!medido.compareAndSet(false, true))
+                    return;
+                // No se puede retirar el listener durante el dibujado; el fotograma se
+                // da por presentado cuando el hilo principal vuelve a quedar libre
+                hiloPrincipal.post(() -> decor.getViewTreeObserver().removeOnDrawListener(this));
+                hiloPrincipal.postAtFrontOfQueue(() -> registrar(actividad.getApplicationContext(), pantalla, objetivoMs));
+            }
+        });
+    }
+
+    private static void registrar(Context context, String pantalla, long objetivoMs) {
+        long ttff = SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+        long sdkPrincipal = ServiciosFirebase.getMsHiloPrincipal();
+        boolean gamaBaja = esGamaBaja(context);
+        Log.i(TAG, pantalla + ": primer fotograma a los " + ttff + " ms del inicio del proceso ("
+                + sdkPrincipal + " ms de inicialización de SDK en el hilo principal)");
+        if (objetivoMs > 0 && gamaBaja && ttff > objetivoMs) {
+            Log.w(TAG, pantalla + ": supera el objetivo de " + objetivoMs + " ms en gama baja");
+        }
+
+        // Analytics se crea ya en segundo plano; el envío no toca el hilo principal
+        new Thread(() -> {
+            Bundle parametros = new Bundle();
+            parametros.putString("pantalla", pantalla);
+            parametros.putLong("ttff_ms", ttff);
+            parametros.putLong("sdk_hilo_principal_ms", sdkPrincipal);
+            parametros.putLong("gama_baja", gamaBaja ? 1 : 0);
+            if (objetivoMs > 0) {
+                parametros.putLong("objetivo_ms", objetivoMs);
+                parametros.putLong("objetivo_cumplido", ttff <= objetivoMs ? 1 : 0);
+            }
+            ServiciosFirebase.analytics().logEvent("arranque_primer_fotograma", parametros);
+        }, "PrimerFotograma").start();
+    }
+
+    // Dispositivos con poca memoria (Android Go y similares): la peor clase que soportamos
+    private static boolean esGamaBaja(Context context) {
+        ActivityManager am = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        return am != null && am.isLowRamDevice();
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.amasonapp.startup;
+
+import android.content.Context;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.amasonapp.R;
+import com.google.android.gms.auth.api.signin.GoogleSignIn;
+import com.google.android.gms.auth.api.signin.GoogleSignInClient;
+import com.google.android.gms.auth.api.signin.GoogleSignInOptions;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.analytics.FirebaseAnalytics;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.storage.FirebaseStorage;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * ACCESO PEREZOSO A FIREBASE Y GOOGLE SIGN-IN
+ *
+ * Punto único por el que la app obtiene los SDK. El proveedor de contenido con
+ * el que Firebase se inicializa al arrancar el proceso está desactivado en el
+ * manifiesto, así que nada se crea antes de hacer falta:
+ *
+ * 1. Cada servicio (y FirebaseApp, la primera vez) se crea al pedirlo, una sola
+ *    vez y de forma segura entre hilos.
+ * 2. Las tareas de arranque de cada pantalla (ver {@link OrquestadorArranque})
+ *    piden Firestore, Auth y el cliente de Google en segundo plano mientras se
+ *    construye la interfaz.
+ *
+ * Se anota cuánto tiempo de inicialización cae en el hilo principal y cuánto
+ * en segundo plano, para comprobar con {@link PrimerFotograma} que el arranque
+ * ya no lo paga.
+ */
+public final class ServiciosFirebase {
+
+    private static final String TAG = "ServiciosFirebase";
+
+    private static volatile Context contexto;
+    private static volatile boolean appLista;
+
+    // Nanosegundos dedicados a crear SDK en el hilo principal y fuera de él
+    private static final AtomicLong nanosHiloPrincipal = new AtomicLong();
+    private static final AtomicLong nanosSegundoPlano = new AtomicLong();
+
+    private static final Perezoso<FirebaseFirestore> FIRESTORE =
+            new Perezoso<>("Firestore", FirebaseFirestore::getInstance);
+    private static final Perezoso<FirebaseAuth> AUTH =
+            new Perezoso<>("Auth", FirebaseAuth::getInstance);
+    private static final Perezoso<FirebaseStorage> STORAGE =
+            new Perezoso<>("Storage", FirebaseStorage::getInstance);
+    private static final Perezoso<FirebaseAnalytics> ANALYTICS =
+            new Perezoso<>("Analytics", () -> FirebaseAnalytics.getInstance(contexto));
+    private static final Perezoso<GoogleSignInClient> GOOGLE = new Perezoso<>("GoogleSignIn", () -> {
+        // Solicitamos el ID Token para autenticar posteriormente en Firebase
+        GoogleSignInOptions opciones = new GoogleSignInOptions.Builder(GoogleSignInOptions.DEFAULT_SIGN_IN)
+                .requestIdToken(contexto.getString(R.string.default_web_client_id))
+                .requestEmail()
+                .build();
+        return GoogleSignIn.getClient(contexto, opciones);
+    });
+
+    private ServiciosFirebase() {
+    }
+
+    /**
+     * Guarda el contexto de la aplicación. Se llama en Application.onCreate y no
+     * inicializa nada.
+     */
+    public static void instalar(Context context) {
+        contexto = context.getApplicationContext();
+    }
+
+    public static FirebaseFirestore firestore() {
+        return FIRESTORE.obtener();
+    }
+
+    public static FirebaseAuth auth() {
+        return AUTH.obtener();
+    }
+
+    public static FirebaseStorage storage() {
+        return STORAGE.obtener();
+    }
+
+    public static FirebaseAnalytics analytics() {
+        return ANALYTICS.obtener();
+    }
+
+    public static GoogleSignInClient google() {
+        return GOOGLE.obtener();
+    }
+
+    /**
+     * @return Milisegundos de inicialización de SDK pagados en el hilo principal.
+     */
+    public static long getMsHiloPrincipal() {
+        return nanosHiloPrincipal.get() / 1_000_000;
+    }
+
+    /**
+     * @return Milisegundos de inicialización de SDK hechos en segundo plano.
+     */
+    public static long getMsSegundoPlano() {
+        return nanosSegundoPlano.get() / 1_000_000;
+    }
+
+    /**
+     * Inicializa FirebaseApp con la configuración de google-services la primera vez.
+     */
+    private static void asegurarApp() {
+        if (appLista)
+            return;
+        synchronized (ServiciosFirebase.class) {
+            if (appLista)
+                return;
+            if (contexto == null) {
+                throw new IllegalStateException("ServiciosFirebase.instalar() no se ha llamado");
+            }
+            if (FirebaseApp.getApps(contexto).isEmpty() && FirebaseApp.initializeApp(contexto) == null) {
+                Log.w(TAG, "No se encontró la configuración de Firebase");
+            }
+            appLista = true;
+        }
+    }
+
+    /**
+     * Servicio que se crea en su primer uso y se mide.
+     */
+    private static final class Perezoso<T> {
+        private final String nombre;
+        private final Supplier<T> fabrica;
+        private volatile T valor;
+
+        Perezoso(String nombre, Supplier<T> fabrica) {
+            this.nombre = nombre;
+            this.fabrica = fabrica;
+        }
+
+        T obtener() {
+            T actual = valor;
+            if (actual != null)
+                return actual;
+            synchronized (this) {
+                if (valor == null) {
+                    long inicio = System.nanoTime();
+                    asegurarApp();
+                    valor = fabrica.get();
+                    long duracion = System.nanoTime() - inicio;
+                    boolean principal = Looper.myLooper() == Looper.getMainLooper();
+                    (principal ? nanosHiloPrincipal : nanosSegundoPlano).addAndGet(duracion);
+                    Log.d(TAG, nombre + " creado en " + duracion / 1_000_000 + " ms"
+                            + (principal ? " (hilo principal)" : ""));
+                }
+                return valor;
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.amasonapp.telemetria;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.util.Log;
+
+import com.example.amasonapp.data.Secciones;
+import com.example.amasonapp.startup.ServiciosFirebase;
+import com.google.firebase.analytics.FirebaseAnalytics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * REGISTRO LOCAL DE USO DE LOS TUTORIALES
+ *
+ * Anota qué secciones se abren, qué pasos llegan a verse y cuándo se cambia de
+ * idioma, sin coste apreciable para la UI:
+ *
+ * 1. Cada evento se codifica en un único long y se escribe en un buffer circular
+ *    de tamaño fijo sin bloqueos (varios hilos pueden registrar a la vez; si el
+ *    buffer se llena se sobrescriben los eventos más antiguos).
+ * 2. Un hilo de fondo vuelca periódicamente el buffer a un archivo local, de
+ *    tamaño limitado: lo que no cabe se cuenta como perdido.
+ * 3. Con menor frecuencia, el archivo se resume por (tipo, sección, paso) y se
+ *    envía a Firebase Analytics en un lote, nunca evento a evento. La mayoría
+ *    de las sesiones duran menos que ese intervalo, así que al arrancar se
+ *    envía también lo que dejaron las sesiones anteriores.
+ */
+public class RegistroUso {
+
+    private static final String TAG = "RegistroUso";
+
+    // --- Tipos de evento ---
+    public static final int SECCION_ABIERTA = 1;
+    public static final int PASO_VISIBLE = 2;
+    public static final int IDIOMA_CAMBIADO = 3;
+
+    // Capacidad del buffer circular (potencia de dos)
+    private static final int CAPACIDAD = 1024;
+    private static final int MASCARA = CAPACIDAD - 1;
+
+    // Frecuencias de volcado a disco y de envío a Analytics
+    private static final long VOLCADO_SEGUNDOS = 30;
+    private static final long ENVIO_MINUTOS = 15;
+
+    // Retardo del envío de lo pendiente de sesiones anteriores (fuera del arranque en frío)
+    private static final long ENVIO_PENDIENTE_SEGUNDOS = 10;
+
+    private static final String ARCHIVO = "telemetria_uso.bin";
+    // Tamaño máximo del archivo local (8 bytes por evento: unos 32.000 eventos)
+    private static final long BYTES_MAXIMOS_ARCHIVO = 256 * 1024;
+
+    private static volatile RegistroUso instancia;
+
+    // Evento codificado de cada hueco y secuencia publicada (+1) en ese hueco
+    private final AtomicLongArray eventos = new AtomicLongArray(CAPACIDAD);
+    private final AtomicLongArray publicados = new AtomicLongArray(CAPACIDAD);
+    private final AtomicLong siguiente = new AtomicLong();
+    private final AtomicLong perdidos = new AtomicLong();
+
+    // Próxima secuencia a volcar (solo la toca el hilo de volcado)
+    private long leido;
+
+    private final File archivo;
+    private final Context context;
+    private final ScheduledExecutorService ejecutor = Executors.newSingleThreadScheduledExecutor();
+
+    private RegistroUso(Context context) {
+        this.context = context;
+        this.archivo = new File(context.getFilesDir(), ARCHIVO);
+        ejecutor.scheduleWithFixedDelay(this::volcarADisco, VOLCADO_SEGUNDOS, VOLCADO_SEGUNDOS, TimeUnit.SECONDS);
+        ejecutor.schedule(this::enviar, ENVIO_PENDIENTE_SEGUNDOS, TimeUnit.SECONDS);
+        ejecutor.scheduleWithFixedDelay(this::enviar, ENVIO_MINUTOS, ENVIO_MINUTOS, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @param context Cualquier contexto; se usa el de la aplicación.
+     * @return Registro único del proceso.
+     */
+    public static RegistroUso getInstance(Context context) {
+        if (instancia == null) {
+            synchronized (RegistroUso.class) {
+                if (instancia == null) {
+                    instancia = new RegistroUso(context.getApplicationContext());
+                }
+            }
+        }
+        return instancia;
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // REGISTRO DE EVENTOS (cualquier hilo, sin bloqueos ni E/S)
+    // -----------------------------------------------------------------------------------------
+
+    // El idioma activo se anota al capturar el evento: al enviarlo ya puede ser otro
+    public void seccionAbierta(String coleccion, String idioma) {
+        registrar(SECCION_ABIERTA, Secciones.indiceDe(coleccion), 0, idioma);
+    }
+
+    public void pasoVisible(String coleccion, int orden, String idioma) {
+        registrar(PASO_VISIBLE, Secciones.indiceDe(coleccion), orden, idioma);
+    }
+
+    public void idiomaCambiado(String idioma) {
+        registrar(IDIOMA_CAMBIADO, -1, 0, idioma);
+    }
+
+    private void registrar(int tipo, int seccion, int paso, String idioma) {
+        long codificado = codificar(tipo, seccion, paso, "en".equals(idioma), System.currentTimeMillis());
+        long secuencia = siguiente.getAndIncrement();
+        int hueco = (int) (secuencia & MASCARA);
+        eventos.set(hueco, codificado);
+        // Publicamos después de escribir: el lector solo acepta el hueco si coincide
+        publicados.set(hueco, secuencia + 1);
+    }
+
+    /**
+     * Formato del evento (60 bits): tipo(2) | sección+1(4) | paso(12) | idioma(1) | instante ms(41).
+     */
+    static long codificar(int tipo, int seccion, int paso, boolean ingles, long instante) {
+        return ((long) (tipo & 0x3) << 58)
+                | ((long) ((seccion + 1) & 0xF) << 54)
+                | ((long) Math.min(Math.max(paso, 0), 0xFFF) << 42)
+                | ((ingles ? 1L : 0L) << 41)
+                | (instante & 0x1FFFFFFFFFFL);
+    }
+
+    static int tipoDe(long evento) {
+        return (int) (evento >>> 58) & 0x3;
+    }
+
+    static int seccionDe(long evento) {
+        return ((int) (evento >>> 54) & 0xF) - 1;
+    }
+
+    static int pasoDe(long evento) {
+        return (int) (evento >>> 42) & 0xFFF;
+    }
+
+    static boolean esIngles(long evento) {
+        return ((evento >>> 41) & 1L) == 1L;
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // VOLCADO Y ENVÍO (hilo de fondo)
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Solicita un volcado inmediato (por ejemplo, cuando la app pasa a segundo plano).
+     */
+    public void volcar() {
+        ejecutor.execute(this::volcarADisco);
+    }
+
+    private void volcarADisco() {
+        long hasta = siguiente.get();
+        if (hasta - leido > CAPACIDAD) {
+            // El buffer dio la vuelta: los más antiguos ya se sobrescribieron
+            perdidos.addAndGet(hasta - leido - CAPACIDAD);
+            leido = hasta - CAPACIDAD;
+        }
+        if (leido == hasta)
+            return;
+
+        // Sin envíos (por ejemplo, sin Analytics) el archivo no crece sin límite
+        long huecosLibres = Math.max(0, (BYTES_MAXIMOS_ARCHIVO - archivo.length()) / Long.BYTES);
+        try (DataOutputStream salida = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(archivo, true)))) {
+            for (; leido < hasta; leido++) {
+                int hueco = (int) (leido & MASCARA);
+                if (publicados.get(hueco) != leido + 1) {
+                    // Hueco aún sin publicar (o ya reescrito): se reintenta en el siguiente volcado
+                    break;
+                }
+                if (huecosLibres == 0) {
+                    perdidos.incrementAndGet();
+                    continue;
+                }
+                salida.writeLong(eventos.get(hueco));
+                huecosLibres--;
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "No se pudo volcar la telemetría", e);
+        }
+    }
+
+    /**
+     * Resume el archivo local y lo envía a Analytics como un lote de eventos
+     * agregados; después lo vacía.
+     */
+    private void enviar() {
+        volcarADisco();
+        if (!archivo.exists() || archivo.length() == 0)
+            return;
+
+        Map<Long, Integer> conteos = new HashMap<>();
+        try (DataInputStream entrada = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(archivo)))) {
+            while (true) {
+                long evento = entrada.readLong();
+                // Agrupamos sin el instante: tipo, sección, paso e idioma
+                long clave = evento >>> 41;
+                conteos.merge(clave, 1, Integer::sum);
+            }
+        } catch (EOFException fin) {
+            // Fin del archivo
+        } catch (IOException e) {
+            Log.w(TAG, "No se pudo leer la telemetría", e);
+            return;
+        }
+
+        FirebaseAnalytics analytics = ServiciosFirebase.analytics();
+        for (Map.Entry<Long, Integer> conteo : conteos.entrySet()) {
+            long evento = conteo.getKey() << 41;
+            Bundle parametros = new Bundle();
+            String seccion = Secciones.coleccionEn(seccionDe(evento));
+            if (seccion != null) {
+                parametros.putString("seccion", seccion);
+            }
+            parametros.putLong("paso", pasoDe(evento));
+            parametros.putString("idioma", esIngles(evento) ? "en" : "es");
+            parametros.putLong("veces", conteo.getValue());
+            analytics.logEvent(nombreEvento(tipoDe(evento)), parametros);
+        }
+        if (perdidos.get() > 0) {
+            Bundle parametros = new Bundle();
+            parametros.putLong("veces", perdidos.getAndSet(0));
+            analytics.logEvent("telemetria_eventos_perdidos", parametros);
+        }
+
+        if (!archivo.delete()) {
+            Log.w(TAG, "No se pudo vaciar el archivo de telemetría");
+        }
+    }
+
+    private static String nombreEvento(int tipo) {
+        switch (tipo) {
+            case SECCION_ABIERTA:
+                return "tutorial_seccion_abierta";
+            case PASO_VISIBLE:
+                return "tutorial_paso_visible";
+            default:
+                return "tutorial_idioma_cambiado";
+        }
+    }
+}
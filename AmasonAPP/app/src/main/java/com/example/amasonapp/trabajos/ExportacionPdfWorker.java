@@ -0,0 +1,357 @@
+package com.example.amasonapp.trabajos;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.graphics.pdf.PdfDocument;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.Operation;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.amasonapp.data.ImagenCache;
+import com.example.amasonapp.data.TutorialRepository;
+import com.example.amasonapp.model.TutorialArticulo;
+import com.google.android.gms.tasks.Tasks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EXPORTACIÓN DE UNA SECCIÓN A PDF
+ *
+ * Trabajo en segundo plano que genera un PDF con todos los pasos de una
+ * sección (captura y texto en el idioma activo), una página por paso.
+ *
+ * La memoria está acotada: PdfDocument guarda cada página terminada (con los
+ * píxeles de su captura) hasta writeTo(), así que liberar el bitmap tras
+ * finishPage no adelanta nada. Por eso cada captura se reduce antes de
+ * dibujarla para que todas juntas no pasen de {@link #PRESUPUESTO_CAPTURAS};
+ * con pocas páginas se imprimen a resolución completa y en secciones largas
+ * bajan de resolución en lugar de crecer con el número de pasos. El avance se
+ * publica paso a paso y el archivo queda en la caché (exportaciones/) listo
+ * para compartirse con el FileProvider.
+ */
+public class ExportacionPdfWorker extends Worker {
+
+    private static final String TAG = "ExportacionPdf";
+
+    // Entrada
+    public static final String ENTRADA_COLECCION = "coleccion";
+    public static final String ENTRADA_TITULO = "titulo";
+    public static final String ENTRADA_IDIOMA = "idioma";
+
+    // Avance y resultado
+    public static final String AVANCE_PASO = "paso";
+    public static final String AVANCE_TOTAL = "total";
+    public static final String RESULTADO_RUTA = "ruta";
+
+    // Carpeta (dentro de getCacheDir) compartida por el FileProvider
+    public static final String DIRECTORIO = "exportaciones";
+
+    // Página A4 en puntos (1/72 de pulgada) y márgenes
+    private static final int ANCHO_PAGINA = 595;
+    private static final int ALTO_PAGINA = 842;
+    private static final int MARGEN = 40;
+
+    // Resolución a la que se decodifican las capturas para imprimir
+    private static final int PUNTOS_POR_PULGADA = 150;
+
+    // Bytes de píxeles que pueden retener entre todas las páginas del documento
+    private static final long PRESUPUESTO_CAPTURAS = 24L * 1024 * 1024;
+    private static final int BYTES_POR_PIXEL = 2;
+
+    // La captura ocupa como mucho esta fracción del alto útil; el resto es para el texto
+    private static final float FRACCION_IMAGEN = 0.62f;
+
+    private static final long PLAZO_LECTURA_S = 60;
+
+    private final TextPaint pinturaTitulo = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint pinturaTexto = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint pinturaImagen = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    public ExportacionPdfWorker(@NonNull Context context, @NonNull WorkerParameters parametros) {
+        super(context, parametros);
+        pinturaTitulo.setTextSize(16);
+        pinturaTitulo.setTypeface(Typeface.DEFAULT_BOLD);
+        pinturaTitulo.setColor(Color.rgb(0x1F, 0x38, 0x5A));
+        pinturaTexto.setTextSize(12);
+        pinturaTexto.setColor(Color.BLACK);
+    }
+
+    /**
+     * Nombre único de la exportación de una sección en un idioma. Es lo que se
+     * observa para seguir su avance: con la política KEEP el trabajo en curso
+     * puede no ser el de la última petición.
+     */
+    public static String nombreTrabajo(String coleccion, String idioma) {
+        return "exportar_" + coleccion + "_" + idioma;
+    }
+
+    /**
+     * Encola la exportación de una sección. Si ya se está exportando, se
+     * mantiene la que está en curso.
+     *
+     * @param context   Cualquier contexto; se usa el de la aplicación.
+     * @param coleccion Colección de la sección.
+     * @param titulo    Título de la sección en el idioma activo.
+     * @param idioma    Idioma de los textos ("es" o "en").
+     * @return Operación de encolado; su avance se sigue por {@link #nombreTrabajo}.
+     */
+    public static Operation encolar(Context context, String coleccion, String titulo, String idioma) {
+        OneTimeWorkRequest peticion = new OneTimeWorkRequest.Builder(ExportacionPdfWorker.class)
+                .setInputData(new Data.Builder()
+                        .putString(ENTRADA_COLECCION, coleccion)
+                        .putString(ENTRADA_TITULO, titulo)
+                        .putString(ENTRADA_IDIOMA, idioma)
+                        .build())
+                .build();
+        return WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniqueWork(nombreTrabajo(coleccion, idioma), ExistingWorkPolicy.KEEP, peticion);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        String coleccion = getInputData().getString(ENTRADA_COLECCION);
+        String titulo = getInputData().getString(ENTRADA_TITULO);
+        String idioma = getInputData().getString(ENTRADA_IDIOMA);
+        if (coleccion == null)
+            return Result.failure();
+
+        File directorio = new File(getApplicationContext().getCacheDir(), DIRECTORIO);
+        File destino = new File(directorio, coleccion + "_" + idioma + ".pdf");
+        File temporal = new File(directorio, destino.getName() + ".tmp");
+        try {
+            // Con la caché de Firestore la lectura no necesita red
+            List<TutorialArticulo> pasos = Tasks.await(new TutorialRepository().obtenerSeccion(coleccion),
+                    PLAZO_LECTURA_S, TimeUnit.SECONDS);
+            if (!directorio.exists() && !directorio.mkdirs()) {
+                throw new IOException("No se pudo crear la carpeta de exportaciones");
+            }
+
+            // Parte del presupuesto que corresponde a la captura de cada paso
+            long bytesPorCaptura = PRESUPUESTO_CAPTURAS / Math.max(1, pasos.size());
+            PdfDocument documento = new PdfDocument();
+            try {
+                for (int i = 0; i < pasos.size(); i++) {
+                    if (isStopped())
+                        return Result.failure();
+                    dibujarPaso(documento, titulo != null ? titulo : coleccion, pasos.get(i), idioma,
+                            bytesPorCaptura);
+                    setProgressAsync(new Data.Builder()
+                            .putInt(AVANCE_PASO, i + 1)
+                            .putInt(AVANCE_TOTAL, pasos.size())
+                            .build());
+                }
+                try (OutputStream salida = new FileOutputStream(temporal)) {
+                    documento.writeTo(salida);
+                }
+            } finally {
+                documento.close();
+            }
+            if (!temporal.renameTo(destino)) {
+                throw new IOException("No se pudo guardar el PDF");
+            }
+            return Result.success(new Data.Builder().putString(RESULTADO_RUTA, destino.getAbsolutePath()).build());
+        } catch (Exception e) {
+            Log.w(TAG, "No se pudo exportar " + coleccion, e);
+            return Result.failure();
+        } finally {
+            if (temporal.exists()) {
+                temporal.delete();
+            }
+        }
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // MAQUETACIÓN DE LAS PÁGINAS
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Dibuja un paso: título, captura ajustada al ancho útil y texto. Si el texto
+     * no cabe, continúa en páginas siguientes.
+     *
+     * @param bytesCaptura Píxeles que puede retener la captura hasta writeTo().
+     */
+    private void dibujarPaso(PdfDocument documento, String titulo, TutorialArticulo paso, String idioma,
+            long bytesCaptura) {
+        int anchoUtil = ANCHO_PAGINA - 2 * MARGEN;
+        int altoUtil = ALTO_PAGINA - 2 * MARGEN;
+
+        PdfDocument.Page pagina = nuevaPagina(documento);
+        Canvas canvas = pagina.getCanvas();
+        float y = MARGEN - pinturaTitulo.ascent();
+        canvas.drawText(titulo + " · " + paso.getOrden(), MARGEN, y, pinturaTitulo);
+        y += pinturaTitulo.descent() + 12;
+
+        Bitmap captura = decodificarCaptura(paso, anchoUtil, (int) (altoUtil * FRACCION_IMAGEN), bytesCaptura);
+        if (captura != null) {
+            float escala = Math.min((float) anchoUtil / captura.getWidth(),
+                    altoUtil * FRACCION_IMAGEN / captura.getHeight());
+            float ancho = captura.getWidth() * escala;
+            float alto = captura.getHeight() * escala;
+            float x = MARGEN + (anchoUtil - ancho) / 2;
+            canvas.drawBitmap(captura, null, new RectF(x, y, x + ancho, y + alto), pinturaImagen);
+            y += alto + 16;
+        }
+
+        String texto = paso.getTextoSegunIdioma(idioma);
+        StaticLayout layout = StaticLayout.Builder
+                .obtain(texto != null ? texto : "", 0, texto != null ? texto.length() : 0, pinturaTexto, anchoUtil)
+                .setAlignment(Layout.Alignment.ALIGN_NORMAL)
+                .build();
+
+        int linea = 0;
+        while (true) {
+            linea = dibujarLineas(canvas, layout, linea, y, MARGEN + altoUtil);
+            documento.finishPage(pagina);
+            if (linea >= layout.getLineCount())
+                break;
+            pagina = nuevaPagina(documento);
+            canvas = pagina.getCanvas();
+            y = MARGEN;
+        }
+        // La captura no se recicla: la página grabada la sigue referenciando
+    }
+
+    /**
+     * Dibuja las líneas del texto que caben entre y y el límite inferior.
+     *
+     * @return Índice de la primera línea que no ha cabido.
+     */
+    private static int dibujarLineas(Canvas canvas, StaticLayout layout, int desde, float y, float limite) {
+        int hasta = desde;
+        while (hasta < layout.getLineCount()
+                && y + layout.getLineBottom(hasta) - layout.getLineTop(desde) <= limite) {
+            hasta++;
+        }
+        if (hasta == desde) {
+            // Bajo la captura no cabe ni una línea: sigue en la página siguiente,
+            // donde (desde el margen superior) siempre cabe al menos una
+            if (y > MARGEN)
+                return desde;
+            hasta = desde + 1;
+        }
+
+        canvas.save();
+        canvas.translate(MARGEN, y - layout.getLineTop(desde));
+        canvas.clipRect(0, layout.getLineTop(desde), layout.getWidth(), layout.getLineBottom(hasta - 1));
+        layout.draw(canvas);
+        canvas.restore();
+        return hasta;
+    }
+
+    private PdfDocument.Page nuevaPagina(PdfDocument documento) {
+        int numero = documento.getPages().size() + 1;
+        return documento.startPage(new PdfDocument.PageInfo.Builder(ANCHO_PAGINA, ALTO_PAGINA, numero).create());
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // DECODIFICACIÓN A RESOLUCIÓN DE IMPRESIÓN
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Decodifica la captura del paso para el hueco que ocupa: como mucho a la
+     * resolución de impresión y, si eso supera su parte del presupuesto, a la
+     * resolución que cabe en ella.
+     *
+     * @param bytesMaximos Bytes de píxeles que puede ocupar el bitmap devuelto.
+     * @return Bitmap nuevo, o null si el paso no tiene imagen.
+     */
+    private Bitmap decodificarCaptura(TutorialArticulo paso, int anchoPuntos, int altoPuntos, long bytesMaximos) {
+        int anchoMaximo = anchoPuntos * PUNTOS_POR_PULGADA / 72;
+        int altoMaximo = altoPuntos * PUNTOS_POR_PULGADA / 72;
+        long bytesImpresion = (long) anchoMaximo * altoMaximo * BYTES_POR_PIXEL;
+        if (bytesImpresion > bytesMaximos) {
+            double reduccion = Math.sqrt((double) bytesMaximos / bytesImpresion);
+            anchoMaximo = Math.max(1, (int) (anchoMaximo * reduccion));
+            altoMaximo = Math.max(1, (int) (altoMaximo * reduccion));
+        }
+        Context context = getApplicationContext();
+
+        try {
+            Bitmap decodificada;
+            if (paso.tieneImagenRemota()) {
+                File archivo = ImagenCache.getInstance(context).obtenerArchivo(paso.getImagenRuta(), paso.getImagenHash());
+                BitmapFactory.Options opciones = medir(anchoMaximo, altoMaximo,
+                        o -> BitmapFactory.decodeFile(archivo.getPath(), o));
+                decodificada = BitmapFactory.decodeFile(archivo.getPath(), opciones);
+            } else {
+                if (paso.getImagenNombre() == null)
+                    return null;
+                int recurso = context.getResources().getIdentifier(paso.getImagenNombre(), "drawable",
+                        context.getPackageName());
+                if (recurso == 0)
+                    return null;
+                BitmapFactory.Options opciones = medir(anchoMaximo, altoMaximo,
+                        o -> BitmapFactory.decodeResource(context.getResources(), recurso, o));
+                decodificada = BitmapFactory.decodeResource(context.getResources(), recurso, opciones);
+            }
+            return ajustar(decodificada, anchoMaximo, altoMaximo);
+        } catch (Exception e) {
+            // Sin captura la página sigue siendo útil con el texto
+            Log.w(TAG, "No se pudo decodificar la captura del paso " + paso.getOrden(), e);
+            return null;
+        }
+    }
+
+    /**
+     * El submuestreo solo reduce en potencias de 2 y deja la imagen por encima del
+     * tamaño pedido: la copia final se escala para caber exactamente en él.
+     */
+    private static Bitmap ajustar(Bitmap bitmap, int anchoMaximo, int altoMaximo) {
+        if (bitmap == null || (bitmap.getWidth() <= anchoMaximo && bitmap.getHeight() <= altoMaximo))
+            return bitmap;
+        float escala = Math.min((float) anchoMaximo / bitmap.getWidth(), (float) altoMaximo / bitmap.getHeight());
+        Bitmap ajustada = Bitmap.createScaledBitmap(bitmap,
+                Math.max(1, Math.round(bitmap.getWidth() * escala)),
+                Math.max(1, Math.round(bitmap.getHeight() * escala)), true);
+        if (ajustada != bitmap) {
+            bitmap.recycle();
+        }
+        return ajustada;
+    }
+
+    private interface Decodificador {
+        void decodificar(BitmapFactory.Options opciones);
+    }
+
+    /**
+     * Lee solo las dimensiones y calcula el submuestreo (potencia de 2) que deja
+     * la imagen lo más cerca posible por encima del tamaño pedido.
+     */
+    private static BitmapFactory.Options medir(int anchoMaximo, int altoMaximo, Decodificador decodificador) {
+        BitmapFactory.Options opciones = new BitmapFactory.Options();
+        opciones.inJustDecodeBounds = true;
+        decodificador.decodificar(opciones);
+
+        int muestreo = 1;
+        while (opciones.outWidth / (muestreo * 2) >= anchoMaximo
+                || opciones.outHeight / (muestreo * 2) >= altoMaximo) {
+            muestreo *= 2;
+        }
+        opciones.inJustDecodeBounds = false;
+        opciones.inSampleSize = muestreo;
+        opciones.inPreferredConfig = Bitmap.Config.RGB_565;
+        return opciones;
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.amasonapp.trabajos;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.amasonapp.data.ImagenCache;
+import com.example.amasonapp.data.ManifiestoRepository;
+import com.example.amasonapp.data.Secciones;
+import com.example.amasonapp.model.ManifiestoSeccion;
+import com.example.amasonapp.startup.ServiciosFirebase;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PRECARGA NOCTURNA DEL CONTENIDO
+ *
+ * Trabajo periódico que, con el dispositivo inactivo, cargando y en una red
+ * sin medir (el Wi-Fi del centro), refresca desde el servidor las traducciones
+ * y todas las secciones de tutoriales y descarga sus capturas a la caché de
+ * imágenes. Así la primera apertura de cualquier sección a la mañana siguiente
+ * se sirve entera desde el dispositivo.
+ *
+ * El manifiesto de secciones decide qué se descarga: las secciones cuya huella
+ * no ha cambiado desde la última precarga se saltan, y una sección solo se
+ * empieza si sus imágenes (según el manifiesto) caben en el presupuesto que
+ * queda. Sin manifiesto se precarga todo, como antes.
+ *
+ * El trabajo está acotado en tiempo y en bytes descargados, publica su avance
+ * y al terminar registra un resumen en Analytics.
+ */
+public class PrecargaWorker extends Worker {
+
+    private static final String TAG = "PrecargaWorker";
+
+    // Nombre único del trabajo periódico
+    private static final String NOMBRE_TRABAJO = "precarga_contenido";
+
+    private static final String COLECCION_TEXTOS = "traducciones";
+
+    // Tiempo máximo de ejecución (WorkManager detiene el trabajo a los 10 minutos)
+    private static final long PLAZO_MAXIMO_MS = 8 * 60 * 1000;
+
+    // Plazo de cada consulta o descarga individual
+    private static final long PLAZO_OPERACION_S = 60;
+
+    // Bytes de imágenes que se descargan como máximo por ejecución (por debajo del
+    // tamaño de la caché, para que la precarga no expulse sus propias imágenes)
+    private static final long PRESUPUESTO_BYTES = 48L * 1024 * 1024;
+
+    // Claves de avance y resultado
+    public static final String AVANCE_COLECCIONES = "colecciones";
+    public static final String AVANCE_DOCUMENTOS = "documentos";
+    public static final String AVANCE_IMAGENES = "imagenes";
+    public static final String AVANCE_BYTES = "bytes";
+    public static final String RESULTADO_DURACION_MS = "duracion_ms";
+    public static final String RESULTADO_COMPLETA = "completa";
+
+    private int colecciones;
+    private int documentos;
+    private int imagenes;
+    private long bytes;
+
+    public PrecargaWorker(@NonNull Context context, @NonNull WorkerParameters parametros) {
+        super(context, parametros);
+    }
+
+    /**
+     * Programa la precarga una vez al día. Si ya estaba programada se mantiene.
+     *
+     * @param context Cualquier contexto; se usa el de la aplicación.
+     */
+    public static void programar(Context context) {
+        Constraints restricciones = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresCharging(true)
+                .setRequiresDeviceIdle(true)
+                .setRequiresStorageNotLow(true)
+                .build();
+        PeriodicWorkRequest peticion = new PeriodicWorkRequest.Builder(PrecargaWorker.class, 1, TimeUnit.DAYS)
+                .setConstraints(restricciones)
+                .build();
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniquePeriodicWork(NOMBRE_TRABAJO, ExistingPeriodicWorkPolicy.KEEP, peticion);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        // Las reglas de Firestore solo dejan leer el contenido con sesión iniciada
+        if (ServiciosFirebase.auth().getCurrentUser() == null) {
+            Log.i(TAG, "Sin sesión iniciada; se omite la precarga");
+            return Result.success();
+        }
+
+        long inicio = SystemClock.elapsedRealtime();
+        boolean completa;
+        try {
+            completa = precargar(inicio + PLAZO_MAXIMO_MS);
+        } catch (Exception e) {
+            Log.w(TAG, "Precarga interrumpida", e);
+            return Result.retry();
+        }
+
+        long duracion = SystemClock.elapsedRealtime() - inicio;
+        Log.i(TAG, "Precarga " + (completa ? "completa" : "parcial") + ": " + colecciones + " colecciones, "
+                + documentos + " documentos, " + imagenes + " imágenes, " + bytes + " bytes en " + duracion + " ms");
+        registrarResumen(duracion, completa);
+        return Result.success(datos()
+                .putLong(RESULTADO_DURACION_MS, duracion)
+                .putBoolean(RESULTADO_COMPLETA, completa)
+                .build());
+    }
+
+    /**
+     * Recorre las colecciones y las imágenes que referencian.
+     *
+     * @param limite Instante (elapsedRealtime) a partir del cual se deja de trabajar.
+     * @return true si se precargó todo; false si se agotó el tiempo o el presupuesto.
+     */
+    private boolean precargar(long limite) throws Exception {
+        FirebaseFirestore db = ServiciosFirebase.firestore();
+        ManifiestoRepository registro = ManifiestoRepository.getInstance(getApplicationContext());
+
+        // 1. Manifiesto (un documento) y traducciones; la lectura del servidor deja
+        // el resultado en la caché local
+        Map<String, ManifiestoSeccion> manifiesto = Tasks.await(registro.obtenerDelServidor(),
+                PLAZO_OPERACION_S, TimeUnit.SECONDS);
+        consultar(db, COLECCION_TEXTOS);
+
+        // 2. Cada sección cambiada: sus documentos y sus imágenes remotas
+        boolean completa = true;
+        for (String seccion : Secciones.TODAS) {
+            if (detener(limite))
+                return false;
+
+            ManifiestoSeccion version = manifiesto.get(seccion);
+            if (version != null) {
+                // La caché de imágenes puede haber expulsado capturas desde la última precarga
+                if (registro.estaPrecargada(seccion, version.getHash()) && imagenesEnDisco(db, seccion))
+                    continue;
+                if (bytes + version.getBytesImagenes() > PRESUPUESTO_BYTES) {
+                    // No cabe entera en lo que queda: mejor otra sección más pequeña hoy
+                    completa = false;
+                    continue;
+                }
+            }
+
+            QuerySnapshot pasos = consultar(db, seccion);
+            if (!precargarImagenes(pasos, limite))
+                return false;
+            // Solo se da por precargada si todas sus imágenes están realmente en disco
+            if (!imagenesEnDisco(pasos)) {
+                completa = false;
+            } else if (version != null) {
+                registro.marcarPrecargada(seccion, version.getHash());
+            }
+        }
+        return completa;
+    }
+
+    /**
+     * Descarga las imágenes remotas de los pasos, verificadas, a la caché de la app.
+     *
+     * @return false si se agotó el tiempo o el presupuesto.
+     */
+    private boolean precargarImagenes(QuerySnapshot pasos, long limite) {
+        ImagenCache cache = ImagenCache.getInstance(getApplicationContext());
+        for (QueryDocumentSnapshot paso : pasos) {
+            String ruta = paso.getString("imagenRuta");
+            String hash = paso.getString("imagenHash");
+            if (ruta == null || ruta.isEmpty() || hash == null || hash.isEmpty())
+                continue;
+            if (detener(limite) || bytes >= PRESUPUESTO_BYTES)
+                return false;
+
+            try {
+                bytes += cache.precargar(ruta, hash);
+                imagenes++;
+            } catch (Exception e) {
+                // Una imagen rota no impide precargar las demás
+                Log.w(TAG, "No se pudo precargar " + ruta, e);
+            }
+            setProgressAsync(datos().build());
+        }
+        return true;
+    }
+
+    /**
+     * Comprueba con la copia local de la sección que sus capturas siguen en disco.
+     */
+    private boolean imagenesEnDisco(FirebaseFirestore db, String coleccion) {
+        try {
+            return imagenesEnDisco(Tasks.await(db.collection(coleccion).get(Source.CACHE),
+                    PLAZO_OPERACION_S, TimeUnit.SECONDS));
+        } catch (Exception e) {
+            // Sin copia local tampoco está precargada
+            return false;
+        }
+    }
+
+    private boolean imagenesEnDisco(QuerySnapshot pasos) {
+        ImagenCache cache = ImagenCache.getInstance(getApplicationContext());
+        for (QueryDocumentSnapshot paso : pasos) {
+            String ruta = paso.getString("imagenRuta");
+            String hash = paso.getString("imagenHash");
+            if (ruta == null || ruta.isEmpty() || hash == null || hash.isEmpty())
+                continue;
+            if (!cache.estaEnDisco(hash))
+                return false;
+        }
+        return true;
+    }
+
+    private QuerySnapshot consultar(FirebaseFirestore db, String coleccion) throws Exception {
+        QuerySnapshot snapshot = Tasks.await(db.collection(coleccion).get(Source.SERVER),
+                PLAZO_OPERACION_S, TimeUnit.SECONDS);
+        colecciones++;
+        documentos += snapshot.size();
+        setProgressAsync(datos().build());
+        return snapshot;
+    }
+
+    // El sistema puede parar el trabajo si deja de cumplirse alguna restricción
+    private boolean detener(long limite) {
+        return isStopped() || SystemClock.elapsedRealtime() >= limite;
+    }
+
+    private Data.Builder datos() {
+        return new Data.Builder()
+                .putInt(AVANCE_COLECCIONES, colecciones)
+                .putInt(AVANCE_DOCUMENTOS, documentos)
+                .putInt(AVANCE_IMAGENES, imagenes)
+                .putLong(AVANCE_BYTES, bytes);
+    }
+
+    private void registrarResumen(long duracion, boolean completa) {
+        Bundle parametros = new Bundle();
+        parametros.putLong("colecciones", colecciones);
+        parametros.putLong("documentos", documentos);
+        parametros.putLong("imagenes", imagenes);
+        parametros.putLong("bytes", bytes);
+        parametros.putLong("duracion_ms", duracion);
+        parametros.putLong("completa", completa ? 1 : 0);
+        ServiciosFirebase.analytics().logEvent("precarga_contenido", parametros);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.amasonapp.viewmodels;
+
+import androidx.lifecycle.SavedStateHandle;
+import androidx.lifecycle.ViewModel;
+
+import com.example.amasonapp.data.FlujoConsulta;
+import com.example.amasonapp.data.TextosRepository;
+import com.example.amasonapp.model.Texto;
+
+import java.util.List;
+
+/**
+ * ESTADO RETENIDO DE UNA PANTALLA
+ *
+ * Sobrevive a la recreación de la actividad (rotación, cambio de tamaño en
+ * tablet) y guarda lo imprescindible para rehacerla tras la muerte del proceso:
+ *
+ * - Idioma y sección elegidos, y la exportación a PDF en curso: en el
+ *   SavedStateHandle, que se escribe en el Bundle de la actividad (apenas unos
+ *   bytes).
+ * - Traducciones: en memoria, dentro del flujo de Firestore. Al rotar la nueva
+ *   actividad lo vuelve a observar y recibe el último valor sin consultar nada;
+ *   tras la muerte del proceso se vuelven a pedir (la caché local de Firestore
+ *   las sirve sin esperar a la red).
+ */
+public class PantallaViewModel extends ViewModel {
+
+    private static final String CLAVE_IDIOMA = "idioma";
+    private static final String CLAVE_SECCION = "seccion";
+    private static final String CLAVE_EXPORTACION = "exportacion";
+
+    private static final String IDIOMA_POR_DEFECTO = "es";
+    private static final String SECCION_POR_DEFECTO = "tutoriales_login";
+
+    private final SavedStateHandle estado;
+    private FlujoConsulta<List<Texto>> flujoTextos;
+
+    public PantallaViewModel(SavedStateHandle estado) {
+        this.estado = estado;
+    }
+
+    public String getIdioma() {
+        String idioma = estado.get(CLAVE_IDIOMA);
+        return idioma != null ? idioma : IDIOMA_POR_DEFECTO;
+    }
+
+    public void setIdioma(String idioma) {
+        estado.set(CLAVE_IDIOMA, idioma);
+    }
+
+    /**
+     * @return Colección de la sección que se estaba mostrando.
+     */
+    public String getSeccion() {
+        String seccion = estado.get(CLAVE_SECCION);
+        return seccion != null ? seccion : SECCION_POR_DEFECTO;
+    }
+
+    public void setSeccion(String seccion) {
+        estado.set(CLAVE_SECCION, seccion);
+    }
+
+    /**
+     * @return Nombre único del trabajo de exportación que se está siguiendo, o null.
+     */
+    public String getExportacion() {
+        return estado.get(CLAVE_EXPORTACION);
+    }
+
+    public void setExportacion(String nombreTrabajo) {
+        estado.set(CLAVE_EXPORTACION, nombreTrabajo);
+    }
+
+    /**
+     * @return true si una actividad anterior ya abrió el flujo de traducciones.
+     */
+    public boolean tieneFlujoTextos() {
+        return flujoTextos != null;
+    }
+
+    /**
+     * Devuelve el flujo de traducciones retenido, creándolo la primera vez.
+     *
+     * @param repositorio Repositorio con el que crear el flujo (solo se usa la primera vez).
+     */
+    public FlujoConsulta<List<Texto>> obtenerFlujoTextos(TextosRepository repositorio) {
+        if (flujoTextos == null) {
+            flujoTextos = repositorio.flujoTextos();
+        }
+        return flujoTextos;
+    }
+}
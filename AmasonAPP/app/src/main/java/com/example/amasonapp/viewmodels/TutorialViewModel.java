@@ -0,0 +1,103 @@
+package com.example.amasonapp.viewmodels;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.SavedStateHandle;
+import androidx.lifecycle.ViewModel;
+
+import com.example.amasonapp.data.FlujoConsulta;
+import com.example.amasonapp.data.FlujoPaginado;
+import com.example.amasonapp.data.TutorialRepository;
+import com.example.amasonapp.model.TutorialArticulo;
+
+import java.util.List;
+
+/**
+ * ESTADO RETENIDO DE UNA SECCIÓN DE TUTORIALES
+ *
+ * Conserva los pasos cargados mientras el fragmento se recrea, de modo que una
+ * rotación no vuelve a descargar la sección, y la posición exacta de la lista
+ * (paso superior y su desplazamiento) para devolverla al mismo punto, también
+ * tras la muerte del proceso.
+ */
+public class TutorialViewModel extends ViewModel {
+
+    private static final String CLAVE_POSICION = "posicion";
+    private static final String CLAVE_DESPLAZAMIENTO = "desplazamiento";
+
+    private final SavedStateHandle estado;
+    private FlujoConsulta<List<TutorialArticulo>> flujo;
+    private FlujoPaginado<TutorialArticulo> catalogo;
+    private MutableLiveData<TutorialArticulo> pasoEnlazado;
+
+    public TutorialViewModel(SavedStateHandle estado) {
+        this.estado = estado;
+    }
+
+    /**
+     * Devuelve el flujo de la sección, creándolo la primera vez.
+     *
+     * @param coleccion     Colección de Firestore de la sección.
+     * @param criterioCache Cuándo basta escuchar la caché local; se evalúa al
+     *                      abrir cada escucha, no al crear el flujo.
+     */
+    public FlujoConsulta<List<TutorialArticulo>> flujoSeccion(String coleccion,
+            FlujoConsulta.CriterioCache<List<TutorialArticulo>> criterioCache) {
+        if (flujo == null) {
+            flujo = new TutorialRepository().flujoSeccion(coleccion, criterioCache);
+        }
+        return flujo;
+    }
+
+    /**
+     * Devuelve el flujo del catálogo con todas las secciones, creándolo la
+     * primera vez. Las páginas ya cargadas se conservan al rotar.
+     *
+     * @param pasosPorPagina Número de pasos de cada página.
+     */
+    public FlujoPaginado<TutorialArticulo> flujoCatalogo(int pasosPorPagina) {
+        if (catalogo == null) {
+            catalogo = new TutorialRepository().flujoCatalogo(pasosPorPagina);
+        }
+        return catalogo;
+    }
+
+    /**
+     * Pide por separado el paso al que apunta un enlace directo, para pintarlo
+     * antes de que llegue la sección completa. Se pide una sola vez.
+     *
+     * @param coleccion Colección de la sección.
+     * @param orden     Número de paso enlazado.
+     * @return Paso enlazado (null si la sección no lo tiene o la lectura falla).
+     */
+    public LiveData<TutorialArticulo> pasoEnlazado(String coleccion, int orden) {
+        if (pasoEnlazado == null) {
+            pasoEnlazado = new MutableLiveData<>();
+            new TutorialRepository().obtenerPaso(coleccion, orden,
+                    pasoEnlazado::setValue, e -> pasoEnlazado.setValue(null));
+        }
+        return pasoEnlazado;
+    }
+
+    /**
+     * @param posicion       Posición del primer elemento visible.
+     * @param desplazamiento Distancia en píxeles de su borde superior al de la lista.
+     */
+    public void guardarPosicion(int posicion, int desplazamiento) {
+        estado.set(CLAVE_POSICION, posicion);
+        estado.set(CLAVE_DESPLAZAMIENTO, desplazamiento);
+    }
+
+    /**
+     * @return Posición guardada, o -1 si la lista aún no se había desplazado.
+     */
+    public int getPosicion() {
+        Integer posicion = estado.get(CLAVE_POSICION);
+        return posicion != null ? posicion : -1;
+    }
+
+    public int getDesplazamiento() {
+        Integer desplazamiento = estado.get(CLAVE_DESPLAZAMIENTO);
+        return desplazamiento != null ? desplazamiento : 0;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.amasonapp.views;
+
+import android.graphics.Bitmap;
+
+/**
+ * DECODIFICADOR DE BLURHASH
+ *
+ * Convierte una cadena BlurHash (https://blurha.sh) en un bitmap diminuto que
+ * se estira como marcador de posición. La cadena la calcula el importador al
+ * publicar el contenido; aquí solo se decodifica a unos pocos píxeles, de modo
+ * que el coste es despreciable.
+ */
+public final class BlurHash {
+
+    private static final String CARACTERES =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    private BlurHash() {
+    }
+
+    /**
+     * @param hash  Cadena BlurHash.
+     * @param ancho Ancho del bitmap resultante (basta con 16-32 píxeles).
+     * @param alto  Alto del bitmap resultante.
+     * @return Bitmap decodificado, o null si la cadena no es válida.
+     */
+    public static Bitmap decodificar(String hash, int ancho, int alto) {
+        int[] pixeles = decodificarPixeles(hash, ancho, alto);
+        if (pixeles == null)
+            return null;
+        return Bitmap.createBitmap(pixeles, ancho, alto, Bitmap.Config.ARGB_8888);
+    }
+
+    /**
+     * Decodifica la cadena a píxeles ARGB (separado del Bitmap para poder probarlo en la JVM).
+     */
+    static int[] decodificarPixeles(String hash, int ancho, int alto) {
+        if (hash == null || hash.length() < 6 || ancho <= 0 || alto <= 0)
+            return null;
+
+        int tamanos = decodificar83(hash, 0, 1);
+        if (tamanos < 0)
+            return null;
+        int componentesY = tamanos / 9 + 1;
+        int componentesX = tamanos % 9 + 1;
+        if (hash.length() != 4 + 2 * componentesX * componentesY)
+            return null;
+
+        int maximoCuantizado = decodificar83(hash, 1, 2);
+        float maximo = (maximoCuantizado + 1) / 166f;
+
+        // Componente continua (color medio) y componentes de detalle
+        float[][] colores = new float[componentesX * componentesY][];
+        int continua = decodificar83(hash, 2, 6);
+        if (continua < 0 || maximoCuantizado < 0)
+            return null;
+        colores[0] = new float[] {
+                srgbALineal(continua >> 16), srgbALineal((continua >> 8) & 255), srgbALineal(continua & 255) };
+        for (int i = 1; i < colores.length; i++) {
+            int valor = decodificar83(hash, 4 + i * 2, 6 + i * 2);
+            if (valor < 0)
+                return null;
+            colores[i] = new float[] {
+                    potenciaConSigno((valor / (19 * 19) - 9) / 9f, 2f) * maximo,
+                    potenciaConSigno((valor / 19 % 19 - 9) / 9f, 2f) * maximo,
+                    potenciaConSigno((valor % 19 - 9) / 9f, 2f) * maximo };
+        }
+
+        // Los cosenos se precalculan por fila y columna
+        float[][] cosenosX = new float[componentesX][ancho];
+        for (int i = 0; i < componentesX; i++) {
+            for (int x = 0; x < ancho; x++) {
+                cosenosX[i][x] = (float) Math.cos(Math.PI * x * i / ancho);
+            }
+        }
+        float[][] cosenosY = new float[componentesY][alto];
+        for (int j = 0; j < componentesY; j++) {
+            for (int y = 0; y < alto; y++) {
+                cosenosY[j][y] = (float) Math.cos(Math.PI * y * j / alto);
+            }
+        }
+
+        int[] pixeles = new int[ancho * alto];
+        for (int y = 0; y < alto; y++) {
+            for (int x = 0; x < ancho; x++) {
+                float r = 0, g = 0, b = 0;
+                for (int j = 0; j < componentesY; j++) {
+                    for (int i = 0; i < componentesX; i++) {
+                        float base = cosenosX[i][x] * cosenosY[j][y];
+                        float[] color = colores[i + j * componentesX];
+                        r += color[0] * base;
+                        g += color[1] * base;
+                        b += color[2] * base;
+                    }
+                }
+                pixeles[x + y * ancho] = 0xFF000000
+                        | (linealASrgb(r) << 16) | (linealASrgb(g) << 8) | linealASrgb(b);
+            }
+        }
+        return pixeles;
+    }
+
+    private static int decodificar83(String cadena, int desde, int hasta) {
+        int valor = 0;
+        for (int i = desde; i < hasta; i++) {
+            int digito = CARACTERES.indexOf(cadena.charAt(i));
+            if (digito < 0)
+                return -1;
+            valor = valor * 83 + digito;
+        }
+        return valor;
+    }
+
+    private static float srgbALineal(int valor) {
+        float v = valor / 255f;
+        return v <= 0.04045f ? v / 12.92f : (float) Math.pow((v + 0.055f) / 1.055f, 2.4f);
+    }
+
+    private static int linealASrgb(float valor) {
+        float v = Math.max(0f, Math.min(1f, valor));
+        if (v <= 0.0031308f) {
+            return (int) (v * 12.92f * 255f + 0.5f);
+        }
+        return (int) ((1.055f * Math.pow(v, 1 / 2.4f) - 0.055f) * 255f + 0.5f);
+    }
+
+    private static float potenciaConSigno(float valor, float exponente) {
+        return Math.copySign((float) Math.pow(Math.abs(valor), exponente), valor);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.amasonapp.views;
+
+import android.content.Context;
+import android.util.AttributeSet;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.material.imageview.ShapeableImageView;
+
+/**
+ * IMAGEN CON PROPORCIÓN CONOCIDA
+ *
+ * ImageView que, si conoce el ancho y alto de la imagen que va a mostrar, se
+ * mide con su altura final sin esperar a tener el bitmap. Así la tarjeta no
+ * cambia de tamaño (ni la lista salta) cuando la imagen termina de cargar. Sin
+ * proporción se comporta como un ShapeableImageView normal.
+ */
+public class ImagenProporcionalView extends ShapeableImageView {
+
+    private int anchoImagen;
+    private int altoImagen;
+
+    public ImagenProporcionalView(@NonNull Context context) {
+        super(context);
+    }
+
+    public ImagenProporcionalView(@NonNull Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public ImagenProporcionalView(@NonNull Context context, @Nullable AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+    }
+
+    /**
+     * @param ancho Ancho de la imagen en píxeles (0 si no se conoce).
+     * @param alto  Alto de la imagen en píxeles (0 si no se conoce).
+     */
+    public void setProporcion(int ancho, int alto) {
+        if (ancho == anchoImagen && alto == altoImagen)
+            return;
+        anchoImagen = ancho;
+        altoImagen = alto;
+        requestLayout();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int modoAncho = MeasureSpec.getMode(widthMeasureSpec);
+        if (anchoImagen <= 0 || altoImagen <= 0 || modoAncho == MeasureSpec.UNSPECIFIED) {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+            return;
+        }
+
+        int ancho = MeasureSpec.getSize(widthMeasureSpec);
+        int alto = (int) ((long) ancho * altoImagen / anchoImagen);
+        setMeasuredDimension(ancho, resolveSize(alto, heightMeasureSpec));
+    }
+}
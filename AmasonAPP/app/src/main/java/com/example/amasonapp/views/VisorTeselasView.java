@@ -0,0 +1,423 @@
+package com.example.amasonapp.views;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.util.LongSparseArray;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * VISOR DE IMÁGENES POR TESELAS
+ *
+ * Muestra capturas de gran tamaño permitiendo ampliarlas sin decodificarlas
+ * completas. Se pinta primero una vista previa submuestreada que cabe en
+ * pantalla y, sobre ella, solo las teselas de la zona visible con el nivel de
+ * muestreo adecuado al zoom actual. Las teselas se decodifican con
+ * {@link BitmapRegionDecoder} en un pool de hilos y se guardan en una caché
+ * limitada en bytes, de modo que la memoria no crece con el zoom.
+ */
+public class VisorTeselasView extends View {
+
+    // Lado de cada tesela una vez decodificada (en píxeles del bitmap)
+    private static final int TAMANO_TESELA = 512;
+
+    // Zoom máximo permitido: píxeles de pantalla por píxel de la imagen original
+    private static final float ESCALA_MAXIMA = 4f;
+
+    /**
+     * Abre de nuevo el contenido de la imagen cada vez que se necesita.
+     */
+    public interface OrigenImagen {
+        InputStream abrir() throws IOException;
+    }
+
+    // --- Decodificación en segundo plano ---
+    private final ExecutorService ejecutor = Executors.newFixedThreadPool(2);
+    private final Object bloqueoDecoder = new Object();
+    private BitmapRegionDecoder decoder;
+
+    // Teselas ya decodificadas y en curso, indexadas por claveTesela(muestreo, columna, fila)
+    private final CacheTeselas cacheTeselas;
+    private final LongSparseArray<Boolean> teselasPendientes = new LongSparseArray<>();
+
+    // Zona visible en coordenadas de la imagen; los hilos de fondo la leen bajo su monitor
+    private final Rect regionVisible = new Rect();
+
+    // --- Estado de la imagen y de la transformación ---
+    private int anchoImagen;
+    private int altoImagen;
+    private Bitmap vistaPrevia;
+    private int muestreoVistaPrevia;
+    private float escala;
+    private float escalaMinima;
+    private float desplazamientoX;
+    private float desplazamientoY;
+
+    // --- Gestos y pintado ---
+    private final ScaleGestureDetector detectorEscala;
+    private final GestureDetector detectorGestos;
+    private final Paint pintura = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect origenTesela = new Rect();
+    private final RectF destinoTesela = new RectF();
+
+    public VisorTeselasView(Context context) {
+        this(context, null);
+    }
+
+    public VisorTeselasView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+
+        // Reservamos como mucho una octava parte del heap (y nunca más de 48 MB)
+        cacheTeselas = new CacheTeselas(Math.min(Runtime.getRuntime().maxMemory() / 8, 48L * 1024 * 1024));
+
+        detectorEscala = new ScaleGestureDetector(context, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScale(@NonNull ScaleGestureDetector detector) {
+                escalarEn(escala * detector.getScaleFactor(), detector.getFocusX(), detector.getFocusY());
+                return true;
+            }
+        });
+
+        detectorGestos = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onScroll(@Nullable MotionEvent e1, @NonNull MotionEvent e2, float dx, float dy) {
+                desplazamientoX -= dx;
+                desplazamientoY -= dy;
+                limitarDesplazamiento();
+                invalidate();
+                return true;
+            }
+
+            @Override
+            public boolean onDoubleTap(@NonNull MotionEvent e) {
+                // Doble toque: alterna entre ajustar a pantalla y ampliar x2.5
+                float destino = escala > escalaMinima * 1.1f ? escalaMinima : escalaMinima * 2.5f;
+                escalarEn(destino, e.getX(), e.getY());
+                return true;
+            }
+        });
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // CARGA DEL ORIGEN
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Asigna la imagen a mostrar. La apertura del decodificador y la vista previa
+     * se realizan fuera del hilo principal.
+     *
+     * @param origen Proveedor del flujo con el contenido (PNG/JPEG) de la imagen.
+     */
+    @SuppressWarnings("deprecation")
+    public void setOrigen(OrigenImagen origen) {
+        ejecutor.execute(() -> {
+            try (InputStream entrada = origen.abrir()) {
+                BitmapRegionDecoder nuevo = BitmapRegionDecoder.newInstance(entrada, false);
+                synchronized (bloqueoDecoder) {
+                    decoder = nuevo;
+                }
+                post(() -> {
+                    anchoImagen = nuevo.getWidth();
+                    altoImagen = nuevo.getHeight();
+                    if (getWidth() > 0) {
+                        prepararVistaPrevia();
+                    }
+                });
+            } catch (IOException e) {
+                // Sin origen válido el visor queda vacío
+            }
+        });
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        if (anchoImagen > 0) {
+            prepararVistaPrevia();
+        }
+    }
+
+    /**
+     * Ajusta la imagen a la pantalla y decodifica una copia submuestreada de la
+     * imagen completa que sirve de fondo mientras llegan las teselas.
+     */
+    private void prepararVistaPrevia() {
+        escalaMinima = Math.min((float) getWidth() / anchoImagen, (float) getHeight() / altoImagen);
+        escala = escalaMinima;
+        limitarDesplazamiento();
+
+        muestreoVistaPrevia = calcularMuestreo(escalaMinima);
+        final int muestreo = muestreoVistaPrevia;
+        ejecutor.execute(() -> {
+            Bitmap previa = decodificarRegion(new Rect(0, 0, anchoImagen, altoImagen), muestreo);
+            if (previa != null) {
+                post(() -> {
+                    vistaPrevia = previa;
+                    invalidate();
+                });
+            }
+        });
+        invalidate();
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // GESTOS
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        boolean gestionado = detectorEscala.onTouchEvent(event);
+        gestionado |= detectorGestos.onTouchEvent(event);
+        return gestionado || super.onTouchEvent(event);
+    }
+
+    /**
+     * Cambia el zoom manteniendo fijo el punto de la pantalla indicado.
+     */
+    private void escalarEn(float nuevaEscala, float focoX, float focoY) {
+        if (anchoImagen == 0)
+            return;
+
+        float limitada = Math.max(escalaMinima, Math.min(nuevaEscala, Math.max(ESCALA_MAXIMA, escalaMinima)));
+        float factor = limitada / escala;
+        desplazamientoX = focoX - (focoX - desplazamientoX) * factor;
+        desplazamientoY = focoY - (focoY - desplazamientoY) * factor;
+        escala = limitada;
+        limitarDesplazamiento();
+        invalidate();
+    }
+
+    /**
+     * Impide sacar la imagen de la pantalla y la centra cuando es más pequeña.
+     */
+    private void limitarDesplazamiento() {
+        float anchoEscalado = anchoImagen * escala;
+        float altoEscalado = altoImagen * escala;
+
+        if (anchoEscalado <= getWidth()) {
+            desplazamientoX = (getWidth() - anchoEscalado) / 2f;
+        } else {
+            desplazamientoX = Math.min(0, Math.max(getWidth() - anchoEscalado, desplazamientoX));
+        }
+        if (altoEscalado <= getHeight()) {
+            desplazamientoY = (getHeight() - altoEscalado) / 2f;
+        } else {
+            desplazamientoY = Math.min(0, Math.max(getHeight() - altoEscalado, desplazamientoY));
+        }
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // PINTADO POR TESELAS
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        if (anchoImagen == 0)
+            return;
+
+        // 1. Fondo: vista previa estirada a todo el tamaño de la imagen
+        if (vistaPrevia != null) {
+            destinoTesela.set(desplazamientoX, desplazamientoY,
+                    desplazamientoX + anchoImagen * escala, desplazamientoY + altoImagen * escala);
+            canvas.drawBitmap(vistaPrevia, null, destinoTesela, pintura);
+        }
+
+        // 2. Si el zoom no supera la resolución de la vista previa no hacen falta teselas
+        int muestreo = calcularMuestreo(escala);
+        if (muestreo >= muestreoVistaPrevia)
+            return;
+
+        // Sin reservas por fotograma: se reutiliza el mismo Rect y las claves son long
+        int izquierda = (int) Math.max(0, -desplazamientoX / escala);
+        int arriba = (int) Math.max(0, -desplazamientoY / escala);
+        int derecha = (int) Math.min(anchoImagen, (getWidth() - desplazamientoX) / escala + 1);
+        int abajo = (int) Math.min(altoImagen, (getHeight() - desplazamientoY) / escala + 1);
+        synchronized (regionVisible) {
+            regionVisible.set(izquierda, arriba, derecha, abajo);
+        }
+
+        // 3. Recorremos solo las teselas que cortan la zona visible
+        int lado = TAMANO_TESELA * muestreo;
+        for (int fila = arriba / lado; fila * lado < abajo; fila++) {
+            for (int columna = izquierda / lado; columna * lado < derecha; columna++) {
+                origenTesela.set(columna * lado, fila * lado,
+                        Math.min(anchoImagen, (columna + 1) * lado),
+                        Math.min(altoImagen, (fila + 1) * lado));
+
+                long clave = claveTesela(muestreo, columna, fila);
+                Bitmap tesela = cacheTeselas.get(clave);
+                if (tesela == null) {
+                    solicitarTesela(clave, new Rect(origenTesela), muestreo);
+                    continue;
+                }
+                destinoTesela.set(
+                        desplazamientoX + origenTesela.left * escala,
+                        desplazamientoY + origenTesela.top * escala,
+                        desplazamientoX + origenTesela.right * escala,
+                        desplazamientoY + origenTesela.bottom * escala);
+                canvas.drawBitmap(tesela, null, destinoTesela, pintura);
+            }
+        }
+    }
+
+    /**
+     * Encola la decodificación de una tesela si no está ya en curso. Si cuando le
+     * toca el turno ha dejado de ser visible, se descarta sin decodificar.
+     */
+    private void solicitarTesela(long clave, Rect region, int muestreo) {
+        synchronized (teselasPendientes) {
+            if (teselasPendientes.get(clave) != null)
+                return;
+            teselasPendientes.put(clave, Boolean.TRUE);
+        }
+
+        ejecutor.execute(() -> {
+            try {
+                synchronized (regionVisible) {
+                    if (!Rect.intersects(regionVisible, region))
+                        return;
+                }
+                Bitmap tesela = decodificarRegion(region, muestreo);
+                if (tesela != null) {
+                    cacheTeselas.put(clave, tesela);
+                    postInvalidateOnAnimation();
+                }
+            } finally {
+                synchronized (teselasPendientes) {
+                    teselasPendientes.remove(clave);
+                }
+            }
+        });
+    }
+
+    @Nullable
+    private Bitmap decodificarRegion(Rect region, int muestreo) {
+        BitmapFactory.Options opciones = new BitmapFactory.Options();
+        opciones.inSampleSize = muestreo;
+        // Las capturas no necesitan canal alfa: RGB_565 reduce a la mitad la memoria
+        opciones.inPreferredConfig = Bitmap.Config.RGB_565;
+
+        synchronized (bloqueoDecoder) {
+            if (decoder == null || decoder.isRecycled())
+                return null;
+            return decoder.decodeRegion(region, opciones);
+        }
+    }
+
+    /**
+     * Muestreo, columna y fila empaquetados en un long (16 bits para el
+     * muestreo y 24 para cada coordenada), sin crear objetos.
+     */
+    private static long claveTesela(int muestreo, int columna, int fila) {
+        return ((long) muestreo << 48) | ((long) columna << 24) | fila;
+    }
+
+    /**
+     * Mayor potencia de dos que no pierde detalle a la escala dada.
+     */
+    private static int calcularMuestreo(float escala) {
+        int muestreo = 1;
+        while (muestreo * 2 * escala <= 1f) {
+            muestreo *= 2;
+        }
+        return muestreo;
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // LIBERACIÓN DE RECURSOS
+    // -----------------------------------------------------------------------------------------
+
+    /**
+     * Detiene los hilos de decodificación y libera la memoria nativa. Debe
+     * llamarse cuando la pantalla que contiene el visor se destruye.
+     */
+    public void liberar() {
+        ejecutor.shutdownNow();
+        synchronized (bloqueoDecoder) {
+            if (decoder != null) {
+                decoder.recycle();
+                decoder = null;
+            }
+        }
+        cacheTeselas.vaciar();
+        vistaPrevia = null;
+    }
+
+    /**
+     * Caché LRU de teselas limitada en bytes, con clave long para que consultarla
+     * en cada fotograma no cree objetos (LruCache exigiría una clave en caja).
+     * Solo hay unas decenas de teselas, así que la expulsión recorre todas.
+     */
+    private static final class CacheTeselas {
+        private static final class Entrada {
+            final Bitmap bitmap;
+            long ultimoUso;
+
+            Entrada(Bitmap bitmap) {
+                this.bitmap = bitmap;
+            }
+        }
+
+        private final long maximoBytes;
+        private final LongSparseArray<Entrada> entradas = new LongSparseArray<>();
+        private long bytes;
+        private long reloj;
+
+        CacheTeselas(long maximoBytes) {
+            this.maximoBytes = maximoBytes;
+        }
+
+        synchronized Bitmap get(long clave) {
+            Entrada entrada = entradas.get(clave);
+            if (entrada == null)
+                return null;
+            entrada.ultimoUso = ++reloj;
+            return entrada.bitmap;
+        }
+
+        synchronized void put(long clave, Bitmap bitmap) {
+            Entrada anterior = entradas.get(clave);
+            if (anterior != null) {
+                bytes -= anterior.bitmap.getByteCount();
+            }
+            Entrada entrada = new Entrada(bitmap);
+            entrada.ultimoUso = ++reloj;
+            entradas.put(clave, entrada);
+            bytes += bitmap.getByteCount();
+
+            while (bytes > maximoBytes && entradas.size() > 1) {
+                int menosUsada = 0;
+                for (int i = 1; i < entradas.size(); i++) {
+                    if (entradas.valueAt(i).ultimoUso < entradas.valueAt(menosUsada).ultimoUso) {
+                        menosUsada = i;
+                    }
+                }
+                bytes -= entradas.valueAt(menosUsada).bitmap.getByteCount();
+                entradas.removeAt(menosUsada);
+            }
+        }
+
+        synchronized void vaciar() {
+            entradas.clear();
+            bytes = 0;
+        }
+    }
+}
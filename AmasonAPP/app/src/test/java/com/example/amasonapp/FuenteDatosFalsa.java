@@ -0,0 +1,76 @@
+package com.example.amasonapp;
+
+import com.example.amasonapp.model.Texto;
+import com.example.amasonapp.model.TutorialArticulo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Genera documentos con la misma forma que los de Firestore para medir las
+ * pantallas sin red ni emulador.
+ */
+public final class FuenteDatosFalsa {
+
+    // Claves de traducción que usan las dos actividades
+    private static final String[] CLAVES = {
+            "nav_login", "nav_database", "nav_ftp", "nav_email", "nav_mailbox", "nav_admin", "nav_logs",
+            "logout", "login_bienvenida", "login_boton_google", "sin_conexion" };
+
+    private FuenteDatosFalsa() {
+    }
+
+    /**
+     * @return Campos de un paso tal como llegan en un documento (los números como Long).
+     */
+    public static Map<String, Object> documentoPaso(int orden) {
+        Map<String, Object> campos = new HashMap<>();
+        campos.put("orden", (long) orden);
+        campos.put("textoEs", "Paso " + orden + ": pulsa el botón indicado y espera a que termine la carga.");
+        campos.put("textoEn", "Step " + orden + ": press the highlighted button and wait for it to finish.");
+        campos.put("imagenNombre", "ic_ftp");
+        campos.put("imagenAncho", 1080L);
+        campos.put("imagenAlto", 1920L);
+        campos.put("imagenColor", "#2080C0");
+        campos.put("imagenBlurHash", "LEHV6nWB2yk8pyo0adR*.7kCMdnj");
+        return campos;
+    }
+
+    public static List<Map<String, Object>> documentosSeccion(int pasos) {
+        List<Map<String, Object>> documentos = new ArrayList<>(pasos);
+        for (int i = 1; i <= pasos; i++) {
+            documentos.add(documentoPaso(i));
+        }
+        return documentos;
+    }
+
+    public static List<TutorialArticulo> seccion(int pasos) {
+        List<TutorialArticulo> articulos = new ArrayList<>(pasos);
+        for (int i = 1; i <= pasos; i++) {
+            TutorialArticulo articulo = new TutorialArticulo();
+            articulo.setOrden(i);
+            articulo.setTextoEs("Paso " + i + ": pulsa el botón indicado y espera a que termine la carga.");
+            articulo.setTextoEn("Step " + i + ": press the highlighted button and wait for it to finish.");
+            articulo.setImagenNombre("ic_ftp");
+            articulo.setImagenAncho(1080);
+            articulo.setImagenAlto(1920);
+            articulo.setImagenColor("#2080C0");
+            articulos.add(articulo);
+        }
+        return articulos;
+    }
+
+    public static List<Texto> textos() {
+        List<Texto> textos = new ArrayList<>(CLAVES.length);
+        for (String clave : CLAVES) {
+            Texto texto = new Texto();
+            texto.setClaveTexto(clave);
+            texto.setEs(clave + " (es)");
+            texto.setEn(clave + " (en)");
+            textos.add(texto);
+        }
+        return textos;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.amasonapp;
+
+import org.junit.Assume;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * MEDICIÓN DE PRESUPUESTOS EN LA JVM
+ *
+ * Repite una operación tras un calentamiento y devuelve lo que cuesta de media
+ * en bytes reservados y nanosegundos. Los bytes se leen del contador por hilo
+ * de HotSpot, que no depende del recolector y es estable entre ejecuciones.
+ */
+public final class MedidorPresupuesto {
+
+    private static final int CALENTAMIENTO = 3;
+
+    /**
+     * Coste medio de una operación.
+     */
+    public static final class Coste {
+        public final long bytes;
+        public final long nanos;
+
+        Coste(long bytes, long nanos) {
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public String toString() {
+            return bytes + " B, " + nanos / 1000 + " µs";
+        }
+    }
+
+    private MedidorPresupuesto() {
+    }
+
+    /**
+     * @param repeticiones Veces que se mide la operación tras el calentamiento.
+     * @param operacion    Operación a medir (se ejecuta en el hilo actual).
+     * @return Coste medio por repetición.
+     */
+    public static Coste medir(int repeticiones, Runnable operacion) {
+        com.sun.management.ThreadMXBean hilos = obtenerContador();
+        long hilo = Thread.currentThread().getId();
+
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            operacion.run();
+        }
+
+        long bytesInicio = hilos.getThreadAllocatedBytes(hilo);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++) {
+            operacion.run();
+        }
+        long nanos = System.nanoTime() - inicio;
+        long bytes = hilos.getThreadAllocatedBytes(hilo) - bytesInicio;
+        return new Coste(bytes / repeticiones, nanos / repeticiones);
+    }
+
+    // Sin el contador de HotSpot la prueba se omite en lugar de fallar
+    private static com.sun.management.ThreadMXBean obtenerContador() {
+        Object bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("La JVM no mide reservas por hilo", bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(hilos.isThreadAllocatedMemorySupported());
+        hilos.setThreadAllocatedMemoryEnabled(true);
+        return hilos;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.amasonapp;
+
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+import android.widget.FrameLayout;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.amasonapp.adapters.TutorialAdapter;
+import com.example.amasonapp.depuracion.VigilanteHiloPrincipal;
+import com.example.amasonapp.model.Texto;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+/**
+ * PRESUPUESTOS DE LAS RUTAS CALIENTES DE LA INTERFAZ
+ *
+ * Mide en Robolectric el enlace de tarjetas, el cambio de idioma de la lista y
+ * el repintado de textos de las dos actividades con datos falsos de 10 a 5.000
+ * pasos. Los límites absolutos son solo de memoria reservada, que no depende
+ * de la carga de la máquina; el tiempo se compara entre tamaños de sección,
+ * porque lo que se vigila es que el coste por operación no crezca con ella.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class PresupuestosPantallasTest {
+
+    private static final int[] TAMANOS_SECCION = { 10, 500, 5000 };
+
+    // Enlazar una tarjeta: textos, marcador y petición a Glide
+    private static final long BYTES_POR_ENLACE = 32 * 1024;
+
+    // Cuánto más puede tardar un enlace en la sección más grande que en la más pequeña
+    // (con un margen fijo para que el ruido sobre tiempos de microsegundos no cuente)
+    private static final double CRECIMIENTO_MAXIMO = 3.0;
+    private static final long MARGEN_NANOS = 50_000;
+
+    // Repintar los textos de una actividad tras cambiar de idioma
+    private static final long BYTES_POR_REPINTADO = 16 * 1024;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = new ContextThemeWrapper(ApplicationProvider.getApplicationContext(), R.style.Theme_AmasonAPP);
+        VigilanteHiloPrincipal.setActivo(false);
+    }
+
+    @Test
+    public void enlazarTarjeta_noCreceConElTamanoDeLaSeccion() {
+        MedidorPresupuesto.Coste menor = null;
+        MedidorPresupuesto.Coste mayor = null;
+        for (int pasos : TAMANOS_SECCION) {
+            TutorialAdapter adapter = new TutorialAdapter(FuenteDatosFalsa.seccion(pasos), "es", context);
+            TutorialAdapter.TutorialViewHolder holder = adapter.onCreateViewHolder(new FrameLayout(context), 0);
+            int[] posicion = { 0 };
+
+            // Se recorre la sección entera reciclando la misma tarjeta, como al hacer scroll
+            MedidorPresupuesto.Coste coste = MedidorPresupuesto.medir(Math.max(pasos, 100), () -> {
+                adapter.onBindViewHolder(holder, posicion[0]);
+                posicion[0] = (posicion[0] + 1) % pasos;
+            });
+
+            assertTrue(pasos + " pasos: " + coste, coste.bytes <= BYTES_POR_ENLACE);
+            if (menor == null) {
+                menor = coste;
+            }
+            mayor = coste;
+        }
+
+        String detalle = TAMANOS_SECCION[0] + " pasos: " + menor + "; "
+                + TAMANOS_SECCION[TAMANOS_SECCION.length - 1] + " pasos: " + mayor;
+        assertTrue(detalle, mayor.nanos <= menor.nanos * CRECIMIENTO_MAXIMO + MARGEN_NANOS);
+    }
+
+    @Test
+    public void cambiarIdioma_reenlazaSinReservasExtra() {
+        TutorialAdapter adapter = new TutorialAdapter(FuenteDatosFalsa.seccion(500), "es", context);
+        TutorialAdapter.TutorialViewHolder holder = adapter.onCreateViewHolder(new FrameLayout(context), 0);
+        String[] idioma = { "es" };
+
+        MedidorPresupuesto.Coste coste = MedidorPresupuesto.medir(200, () -> {
+            idioma[0] = "es".equals(idioma[0]) ? "en" : "es";
+            adapter.actualizarIdioma(idioma[0]);
+            adapter.onBindViewHolder(holder, 0);
+        });
+
+        assertTrue(coste.toString(), coste.bytes <= BYTES_POR_ENLACE);
+    }
+
+    @Test
+    public void actualizarTextos_actividades_dentroDelPresupuesto() {
+        inicializarFirebase();
+        List<Texto> textos = FuenteDatosFalsa.textos();
+
+        MainActivity main = Robolectric.buildActivity(MainActivity.class).create().get();
+        MedidorPresupuesto.Coste costeMain = MedidorPresupuesto.medir(200, () -> main.actualizarTextos(textos));
+
+        LoginActivity login = Robolectric.buildActivity(LoginActivity.class).create().get();
+        MedidorPresupuesto.Coste costeLogin = MedidorPresupuesto.medir(200, () -> login.actualizarTextos(textos));
+
+        assertTrue("MainActivity: " + costeMain, costeMain.bytes <= BYTES_POR_REPINTADO);
+        assertTrue("LoginActivity: " + costeLogin, costeLogin.bytes <= BYTES_POR_REPINTADO);
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // ENTORNO FALSO
+    // -----------------------------------------------------------------------------------------
+
+    // Las actividades piden Firebase al arrancar; basta con una app sin proyecto real
+    private void inicializarFirebase() {
+        Context app = ApplicationProvider.getApplicationContext();
+        if (FirebaseApp.getApps(app).isEmpty()) {
+            FirebaseApp.initializeApp(app, new FirebaseOptions.Builder()
+                    .setApplicationId("1:000000000000:android:0000000000000000")
+                    .setApiKey("AIzaSyDummyKeyForUnitTests00000000000")
+                    .setProjectId("amasonapp-pruebas")
+                    .build());
+        }
+    }
+}
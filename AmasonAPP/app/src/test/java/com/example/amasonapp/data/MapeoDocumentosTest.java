@@ -0,0 +1,104 @@
+package com.example.amasonapp.data;
+
+import com.example.amasonapp.FuenteDatosFalsa;
+import com.example.amasonapp.MedidorPresupuesto;
+import com.example.amasonapp.model.ManifiestoSeccion;
+import com.example.amasonapp.model.Texto;
+import com.example.amasonapp.model.TutorialArticulo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Presupuestos del mapeo de documentos a modelos, que se ejecuta en el hilo de
+ * fondo del gestor de suscripciones con cada instantánea recibida. Los límites
+ * absolutos son de memoria reservada; el tiempo por paso se compara entre
+ * tamaños de sección.
+ */
+public class MapeoDocumentosTest {
+
+    // Reservas por documento: el artículo y poco más (sin reflexión ni cajas intermedias)
+    private static final long BYTES_POR_PASO = 256;
+
+    // Cuánto más puede costar cada paso en la sección más grande que en la más pequeña
+    // (con un margen fijo por paso para que el ruido sobre pocos nanosegundos no cuente)
+    private static final double CRECIMIENTO_MAXIMO = 3.0;
+    private static final long MARGEN_NANOS_POR_PASO = 2_000;
+
+    @Test
+    public void mapearDocumento_conservaTodosLosCampos() {
+        TutorialArticulo articulo = TutorialRepository.mapearDocumento(FuenteDatosFalsa.documentoPaso(7));
+
+        assertEquals(7, articulo.getOrden());
+        assertTrue(articulo.getTextoEn().startsWith("Step 7"));
+        assertEquals("ic_ftp", articulo.getImagenNombre());
+        assertEquals(1080, articulo.getImagenAncho());
+        assertEquals(1920, articulo.getImagenAlto());
+        assertNull(articulo.getImagenRuta());
+    }
+
+    @Test
+    public void mapearTexto_usaLaClaveDelDocumento() {
+        Texto texto = TextosRepository.mapearTexto("nav_ftp", Collections.singletonMap("es", "FTP"));
+
+        assertEquals("nav_ftp", texto.getClaveTexto());
+        assertEquals("FTP", texto.getEs());
+        assertNull(texto.getEn());
+    }
+
+    @Test
+    public void mapearManifiesto_ignoraLasEntradasIncompletas() {
+        Map<String, Object> ftp = new HashMap<>();
+        ftp.put("hash", "0123456789abcdef");
+        ftp.put("pasos", 12L);
+        ftp.put("bytesImagenes", 345678L);
+        Map<String, Object> campos = new HashMap<>();
+        campos.put("tutoriales_ftp", ftp);
+        campos.put("tutoriales_logs", Collections.singletonMap("pasos", 3L));
+        campos.put("actualizado", "2026-01-01");
+
+        Map<String, ManifiestoSeccion> manifiesto = ManifiestoRepository.mapearDocumento(campos);
+
+        assertEquals(1, manifiesto.size());
+        ManifiestoSeccion seccion = manifiesto.get("tutoriales_ftp");
+        assertEquals("0123456789abcdef", seccion.getHash());
+        assertEquals(12, seccion.getPasos());
+        assertEquals(345678L, seccion.getBytesImagenes());
+    }
+
+    @Test
+    public void mapearSeccion_cuestaLoMismoPorPasoDe10a5000() {
+        int[] tamanos = { 10, 500, 5000 };
+        long nanosPorPasoMenor = -1;
+        long nanosPorPasoMayor = 0;
+        for (int pasos : tamanos) {
+            List<Map<String, Object>> documentos = FuenteDatosFalsa.documentosSeccion(pasos);
+
+            MedidorPresupuesto.Coste coste = MedidorPresupuesto.medir(20, () -> {
+                List<TutorialArticulo> articulos = new ArrayList<>(documentos.size());
+                for (Map<String, Object> campos : documentos) {
+                    articulos.add(TutorialRepository.mapearDocumento(campos));
+                }
+            });
+
+            String detalle = pasos + " pasos: " + coste;
+            // La lista de resultados se reserva una vez; el resto escala con los pasos
+            assertTrue(detalle, coste.bytes <= 64 + (long) pasos * (BYTES_POR_PASO + 8));
+            nanosPorPasoMayor = coste.nanos / pasos;
+            if (nanosPorPasoMenor < 0) {
+                nanosPorPasoMenor = nanosPorPasoMayor;
+            }
+        }
+
+        String detalle = tamanos[0] + " pasos: " + nanosPorPasoMenor + " ns/paso; "
+                + tamanos[tamanos.length - 1] + " pasos: " + nanosPorPasoMayor + " ns/paso";
+        assertTrue(detalle, nanosPorPasoMayor <= nanosPorPasoMenor * CRECIMIENTO_MAXIMO + MARGEN_NANOS_POR_PASO);
+    }
+}
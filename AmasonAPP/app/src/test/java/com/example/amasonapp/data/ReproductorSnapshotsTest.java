@@ -0,0 +1,157 @@
+package com.example.amasonapp.data;
+
+import com.example.amasonapp.FuenteDatosFalsa;
+import com.example.amasonapp.model.Texto;
+import com.example.amasonapp.model.TutorialArticulo;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Grabación y reproducción de trazas de instantáneas en la JVM, sin Firebase.
+ */
+public class ReproductorSnapshotsTest {
+
+    @Test
+    public void traza_idaYVuelta_conservaTiposYOrden() throws IOException {
+        Map<String, Object> campos = new HashMap<>();
+        campos.put("orden", 3L);
+        campos.put("peso", 0.5);
+        campos.put("visible", true);
+        campos.put("imagenRuta", null);
+        campos.put("etiquetas", Arrays.asList("ftp", 2L));
+        campos.put("anidado", Collections.singletonMap("es", "hola"));
+        List<TrazaSnapshots.Instantanea> grabadas = Arrays.asList(
+                instantanea(10, "tutoriales_ftp", new TrazaSnapshots.Documento("paso3", campos)),
+                instantanea(250, "traducciones"));
+
+        List<TrazaSnapshots.Instantanea> leidas = TrazaSnapshots.leer(new ByteArrayInputStream(grabar(grabadas)));
+
+        assertEquals(2, leidas.size());
+        assertEquals(10, leidas.get(0).desfaseMs);
+        assertEquals("tutoriales_ftp|orden", leidas.get(0).clave);
+        assertEquals("paso3", leidas.get(0).documentos.get(0).id);
+        assertEquals(campos, leidas.get(0).documentos.get(0).campos);
+        assertEquals("traducciones", leidas.get(1).coleccion);
+        assertTrue(leidas.get(1).documentos.isEmpty());
+    }
+
+    @Test
+    public void traza_cortada_devuelveLosRegistrosCompletos() throws IOException {
+        byte[] completa = grabar(Arrays.asList(
+                instantanea(0, "tutoriales_ftp", paso(1)),
+                instantanea(40, "tutoriales_ftp", paso(1), paso(2))));
+
+        byte[] cortada = Arrays.copyOf(completa, completa.length - 5);
+        List<TrazaSnapshots.Instantanea> leidas = TrazaSnapshots.leer(new ByteArrayInputStream(cortada));
+
+        assertEquals(1, leidas.size());
+        assertEquals(1, leidas.get(0).documentos.size());
+    }
+
+    @Test
+    public void reproducir_acelerada_entregaCadaColeccionEnSuOrden() throws Exception {
+        Map<String, Object> bienvenida = new HashMap<>();
+        bienvenida.put("es", "Bienvenido");
+        bienvenida.put("en", "Welcome");
+        List<TrazaSnapshots.Instantanea> traza = Arrays.asList(
+                instantanea(0, "traducciones", new TrazaSnapshots.Documento("login_bienvenida", bienvenida)),
+                instantanea(300, "tutoriales_ftp", paso(1)),
+                instantanea(300, "manifiesto"),
+                instantanea(900, "tutoriales_ftp", paso(1), paso(2), paso(3)),
+                instantanea(1500, "tutoriales_login", paso(1)));
+        // A 1.000x la traza entera dura milisegundos
+        ReproductorSnapshots reproductor = new ReproductorSnapshots(traza, 1000, Runnable::run);
+        List<List<TutorialArticulo>> secciones = Collections.synchronizedList(new ArrayList<>());
+        List<List<Texto>> textos = Collections.synchronizedList(new ArrayList<>());
+
+        ReproductorSnapshots.Reproduccion seccion = reproductor.reproducirSeccion("tutoriales_ftp", oyente(secciones));
+        ReproductorSnapshots.Reproduccion traducciones = reproductor.reproducirTextos(oyente(textos));
+
+        assertTrue(seccion.esperar(5000));
+        assertTrue(traducciones.esperar(5000));
+        assertEquals(2, secciones.size());
+        assertEquals(1, secciones.get(0).size());
+        assertEquals(3, secciones.get(1).size());
+        assertEquals(3, secciones.get(1).get(2).getOrden());
+        assertEquals(1080, secciones.get(1).get(2).getImagenAncho());
+        assertEquals(1, textos.size());
+        assertEquals("login_bienvenida", textos.get(0).get(0).getClaveTexto());
+        assertEquals("Welcome", textos.get(0).get(0).getEn());
+    }
+
+    @Test
+    public void reproducir_errorDeMapeo_llegaAlOyente() throws Exception {
+        ReproductorSnapshots reproductor = new ReproductorSnapshots(
+                Collections.singletonList(instantanea(0, "tutoriales_ftp", paso(1))),
+                ReproductorSnapshots.SIN_ESPERAS, Runnable::run);
+        List<Exception> errores = Collections.synchronizedList(new ArrayList<>());
+
+        ReproductorSnapshots.Reproduccion reproduccion = reproductor.reproducir("tutoriales_ftp", documentos -> {
+            throw new IllegalStateException("formato");
+        }, new GestorSuscripciones.Oyente<Object>() {
+            @Override
+            public void onDatos(Object datos) {
+                fail("No debería entregar datos");
+            }
+
+            @Override
+            public void onError(Exception e) {
+                errores.add(e);
+            }
+        });
+
+        assertTrue(reproduccion.esperar(5000));
+        assertEquals(1, errores.size());
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // AUXILIARES
+    // -----------------------------------------------------------------------------------------
+
+    private static TrazaSnapshots.Documento paso(int orden) {
+        return new TrazaSnapshots.Documento("paso" + orden, FuenteDatosFalsa.documentoPaso(orden));
+    }
+
+    private static TrazaSnapshots.Instantanea instantanea(long desfaseMs, String coleccion,
+            TrazaSnapshots.Documento... documentos) {
+        return new TrazaSnapshots.Instantanea(desfaseMs, coleccion, coleccion + "|orden", Arrays.asList(documentos));
+    }
+
+    private static byte[] grabar(List<TrazaSnapshots.Instantanea> instantaneas) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream salida = new DataOutputStream(bytes);
+        TrazaSnapshots.escribirCabecera(salida);
+        for (TrazaSnapshots.Instantanea instantanea : instantaneas) {
+            TrazaSnapshots.escribir(salida, instantanea);
+        }
+        salida.flush();
+        return bytes.toByteArray();
+    }
+
+    private static <T> GestorSuscripciones.Oyente<T> oyente(List<T> recibidos) {
+        return new GestorSuscripciones.Oyente<T>() {
+            @Override
+            public void onDatos(T datos) {
+                recibidos.add(datos);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                fail(e.toString());
+            }
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.amasonapp.depuracion;
+
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+import android.widget.FrameLayout;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.amasonapp.MedidorPresupuesto;
+import com.example.amasonapp.R;
+import com.example.amasonapp.adapters.TutorialAdapter;
+import com.example.amasonapp.model.TutorialArticulo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ejecuta los puntos vigilados en el hilo principal de Robolectric. El fallo por
+ * tiempo se prueba con una guardia forzada; el enlace real se presupuesta en
+ * memoria reservada, que no depende de la carga de la máquina de integración.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class PresupuestosHiloPrincipalTest {
+
+    // Enlazar una tarjeta con la guardia activa: textos, marcador y petición a Glide
+    private static final long BYTES_POR_ENLACE = 32 * 1024;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = new ContextThemeWrapper(ApplicationProvider.getApplicationContext(), R.style.Theme_AmasonAPP);
+        VigilanteHiloPrincipal.setActivo(true);
+        VigilanteHiloPrincipal.limpiar();
+    }
+
+    @After
+    public void tearDown() {
+        VigilanteHiloPrincipal.setFallarAlExceder(false);
+    }
+
+    @Test
+    public void guardia_excedida_fallaLaPrueba() {
+        VigilanteHiloPrincipal.setFallarAlExceder(true);
+        VigilanteHiloPrincipal.setSeccionActual("tutoriales_ftp");
+
+        try {
+            try (VigilanteHiloPrincipal.Guardia g = VigilanteHiloPrincipal.medir("prueba.lenta", 1)) {
+                Thread.sleep(20);
+            }
+            fail("La guardia debía lanzar AssertionError");
+        } catch (AssertionError esperado) {
+            assertTrue(esperado.getMessage().startsWith("prueba.lenta"));
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+
+        List<String> infracciones = VigilanteHiloPrincipal.getInfracciones();
+        assertEquals(1, infracciones.size());
+        assertTrue(infracciones.get(0).contains("tutoriales_ftp"));
+    }
+
+    @Test
+    public void adaptador_enlazaDentroDelPresupuesto() {
+        List<TutorialArticulo> articulos = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            TutorialArticulo articulo = new TutorialArticulo();
+            articulo.setOrden(i);
+            articulo.setTextoEs("Paso " + i);
+            articulo.setTextoEn("Step " + i);
+            articulo.setImagenNombre("ic_ftp");
+            articulos.add(articulo);
+        }
+        TutorialAdapter adapter = new TutorialAdapter(articulos, "es", context);
+        TutorialAdapter.TutorialViewHolder holder = adapter.onCreateViewHolder(new FrameLayout(context), 0);
+        int[] posicion = { 0 };
+
+        // El medidor calienta antes (la primera inflación carga clases y recursos)
+        MedidorPresupuesto.Coste coste = MedidorPresupuesto.medir(100, () -> {
+            adapter.onBindViewHolder(holder, posicion[0]);
+            posicion[0] = (posicion[0] + 1) % articulos.size();
+        });
+
+        assertTrue(coste.toString(), coste.bytes <= BYTES_POR_ENLACE);
+    }
+}
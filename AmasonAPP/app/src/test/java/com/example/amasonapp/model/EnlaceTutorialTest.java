@@ -0,0 +1,28 @@
+package com.example.amasonapp.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Comprueba qué enlaces de soporte se aceptan.
+ */
+public class EnlaceTutorialTest {
+
+    @Test
+    public void seccionCorta_oColeccion_danElMismoEnlace() {
+        EnlaceTutorial corto = EnlaceTutorial.desdeSegmentos("ftp", "4");
+        EnlaceTutorial largo = EnlaceTutorial.desdeSegmentos("tutoriales_ftp", "4");
+
+        assertEquals("tutoriales_ftp", corto.getColeccion());
+        assertEquals(4, corto.getOrden());
+        assertEquals(corto.getColeccion(), largo.getColeccion());
+    }
+
+    @Test
+    public void seccionDesconocida_oPasoNoValido_seRechazan() {
+        assertNull(EnlaceTutorial.desdeSegmentos("impresoras", "1"));
+        assertNull(EnlaceTutorial.desdeSegmentos("ftp", "cuatro"));
+        assertNull(EnlaceTutorial.desdeSegmentos("ftp", "0"));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.amasonapp.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Comprueba cómo se combina el progreso de distintos dispositivos.
+ */
+public class ProgresoSeccionTest {
+
+    @Test
+    public void marcar_repetido_noCuentaComoCambio() {
+        ProgresoSeccion progreso = new ProgresoSeccion();
+
+        assertTrue(progreso.marcarUltimoPaso(3, 10));
+        assertFalse(progreso.marcarUltimoPaso(3, 20));
+        assertTrue(progreso.marcarCompletado(3, 30));
+        assertFalse(progreso.marcarCompletado(3, 40));
+        assertEquals(30, progreso.getActualizadoEn());
+    }
+
+    @Test
+    public void fusionar_sumaCompletadosYTomaElUltimoPasoMasReciente() {
+        ProgresoSeccion local = new ProgresoSeccion(5, new HashSet<>(Arrays.asList(1, 2)), 100);
+        ProgresoSeccion remoto = new ProgresoSeccion(8, new HashSet<>(Arrays.asList(2, 7)), 200);
+
+        assertTrue(local.fusionar(remoto));
+        assertEquals(8, local.getUltimoPaso());
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 7)), local.getCompletados());
+    }
+
+    @Test
+    public void fusionar_remotoAntiguo_conservaElUltimoPasoLocal() {
+        ProgresoSeccion local = new ProgresoSeccion(5, new HashSet<>(Arrays.asList(1)), 300);
+        ProgresoSeccion remoto = new ProgresoSeccion(2, new HashSet<>(Arrays.asList(1)), 200);
+
+        assertFalse(local.fusionar(remoto));
+        assertEquals(5, local.getUltimoPaso());
+    }
+}
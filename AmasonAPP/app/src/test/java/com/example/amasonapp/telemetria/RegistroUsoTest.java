@@ -0,0 +1,33 @@
+package com.example.amasonapp.telemetria;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Comprueba que la codificación compacta de eventos conserva todos los campos.
+ */
+public class RegistroUsoTest {
+
+    @Test
+    public void codificar_conservaLosCampos() {
+        long instante = 1_760_000_000_000L;
+        long evento = RegistroUso.codificar(RegistroUso.PASO_VISIBLE, 6, 37, true, instante);
+
+        assertEquals(RegistroUso.PASO_VISIBLE, RegistroUso.tipoDe(evento));
+        assertEquals(6, RegistroUso.seccionDe(evento));
+        assertEquals(37, RegistroUso.pasoDe(evento));
+        assertTrue(RegistroUso.esIngles(evento));
+        assertEquals(instante, evento & 0x1FFFFFFFFFFL);
+    }
+
+    @Test
+    public void codificar_seccionDesconocidaYPasoFueraDeRango() {
+        long evento = RegistroUso.codificar(RegistroUso.IDIOMA_CAMBIADO, -1, 100_000, false, 0);
+
+        assertEquals(RegistroUso.IDIOMA_CAMBIADO, RegistroUso.tipoDe(evento));
+        assertEquals(-1, RegistroUso.seccionDe(evento));
+        assertEquals(0xFFF, RegistroUso.pasoDe(evento));
+        assertFalse(RegistroUso.esIngles(evento));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.amasonapp.viewmodels;
+
+import androidx.lifecycle.SavedStateHandle;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Comprueba que el estado guardado basta para rehacer la pantalla tras la
+ * muerte del proceso.
+ */
+public class PantallaViewModelTest {
+
+    @Test
+    public void sinEstadoGuardado_usaLosValoresPorDefecto() {
+        PantallaViewModel estado = new PantallaViewModel(new SavedStateHandle());
+
+        assertEquals("es", estado.getIdioma());
+        assertEquals("tutoriales_login", estado.getSeccion());
+        assertFalse(estado.tieneFlujoTextos());
+        assertNull(estado.getExportacion());
+    }
+
+    @Test
+    public void idiomaYSeccion_seRecuperanDeUnHandleNuevo() {
+        SavedStateHandle original = new SavedStateHandle();
+        PantallaViewModel antes = new PantallaViewModel(original);
+        antes.setIdioma("en");
+        antes.setSeccion("tutoriales_ftp");
+        antes.setExportacion("exportar_tutoriales_ftp_en");
+
+        // Simula el Bundle restaurado al volver a crear el proceso
+        Map<String, Object> guardado = new HashMap<>();
+        for (String clave : original.keys()) {
+            guardado.put(clave, original.get(clave));
+        }
+        PantallaViewModel despues = new PantallaViewModel(new SavedStateHandle(guardado));
+
+        assertEquals("en", despues.getIdioma());
+        assertEquals("tutoriales_ftp", despues.getSeccion());
+        assertEquals("exportar_tutoriales_ftp_en", despues.getExportacion());
+    }
+
+    @Test
+    public void posicionDeLaLista_sinGuardar_esMenosUno() {
+        TutorialViewModel estado = new TutorialViewModel(new SavedStateHandle());
+        assertEquals(-1, estado.getPosicion());
+
+        estado.guardarPosicion(12, -40);
+        assertEquals(12, estado.getPosicion());
+        assertEquals(-40, estado.getDesplazamiento());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.amasonapp.views;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Comprueba la decodificación de BlurHash con una cadena generada por el
+ * codificador del importador (AnalizadorImagenesTest usa la misma imagen y la
+ * misma cadena, así que codificador y decodificador quedan atados).
+ */
+public class BlurHashTest {
+
+    // Degradado de 64x48: rojo de izquierda a derecha, azul de arriba abajo, verde fijo
+    private static final String HASH_DEGRADADO = "L$HVbd2r$5SzoUa{jtfPfVfRfQfR";
+
+    private static final int ANCHO = 32;
+    private static final int ALTO = 24;
+    // Los bordes se alejan más del original (4x3 componentes no dan para esquinas nítidas)
+    private static final int MARGEN = 4;
+    private static final int TOLERANCIA = 24;
+
+    @Test
+    public void degradadoDelImportador_seParecePixelAPixelAlOriginal() {
+        int[] pixeles = BlurHash.decodificarPixeles(HASH_DEGRADADO, ANCHO, ALTO);
+
+        assertNotNull(pixeles);
+        assertEquals(ANCHO * ALTO, pixeles.length);
+        for (int y = MARGEN; y < ALTO - MARGEN; y++) {
+            for (int x = MARGEN; x < ANCHO - MARGEN; x++) {
+                int original = degradado(x * 64 / ANCHO, y * 48 / ALTO);
+                int decodificado = pixeles[x + y * ANCHO];
+                assertEquals("alfa en " + x + "," + y, 0xFF, decodificado >>> 24);
+                for (int desplazamiento = 0; desplazamiento <= 16; desplazamiento += 8) {
+                    int esperado = (original >> desplazamiento) & 255;
+                    int obtenido = (decodificado >> desplazamiento) & 255;
+                    assertTrue("canal " + desplazamiento + " en " + x + "," + y + ": " + obtenido
+                            + " frente a " + esperado, Math.abs(obtenido - esperado) <= TOLERANCIA);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void degradadoDelImportador_conservaLaDireccionDelRojo() {
+        int[] pixeles = BlurHash.decodificarPixeles(HASH_DEGRADADO, ANCHO, ALTO);
+
+        int anterior = -1;
+        for (int x = 0; x < ANCHO; x++) {
+            int rojo = (pixeles[x + ALTO / 2 * ANCHO] >> 16) & 255;
+            assertTrue("rojo en " + x, rojo >= anterior);
+            anterior = rojo;
+        }
+    }
+
+    @Test
+    public void cadenaNoValida_daNull() {
+        assertNull(BlurHash.decodificarPixeles(null, ANCHO, ALTO));
+        assertNull(BlurHash.decodificarPixeles("L$HVb", ANCHO, ALTO));
+        // Longitud que no cuadra con los componentes declarados
+        assertNull(BlurHash.decodificarPixeles(HASH_DEGRADADO.substring(0, 26), ANCHO, ALTO));
+        assertNull(BlurHash.decodificarPixeles(HASH_DEGRADADO, 0, ALTO));
+    }
+
+    private static int degradado(int x, int y) {
+        return (255 * x / 63) << 16 | 160 << 8 | 255 * y / 47;
+    }
+}
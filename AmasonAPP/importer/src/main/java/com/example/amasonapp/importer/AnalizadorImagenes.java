@@ -0,0 +1,235 @@
+package com.example.amasonapp.importer;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+import javax.imageio.ImageIO;
+
+/**
+ * ANÁLISIS DE LAS IMÁGENES AL PUBLICAR
+ *
+ * Calcula, a partir de los archivos de imagen locales, los datos que la app
+ * necesita para maquetar cada tarjeta antes de decodificar la imagen: ancho,
+ * alto, color medio y un BlurHash de 4x3 componentes como marcador de
+ * posición. También sirve para comprobar que la huella publicada coincide con
+ * el archivo.
+ */
+public class AnalizadorImagenes {
+
+    // Componentes del BlurHash (horizontal x vertical); 4x3 da unos 28 caracteres
+    private static final int COMPONENTES_X = 4;
+    private static final int COMPONENTES_Y = 3;
+
+    // Lado máximo al que se reduce la imagen antes de calcular el BlurHash
+    private static final int LADO_ANALISIS = 64;
+
+    private static final String[] EXTENSIONES = { "", ".png", ".jpg", ".jpeg" };
+
+    private static final String CARACTERES =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    private final Path carpeta;
+
+    /**
+     * Resultado del análisis de una imagen.
+     */
+    public static class Metadatos {
+        public final int ancho;
+        public final int alto;
+        public final String color;
+        public final String blurHash;
+
+        Metadatos(int ancho, int alto, String color, String blurHash) {
+            this.ancho = ancho;
+            this.alto = alto;
+            this.color = color;
+            this.blurHash = blurHash;
+        }
+    }
+
+    /**
+     * @param carpeta Carpeta con las imágenes (capturas empaquetadas o subidas a Storage).
+     */
+    public AnalizadorImagenes(Path carpeta) {
+        this.carpeta = carpeta;
+    }
+
+    /**
+     * Busca la imagen por su nombre, con o sin extensión.
+     *
+     * @param nombre Nombre del recurso o último segmento de la ruta en Storage.
+     * @return Archivo encontrado, o null si no está en la carpeta.
+     */
+    public Path buscar(String nombre) {
+        for (String extension : EXTENSIONES) {
+            Path archivo = carpeta.resolve(nombre + extension);
+            if (Files.isRegularFile(archivo)) {
+                return archivo;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Huella SHA-256 del archivo en hexadecimal (minúsculas).
+     */
+    public static String calcularHash(Path archivo) throws IOException {
+        try (InputStream entrada = Files.newInputStream(archivo)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bloque = new byte[8192];
+            int leidos;
+            while ((leidos = entrada.read(bloque)) != -1) {
+                digest.update(bloque, 0, leidos);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format(Locale.ROOT, "%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Lee la imagen y calcula sus metadatos.
+     *
+     * @throws IOException Si el archivo no se puede leer o no es una imagen.
+     */
+    public static Metadatos analizar(Path archivo) throws IOException {
+        BufferedImage imagen;
+        try (InputStream entrada = Files.newInputStream(archivo)) {
+            imagen = ImageIO.read(entrada);
+        }
+        if (imagen == null) {
+            throw new IOException("formato de imagen no soportado");
+        }
+        return analizar(imagen);
+    }
+
+    static Metadatos analizar(BufferedImage imagen) {
+        BufferedImage reducida = reducir(imagen);
+        float[][] factores = calcularFactores(reducida);
+        return new Metadatos(imagen.getWidth(), imagen.getHeight(),
+                colorHex(factores[0]), codificar(factores));
+    }
+
+    // -----------------------------------------------------------------------------------------
+    // BLURHASH (https://blurha.sh)
+    // -----------------------------------------------------------------------------------------
+
+    private static BufferedImage reducir(BufferedImage imagen) {
+        double escala = Math.min(1.0, (double) LADO_ANALISIS / Math.max(imagen.getWidth(), imagen.getHeight()));
+        int ancho = Math.max(1, (int) Math.round(imagen.getWidth() * escala));
+        int alto = Math.max(1, (int) Math.round(imagen.getHeight() * escala));
+
+        BufferedImage reducida = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = reducida.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        // Las zonas transparentes se componen sobre blanco, como en la tarjeta
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, ancho, alto);
+        g.drawImage(imagen, 0, 0, ancho, alto, null);
+        g.dispose();
+        return reducida;
+    }
+
+    /**
+     * Proyecta la imagen (en espacio lineal) sobre la base de cosenos; el primer
+     * factor es el color medio.
+     */
+    private static float[][] calcularFactores(BufferedImage imagen) {
+        int ancho = imagen.getWidth();
+        int alto = imagen.getHeight();
+        int[] pixeles = imagen.getRGB(0, 0, ancho, alto, null, 0, ancho);
+
+        float[][] factores = new float[COMPONENTES_X * COMPONENTES_Y][3];
+        for (int j = 0; j < COMPONENTES_Y; j++) {
+            for (int i = 0; i < COMPONENTES_X; i++) {
+                float normalizacion = (i == 0 && j == 0) ? 1f : 2f;
+                float r = 0, g = 0, b = 0;
+                for (int y = 0; y < alto; y++) {
+                    for (int x = 0; x < ancho; x++) {
+                        float base = normalizacion
+                                * (float) (Math.cos(Math.PI * i * x / ancho) * Math.cos(Math.PI * j * y / alto));
+                        int pixel = pixeles[x + y * ancho];
+                        r += base * srgbALineal((pixel >> 16) & 255);
+                        g += base * srgbALineal((pixel >> 8) & 255);
+                        b += base * srgbALineal(pixel & 255);
+                    }
+                }
+                float escala = 1f / (ancho * alto);
+                factores[i + j * COMPONENTES_X] = new float[] { r * escala, g * escala, b * escala };
+            }
+        }
+        return factores;
+    }
+
+    private static String codificar(float[][] factores) {
+        StringBuilder hash = new StringBuilder();
+        hash.append(codificar83((COMPONENTES_X - 1) + (COMPONENTES_Y - 1) * 9, 1));
+
+        float maximoReal = 0;
+        for (int i = 1; i < factores.length; i++) {
+            for (float valor : factores[i]) {
+                maximoReal = Math.max(maximoReal, Math.abs(valor));
+            }
+        }
+        int maximoCuantizado = (int) Math.max(0, Math.min(82, Math.floor(maximoReal * 166 - 0.5)));
+        float maximo = (maximoCuantizado + 1) / 166f;
+        hash.append(codificar83(maximoCuantizado, 1));
+
+        float[] continua = factores[0];
+        hash.append(codificar83((linealASrgb(continua[0]) << 16)
+                + (linealASrgb(continua[1]) << 8) + linealASrgb(continua[2]), 4));
+
+        for (int i = 1; i < factores.length; i++) {
+            int r = cuantizar(factores[i][0] / maximo);
+            int g = cuantizar(factores[i][1] / maximo);
+            int b = cuantizar(factores[i][2] / maximo);
+            hash.append(codificar83(r * 19 * 19 + g * 19 + b, 2));
+        }
+        return hash.toString();
+    }
+
+    private static int cuantizar(float valor) {
+        double potencia = Math.copySign(Math.pow(Math.abs(valor), 0.5), valor);
+        return (int) Math.max(0, Math.min(18, Math.floor(potencia * 9 + 9.5)));
+    }
+
+    private static String codificar83(int valor, int longitud) {
+        char[] resultado = new char[longitud];
+        for (int i = longitud - 1; i >= 0; i--) {
+            resultado[i] = CARACTERES.charAt(valor % 83);
+            valor /= 83;
+        }
+        return new String(resultado);
+    }
+
+    private static String colorHex(float[] lineal) {
+        return String.format(Locale.ROOT, "#%02X%02X%02X",
+                linealASrgb(lineal[0]), linealASrgb(lineal[1]), linealASrgb(lineal[2]));
+    }
+
+    private static float srgbALineal(int valor) {
+        float v = valor / 255f;
+        return v <= 0.04045f ? v / 12.92f : (float) Math.pow((v + 0.055f) / 1.055f, 2.4f);
+    }
+
+    private static int linealASrgb(float valor) {
+        float v = Math.max(0f, Math.min(1f, valor));
+        if (v <= 0.0031308f) {
+            return (int) (v * 12.92f * 255f + 0.5f);
+        }
+        return (int) ((1.055f * Math.pow(v, 1 / 2.4f) - 0.055f) * 255f + 0.5f);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.amasonapp.importer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * COLECCIÓN UNIFICADA DE TUTORIALES
+ *
+ * Genera, a partir de los pasos de cada sección, su copia en la colección
+ * "tutoriales", que la app usa para mostrar todas las secciones con una sola
+ * consulta. Cada copia lleva la colección de origen ("seccion") y su posición
+ * en el menú ("seccionIndice") para ordenar por sección y paso con el índice
+ * compuesto de firestore.indexes.json.
+ */
+public final class CatalogoUnificado {
+
+    public static final String COLECCION = "tutoriales";
+
+    private CatalogoUnificado() {
+    }
+
+    /**
+     * @param documentos Documentos validados de todas las colecciones.
+     * @return Copias de los pasos para la colección unificada (id "seccion__id").
+     */
+    public static List<DocumentoContenido> generar(List<DocumentoContenido> documentos) {
+        List<DocumentoContenido> copias = new ArrayList<>();
+        for (DocumentoContenido documento : documentos) {
+            int indice = ValidadorContenido.COLECCIONES_TUTORIALES.indexOf(documento.getColeccion());
+            if (indice < 0)
+                continue;
+
+            Map<String, Object> campos = new LinkedHashMap<>(documento.getCampos());
+            campos.put("seccion", documento.getColeccion());
+            campos.put("seccionIndice", (long) indice);
+            copias.add(new DocumentoContenido(COLECCION,
+                    documento.getColeccion() + "__" + documento.getId(), campos));
+        }
+        return copias;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.amasonapp.importer;
+
+import java.util.Map;
+
+/**
+ * DOCUMENTO DE CONTENIDO LISTO PARA ESCRIBIR
+ *
+ * Par (colección, identificador) junto con los campos ya validados que deben
+ * quedar en Firestore. Los números enteros se guardan como Long, que es como
+ * Firestore los devuelve, para poder comparar con lo ya publicado.
+ */
+public class DocumentoContenido {
+
+    private final String coleccion;
+    private final String id;
+    private final Map<String, Object> campos;
+
+    public DocumentoContenido(String coleccion, String id, Map<String, Object> campos) {
+        this.coleccion = coleccion;
+        this.id = id;
+        this.campos = campos;
+    }
+
+    public String getColeccion() {
+        return coleccion;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Map<String, Object> getCampos() {
+        return campos;
+    }
+
+    /**
+     * @return Ruta completa del documento ("coleccion/id").
+     */
+    public String getRuta() {
+        return coleccion + "/" + id;
+    }
+}
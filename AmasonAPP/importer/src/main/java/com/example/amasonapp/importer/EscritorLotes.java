@@ -0,0 +1,133 @@
+package com.example.amasonapp.importer;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * ESCRITURA POR LOTES EN FIRESTORE
+ *
+ * Compara cada documento con la versión ya publicada y solo escribe los nuevos
+ * o modificados. Las escrituras se agrupan en lotes de hasta 500 operaciones
+ * (el máximo de Firestore) y se mantienen varios lotes en vuelo a la vez,
+ * limitados por un semáforo para no saturar el servidor ni el emulador.
+ */
+public class EscritorLotes {
+
+    // Máximo de operaciones por WriteBatch permitido por Firestore
+    public static final int OPERACIONES_POR_LOTE = 500;
+
+    private final Firestore db;
+    private final int lotesEnVuelo;
+
+    /**
+     * Resumen de una importación.
+     */
+    public static class Resultado {
+        public int escritos;
+        public int sinCambios;
+        public int lotes;
+    }
+
+    public EscritorLotes(Firestore db, int lotesEnVuelo) {
+        this.db = db;
+        this.lotesEnVuelo = lotesEnVuelo;
+    }
+
+    /**
+     * Escribe (o simula escribir) los documentos que han cambiado.
+     *
+     * @param documentos Documentos validados.
+     * @param simular    Si es true solo se calcula qué se escribiría.
+     * @return Número de documentos escritos, sin cambios y lotes enviados.
+     */
+    public Resultado escribir(List<DocumentoContenido> documentos, boolean simular)
+            throws InterruptedException, ExecutionException {
+        Resultado resultado = new Resultado();
+        List<DocumentoContenido> pendientes = new ArrayList<>();
+
+        // 1. Descartamos los documentos idénticos a los ya publicados
+        Map<String, Map<String, Object>> publicados = leerPublicados(documentos);
+        for (DocumentoContenido documento : documentos) {
+            if (Objects.equals(publicados.get(documento.getRuta()), documento.getCampos())) {
+                resultado.sinCambios++;
+            } else {
+                pendientes.add(documento);
+            }
+        }
+        if (simular) {
+            resultado.escritos = pendientes.size();
+            return resultado;
+        }
+
+        // 2. Enviamos los lotes con un máximo de 'lotesEnVuelo' simultáneos
+        Semaphore enVuelo = new Semaphore(lotesEnVuelo);
+        List<ApiFuture<List<WriteResult>>> confirmaciones = new ArrayList<>();
+        for (int inicio = 0; inicio < pendientes.size(); inicio += OPERACIONES_POR_LOTE) {
+            List<DocumentoContenido> trozo =
+                    pendientes.subList(inicio, Math.min(inicio + OPERACIONES_POR_LOTE, pendientes.size()));
+
+            WriteBatch lote = db.batch();
+            for (DocumentoContenido documento : trozo) {
+                lote.set(db.collection(documento.getColeccion()).document(documento.getId()),
+                        documento.getCampos());
+            }
+
+            enVuelo.acquire();
+            ApiFuture<List<WriteResult>> confirmacion = lote.commit();
+            ApiFutures.addCallback(confirmacion, new ApiFutureCallback<List<WriteResult>>() {
+                @Override
+                public void onFailure(Throwable t) {
+                    enVuelo.release();
+                }
+
+                @Override
+                public void onSuccess(List<WriteResult> escrituras) {
+                    enVuelo.release();
+                }
+            }, MoreExecutors.directExecutor());
+
+            confirmaciones.add(confirmacion);
+            resultado.lotes++;
+            resultado.escritos += trozo.size();
+        }
+
+        // 3. Esperamos a todas las confirmaciones; el primer fallo aborta la importación
+        ApiFutures.allAsList(confirmaciones).get();
+        return resultado;
+    }
+
+    /**
+     * Lee una sola vez cada colección afectada para comparar con lo publicado.
+     */
+    private Map<String, Map<String, Object>> leerPublicados(List<DocumentoContenido> documentos)
+            throws InterruptedException, ExecutionException {
+        Map<String, ApiFuture<QuerySnapshot>> lecturas = new LinkedHashMap<>();
+        for (DocumentoContenido documento : documentos) {
+            lecturas.computeIfAbsent(documento.getColeccion(), c -> db.collection(c).get());
+        }
+
+        Map<String, Map<String, Object>> publicados = new HashMap<>();
+        for (Map.Entry<String, ApiFuture<QuerySnapshot>> lectura : lecturas.entrySet()) {
+            for (QueryDocumentSnapshot doc : lectura.getValue().get()) {
+                publicados.put(lectura.getKey() + "/" + doc.getId(), doc.getData());
+            }
+        }
+        return publicados;
+    }
+}
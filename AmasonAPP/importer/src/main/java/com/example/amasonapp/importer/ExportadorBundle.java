@@ -0,0 +1,114 @@
+package com.example.amasonapp.importer;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreBundle;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QuerySnapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * INSTANTÁNEA DE CONTENIDO PARA EMPAQUETAR EN LA APP
+ *
+ * Genera un bundle de Firestore con las traducciones y todas las secciones de
+ * tutoriales, listo para copiarse en los assets de la app. En la primera
+ * ejecución la app lo carga en su caché local y pinta cada pantalla sin esperar
+ * a la red.
+ *
+ * Cada consulta se guarda con nombre y con su hora de lectura. Como son
+ * exactamente las consultas que escucha la app (colección completa, ordenada
+ * por "orden" en las secciones), Firestore reanuda la escucha desde esa hora y
+ * solo descarga lo que ha cambiado desde la instantánea.
+ *
+ * Junto al bundle se escribe su versión (hora de lectura más antigua, en
+ * milisegundos) para que la app sepa si ya lo ha cargado.
+ */
+public final class ExportadorBundle {
+
+    public static final String ARCHIVO_BUNDLE = "contenido.bundle";
+    public static final String ARCHIVO_VERSION = "contenido.version";
+
+    private ExportadorBundle() {
+    }
+
+    /**
+     * Lee las colecciones y escribe el bundle y su versión en la carpeta.
+     *
+     * @param db      Cliente de Firestore.
+     * @param carpeta Carpeta de destino (normalmente app/src/main/assets).
+     * @return Versión de la instantánea.
+     * @throws Exception Si la lectura o la escritura fallan.
+     */
+    public static long exportar(Firestore db, Path carpeta) throws Exception {
+        Map<String, QuerySnapshot> instantaneas = new LinkedHashMap<>();
+        for (Map.Entry<String, Query> consulta : consultas(db).entrySet()) {
+            instantaneas.put(consulta.getKey(), consulta.getValue().get().get());
+        }
+
+        List<Timestamp> lecturas = new ArrayList<>();
+        for (QuerySnapshot instantanea : instantaneas.values()) {
+            lecturas.add(instantanea.getReadTime());
+        }
+        long version = versionDe(lecturas);
+
+        FirestoreBundle.Builder builder = db.bundleBuilder("contenido-" + version);
+        for (Map.Entry<String, QuerySnapshot> instantanea : instantaneas.entrySet()) {
+            builder.add(instantanea.getKey(), instantanea.getValue());
+        }
+
+        Files.createDirectories(carpeta);
+        escribir(carpeta.resolve(ARCHIVO_BUNDLE), builder.build().toByteBuffer());
+        escribir(carpeta.resolve(ARCHIVO_VERSION),
+                ByteBuffer.wrap(String.valueOf(version).getBytes(StandardCharsets.UTF_8)));
+        return version;
+    }
+
+    /**
+     * Consultas que se empaquetan, con el mismo nombre que su colección. Deben
+     * coincidir con las que abre la app para que la reanudación funcione.
+     */
+    static Map<String, Query> consultas(Firestore db) {
+        Map<String, Query> consultas = new LinkedHashMap<>();
+        consultas.put(ValidadorContenido.COLECCION_TEXTOS, db.collection(ValidadorContenido.COLECCION_TEXTOS));
+        for (String coleccion : ValidadorContenido.COLECCIONES_TUTORIALES) {
+            consultas.put(coleccion, db.collection(coleccion).orderBy("orden", Query.Direction.ASCENDING));
+        }
+        return consultas;
+    }
+
+    /**
+     * La versión es la lectura más antigua: todo lo posterior a ella puede haber
+     * cambiado respecto a la instantánea.
+     */
+    static long versionDe(List<Timestamp> lecturas) {
+        long version = Long.MAX_VALUE;
+        for (Timestamp lectura : lecturas) {
+            version = Math.min(version, lectura.getSeconds() * 1000 + lectura.getNanos() / 1_000_000);
+        }
+        return lecturas.isEmpty() ? 0 : version;
+    }
+
+    /**
+     * Escribe a un temporal y lo mueve al final, para que una exportación
+     * interrumpida no deje un bundle a medias en los assets.
+     */
+    private static void escribir(Path destino, ByteBuffer contenido) throws IOException {
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try (OutputStream salida = Files.newOutputStream(temporal)) {
+            Channels.newChannel(salida).write(contenido);
+        }
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.amasonapp.importer;
+
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreOptions;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * IMPORTADOR DE CONTENIDO (LÍNEA DE COMANDOS)
+ *
+ * Carga en Firestore las traducciones y los pasos de los tutoriales a partir de
+ * una carpeta de archivos JSON. Valida todo antes de escribir, solo envía los
+ * documentos que han cambiado (repetir la importación no modifica nada) y
+ * muestra el rendimiento obtenido. Los pasos se escriben también en la colección
+ * unificada "tutoriales" (ver {@link CatalogoUnificado}) y, al final, el manifiesto
+ * con la versión de cada sección (ver {@link ManifiestoSecciones}). Con --bundle se genera
+ * además la instantánea que la app lleva empaquetada (ver {@link ExportadorBundle}).
+ *
+ * Uso:
+ *   importer --dir contenido --proyecto mi-proyecto [--credenciales cuenta.json]
+ *            [--emulador localhost:8080] [--en-vuelo 4] [--imagenes carpeta] [--simular]
+ *            [--bundle app/src/main/assets]
+ */
+public class ImportadorContenido {
+
+    private static final int LOTES_EN_VUELO_POR_DEFECTO = 4;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = leerOpciones(args);
+        if (opciones == null || !opciones.containsKey("dir") || !opciones.containsKey("proyecto")) {
+            mostrarAyuda();
+            System.exit(2);
+            return;
+        }
+
+        Path carpeta = Paths.get(opciones.get("dir"));
+        if (!Files.isDirectory(carpeta)) {
+            System.err.println("No existe la carpeta " + carpeta);
+            System.exit(2);
+            return;
+        }
+
+        // 1. Lectura y validación de las definiciones (con las imágenes de
+        // --imagenes o, por defecto, de <dir>/imagenes si existe)
+        Path imagenes = opciones.containsKey("imagenes")
+                ? Paths.get(opciones.get("imagenes"))
+                : carpeta.resolve("imagenes");
+        Path carpetaImagenes = Files.isDirectory(imagenes) ? imagenes : null;
+        ValidadorContenido validador = new ValidadorContenido(carpetaImagenes);
+        List<DocumentoContenido> documentos = validador.leerCarpeta(carpeta);
+        if (!validador.getErrores().isEmpty()) {
+            System.err.println("Se encontraron " + validador.getErrores().size() + " errores:");
+            for (String error : validador.getErrores()) {
+                System.err.println("  - " + error);
+            }
+            System.exit(1);
+            return;
+        }
+        System.out.println(documentos.size() + " documentos válidos en " + carpeta);
+        DocumentoContenido manifiesto = ManifiestoSecciones.generar(documentos, carpetaImagenes);
+        documentos.addAll(CatalogoUnificado.generar(documentos));
+
+        // 2. Escritura por lotes
+        int enVuelo = Integer.parseInt(opciones.getOrDefault("en-vuelo",
+                String.valueOf(LOTES_EN_VUELO_POR_DEFECTO)));
+        boolean simular = opciones.containsKey("simular");
+
+        // close() de Firestore declara InterruptedException: se cierra a mano en lugar
+        // de con try-with-resources, que lo avisaría con -Xlint:try
+        Firestore db = crearCliente(opciones);
+        try {
+            long inicio = System.nanoTime();
+            EscritorLotes escritor = new EscritorLotes(db, Math.max(1, enVuelo));
+            EscritorLotes.Resultado resultado = escritor.escribir(documentos, simular);
+            // El manifiesto va después: quien vea un hash nuevo ya encuentra los pasos escritos
+            EscritorLotes.Resultado resultadoManifiesto = escritor.escribir(Collections.singletonList(manifiesto), simular);
+            resultado.escritos += resultadoManifiesto.escritos;
+            resultado.sinCambios += resultadoManifiesto.sinCambios;
+            resultado.lotes += resultadoManifiesto.lotes;
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            // 3. Resumen y rendimiento
+            System.out.printf(Locale.ROOT, "%s %d documentos en %d lotes, %d sin cambios (%.2f s, %.1f docs/s)%n",
+                    simular ? "Se escribirían" : "Escritos",
+                    resultado.escritos, resultado.lotes, resultado.sinCambios, segundos,
+                    segundos > 0 ? (documentos.size() + 1) / segundos : 0);
+
+            // 4. Instantánea para los assets de la app, ya con el contenido escrito
+            if (opciones.containsKey("bundle") && !simular) {
+                Path destino = Paths.get(opciones.get("bundle"));
+                long version = ExportadorBundle.exportar(db, destino);
+                System.out.println("Instantánea " + version + " escrita en " + destino);
+            }
+        } finally {
+            db.close();
+        }
+    }
+
+    /**
+     * Crea el cliente de Firestore contra el emulador local o contra el proyecto
+     * real usando una cuenta de servicio (o las credenciales por defecto).
+     */
+    private static Firestore crearCliente(Map<String, String> opciones) throws Exception {
+        FirestoreOptions.Builder builder = FirestoreOptions.getDefaultInstance().toBuilder()
+                .setProjectId(opciones.get("proyecto"));
+
+        if (opciones.containsKey("emulador")) {
+            builder.setEmulatorHost(opciones.get("emulador"));
+        } else if (opciones.containsKey("credenciales")) {
+            try (InputStream entrada = new FileInputStream(opciones.get("credenciales"))) {
+                builder.setCredentials(GoogleCredentials.fromStream(entrada));
+            }
+        }
+        return builder.build().getService();
+    }
+
+    /**
+     * Convierte "--clave valor" y "--bandera" en un mapa; devuelve null si hay
+     * argumentos sueltos.
+     */
+    private static Map<String, String> leerOpciones(String[] args) {
+        Map<String, String> opciones = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--"))
+                return null;
+            String clave = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                opciones.put(clave, args[++i]);
+            } else {
+                opciones.put(clave, "");
+            }
+        }
+        return opciones;
+    }
+
+    private static void mostrarAyuda() {
+        System.err.println("Uso: importer --dir <carpeta> --proyecto <id> [opciones]");
+        System.err.println("  --credenciales <json>  Cuenta de servicio (por defecto, credenciales del entorno)");
+        System.err.println("  --emulador <host:port> Escribe en el emulador local de Firestore");
+        System.err.println("  --en-vuelo <n>         Lotes simultáneos (por defecto " + LOTES_EN_VUELO_POR_DEFECTO + ")");
+        System.err.println("  --imagenes <carpeta>   Imágenes para calcular tamaño y marcador (por defecto <dir>/imagenes)");
+        System.err.println("  --simular              Valida y calcula los cambios sin escribir");
+        System.err.println("  --bundle <carpeta>     Genera la instantánea de contenido para los assets de la app");
+    }
+}
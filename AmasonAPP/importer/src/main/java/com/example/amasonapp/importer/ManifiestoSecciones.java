@@ -0,0 +1,102 @@
+package com.example.amasonapp.importer;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * MANIFIESTO DE SECCIONES
+ *
+ * Genera el documento "manifiesto/secciones", que resume cada sección en un
+ * campo { hash, pasos, bytesImagenes }. La app escucha solo este documento y
+ * vuelve a descargar una sección únicamente cuando cambia su hash; los pasos
+ * alimentan los contadores del menú y los bytes, el presupuesto de la precarga.
+ *
+ * El hash se calcula sobre los documentos validados (ordenados por id y por
+ * campo), así que repetir la importación sin cambios da el mismo manifiesto y
+ * no se reescribe. Los bytes son los de las imágenes remotas que la app tendría
+ * que descargar, medidos en la carpeta local de imágenes si se indica.
+ */
+public final class ManifiestoSecciones {
+
+    public static final String COLECCION = "manifiesto";
+    public static final String DOCUMENTO = "secciones";
+
+    // Caracteres hexadecimales del SHA-256 que se publican (64 bits bastan para detectar cambios)
+    private static final int LONGITUD_HASH = 16;
+
+    private static final Gson GSON = new Gson();
+
+    private ManifiestoSecciones() {
+    }
+
+    /**
+     * @param documentos      Documentos validados de todas las colecciones.
+     * @param carpetaImagenes Carpeta de imágenes para medir su tamaño, o null.
+     * @return Documento del manifiesto.
+     */
+    public static DocumentoContenido generar(List<DocumentoContenido> documentos, Path carpetaImagenes) {
+        AnalizadorImagenes imagenes = carpetaImagenes != null ? new AnalizadorImagenes(carpetaImagenes) : null;
+
+        // Pasos de cada sección ordenados por id, con sus campos ordenados por nombre
+        Map<String, Map<String, Map<String, Object>>> pasosPorSeccion = new TreeMap<>();
+        Map<String, Long> bytesPorSeccion = new TreeMap<>();
+        for (DocumentoContenido documento : documentos) {
+            if (!ValidadorContenido.COLECCIONES_TUTORIALES.contains(documento.getColeccion()))
+                continue;
+            pasosPorSeccion.computeIfAbsent(documento.getColeccion(), c -> new TreeMap<>())
+                    .put(documento.getId(), new TreeMap<>(documento.getCampos()));
+            bytesPorSeccion.merge(documento.getColeccion(), bytesImagen(imagenes, documento), Long::sum);
+        }
+
+        Map<String, Object> campos = new LinkedHashMap<>();
+        for (String coleccion : ValidadorContenido.COLECCIONES_TUTORIALES) {
+            Map<String, Map<String, Object>> pasos = pasosPorSeccion.get(coleccion);
+            if (pasos == null)
+                continue;
+            Map<String, Object> seccion = new LinkedHashMap<>();
+            seccion.put("hash", huella(GSON.toJson(pasos)));
+            seccion.put("pasos", (long) pasos.size());
+            seccion.put("bytesImagenes", bytesPorSeccion.get(coleccion));
+            campos.put(coleccion, seccion);
+        }
+        return new DocumentoContenido(COLECCION, DOCUMENTO, campos);
+    }
+
+    private static long bytesImagen(AnalizadorImagenes imagenes, DocumentoContenido documento) {
+        Object ruta = documento.getCampos().get("imagenRuta");
+        if (imagenes == null || !(ruta instanceof String))
+            return 0;
+        String nombre = ((String) ruta).substring(((String) ruta).lastIndexOf('/') + 1);
+        Path archivo = imagenes.buscar(nombre);
+        try {
+            return archivo != null ? Files.size(archivo) : 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String huella(String texto) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(texto.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < LONGITUD_HASH / 2; i++) {
+                hex.append(String.format(Locale.ROOT, "%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
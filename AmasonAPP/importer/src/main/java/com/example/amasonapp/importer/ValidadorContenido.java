@@ -0,0 +1,288 @@
+package com.example.amasonapp.importer;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * LECTURA Y VALIDACIÓN DE LAS DEFINICIONES DE CONTENIDO
+ *
+ * Lee una carpeta con un archivo JSON por colección y comprueba que cada entrada
+ * respeta el esquema que espera la app (clases Texto y TutorialArticulo):
+ *
+ * - traducciones.json: objeto { "clave": { "es": "...", "en": "..." } }
+ * - tutoriales_*.json: lista de pasos { "orden", "textoEs", "textoEn" } con
+ *   "imagenNombre" (recurso empaquetado) o "imagenRuta" + "imagenHash" (Storage).
+ *   Cada paso puede indicar "id"; si no, se usa "paso_NNN" según su orden.
+ *
+ * Si se indica una carpeta de imágenes, cada paso se completa con las
+ * dimensiones, el color medio y el BlurHash de su imagen (y se comprueba la
+ * huella de las remotas). Estos campos se calculan siempre, nunca se escriben a mano.
+ *
+ * Todos los errores se acumulan para mostrarlos juntos antes de escribir nada.
+ */
+public class ValidadorContenido {
+
+    public static final String COLECCION_TEXTOS = "traducciones";
+
+    // Colecciones de tutoriales que la app sabe mostrar
+    public static final List<String> COLECCIONES_TUTORIALES = Arrays.asList(
+            "tutoriales_login",
+            "tutoriales_database",
+            "tutoriales_ftp",
+            "tutoriales_email",
+            "tutoriales_buzon",
+            "tutoriales_admin",
+            "tutoriales_logs");
+
+    private static final Set<String> CAMPOS_TEXTO = new HashSet<>(Arrays.asList("es", "en"));
+    private static final Set<String> CAMPOS_PASO = new HashSet<>(Arrays.asList(
+            "id", "orden", "textoEs", "textoEn", "imagenNombre", "imagenRuta", "imagenHash"));
+
+    private static final Pattern FORMATO_ID = Pattern.compile("[A-Za-z0-9_\\-]{1,100}");
+    private static final Pattern FORMATO_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final List<String> errores = new ArrayList<>();
+
+    // Imágenes locales para calcular los metadatos (null si no se analizan)
+    private final AnalizadorImagenes analizador;
+
+    public ValidadorContenido() {
+        this(null);
+    }
+
+    /**
+     * @param carpetaImagenes Carpeta con los archivos de imagen, o null para no analizarlos.
+     */
+    public ValidadorContenido(Path carpetaImagenes) {
+        this.analizador = carpetaImagenes != null ? new AnalizadorImagenes(carpetaImagenes) : null;
+    }
+
+    /**
+     * Lee y valida todos los archivos JSON de la carpeta.
+     *
+     * @param carpeta Carpeta con las definiciones.
+     * @return Documentos listos para escribir (vacío si hay errores).
+     * @throws IOException Si la carpeta o algún archivo no se pueden leer.
+     */
+    public List<DocumentoContenido> leerCarpeta(Path carpeta) throws IOException {
+        List<DocumentoContenido> documentos = new ArrayList<>();
+
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(carpeta, "*.json")) {
+            for (Path archivo : archivos) {
+                String nombre = archivo.getFileName().toString();
+                String coleccion = nombre.substring(0, nombre.length() - ".json".length());
+
+                JsonElement raiz;
+                try (Reader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+                    raiz = JsonParser.parseReader(lector);
+                } catch (RuntimeException e) {
+                    errores.add(nombre + ": JSON no válido (" + e.getMessage() + ")");
+                    continue;
+                }
+
+                if (COLECCION_TEXTOS.equals(coleccion)) {
+                    documentos.addAll(validarTextos(nombre, raiz));
+                } else if (COLECCIONES_TUTORIALES.contains(coleccion)) {
+                    documentos.addAll(validarPasos(nombre, coleccion, raiz));
+                } else {
+                    errores.add(nombre + ": colección desconocida '" + coleccion + "'");
+                }
+            }
+        }
+        return errores.isEmpty() ? documentos : new ArrayList<>();
+    }
+
+    /**
+     * @return Errores encontrados en la última lectura.
+     */
+    public List<String> getErrores() {
+        return errores;
+    }
+
+    private List<DocumentoContenido> validarTextos(String archivo, JsonElement raiz) {
+        List<DocumentoContenido> documentos = new ArrayList<>();
+        if (!raiz.isJsonObject()) {
+            errores.add(archivo + ": se esperaba un objeto { clave: { es, en } }");
+            return documentos;
+        }
+
+        for (Map.Entry<String, JsonElement> entrada : raiz.getAsJsonObject().entrySet()) {
+            String clave = entrada.getKey();
+            String contexto = archivo + " [" + clave + "]";
+            if (!FORMATO_ID.matcher(clave).matches()) {
+                errores.add(contexto + ": clave no válida como id de documento");
+                continue;
+            }
+            if (!entrada.getValue().isJsonObject()) {
+                errores.add(contexto + ": se esperaba un objeto { es, en }");
+                continue;
+            }
+
+            JsonObject texto = entrada.getValue().getAsJsonObject();
+            comprobarCamposConocidos(contexto, texto, CAMPOS_TEXTO);
+            Map<String, Object> campos = new LinkedHashMap<>();
+            campos.put("es", leerTexto(contexto, texto, "es", true));
+            campos.put("en", leerTexto(contexto, texto, "en", true));
+            documentos.add(new DocumentoContenido(COLECCION_TEXTOS, clave, campos));
+        }
+        return documentos;
+    }
+
+    private List<DocumentoContenido> validarPasos(String archivo, String coleccion, JsonElement raiz) {
+        List<DocumentoContenido> documentos = new ArrayList<>();
+        if (!raiz.isJsonArray()) {
+            errores.add(archivo + ": se esperaba una lista de pasos");
+            return documentos;
+        }
+
+        Set<Long> ordenes = new HashSet<>();
+        Set<String> ids = new HashSet<>();
+        int indice = 0;
+        for (JsonElement elemento : raiz.getAsJsonArray()) {
+            String contexto = archivo + " [" + indice++ + "]";
+            if (!elemento.isJsonObject()) {
+                errores.add(contexto + ": se esperaba un objeto");
+                continue;
+            }
+            JsonObject paso = elemento.getAsJsonObject();
+            comprobarCamposConocidos(contexto, paso, CAMPOS_PASO);
+
+            Long orden = leerOrden(contexto, paso);
+            if (orden != null && !ordenes.add(orden)) {
+                errores.add(contexto + ": orden " + orden + " repetido");
+            }
+
+            Map<String, Object> campos = new LinkedHashMap<>();
+            campos.put("orden", orden);
+            campos.put("textoEs", leerTexto(contexto, paso, "textoEs", true));
+            campos.put("textoEn", leerTexto(contexto, paso, "textoEn", true));
+            validarImagen(contexto, paso, campos);
+
+            String id = paso.has("id")
+                    ? leerTexto(contexto, paso, "id", true)
+                    : String.format(Locale.ROOT, "paso_%03d", orden == null ? 0 : orden);
+            if (id != null && !FORMATO_ID.matcher(id).matches()) {
+                errores.add(contexto + ": id '" + id + "' no válido");
+            } else if (id != null && !ids.add(id)) {
+                errores.add(contexto + ": id '" + id + "' repetido");
+            }
+            documentos.add(new DocumentoContenido(coleccion, id, campos));
+        }
+        return documentos;
+    }
+
+    /**
+     * Un paso debe tener imagen empaquetada, imagen remota o ninguna, pero la
+     * remota exige ruta y huella SHA-256 a la vez.
+     */
+    private void validarImagen(String contexto, JsonObject paso, Map<String, Object> campos) {
+        String nombre = leerTexto(contexto, paso, "imagenNombre", false);
+        String ruta = leerTexto(contexto, paso, "imagenRuta", false);
+        String hash = leerTexto(contexto, paso, "imagenHash", false);
+
+        if (nombre != null) {
+            campos.put("imagenNombre", nombre);
+        }
+        if ((ruta == null) != (hash == null)) {
+            errores.add(contexto + ": imagenRuta e imagenHash deben indicarse juntos");
+            return;
+        }
+        if (hash != null) {
+            if (!FORMATO_HASH.matcher(hash).matches()) {
+                errores.add(contexto + ": imagenHash debe ser un SHA-256 en hexadecimal (minúsculas)");
+            }
+            campos.put("imagenRuta", ruta);
+            campos.put("imagenHash", hash);
+        }
+        if (analizador != null) {
+            analizarImagen(contexto, ruta != null ? ruta.substring(ruta.lastIndexOf('/') + 1) : nombre,
+                    hash, campos);
+        }
+    }
+
+    /**
+     * Añade ancho, alto, color y BlurHash de la imagen si está en la carpeta local.
+     * Una imagen que falta no es un error (puede estar solo en Storage), pero una
+     * cuya huella no coincide con la publicada sí.
+     */
+    private void analizarImagen(String contexto, String nombre, String hash, Map<String, Object> campos) {
+        if (nombre == null)
+            return;
+        Path archivo = analizador.buscar(nombre);
+        if (archivo == null)
+            return;
+
+        try {
+            if (hash != null && !hash.equals(AnalizadorImagenes.calcularHash(archivo))) {
+                errores.add(contexto + ": imagenHash no coincide con " + archivo.getFileName());
+                return;
+            }
+            AnalizadorImagenes.Metadatos metadatos = AnalizadorImagenes.analizar(archivo);
+            campos.put("imagenAncho", (long) metadatos.ancho);
+            campos.put("imagenAlto", (long) metadatos.alto);
+            campos.put("imagenColor", metadatos.color);
+            campos.put("imagenBlurHash", metadatos.blurHash);
+        } catch (IOException e) {
+            errores.add(contexto + ": no se pudo leer la imagen " + archivo.getFileName() + " (" + e.getMessage() + ")");
+        }
+    }
+
+    private Long leerOrden(String contexto, JsonObject paso) {
+        JsonElement valor = paso.get("orden");
+        if (valor == null || !valor.isJsonPrimitive() || !((JsonPrimitive) valor).isNumber()) {
+            errores.add(contexto + ": 'orden' es obligatorio y numérico");
+            return null;
+        }
+        double numero = valor.getAsDouble();
+        if (numero != Math.rint(numero) || numero < 1) {
+            errores.add(contexto + ": 'orden' debe ser un entero positivo");
+            return null;
+        }
+        return (long) numero;
+    }
+
+    private String leerTexto(String contexto, JsonObject objeto, String campo, boolean obligatorio) {
+        JsonElement valor = objeto.get(campo);
+        if (valor == null || valor.isJsonNull()) {
+            if (obligatorio) {
+                errores.add(contexto + ": falta el campo '" + campo + "'");
+            }
+            return null;
+        }
+        if (!valor.isJsonPrimitive() || !((JsonPrimitive) valor).isString()) {
+            errores.add(contexto + ": '" + campo + "' debe ser texto");
+            return null;
+        }
+        String texto = valor.getAsString();
+        if (obligatorio && texto.trim().isEmpty()) {
+            errores.add(contexto + ": '" + campo + "' está vacío");
+        }
+        return texto;
+    }
+
+    private void comprobarCamposConocidos(String contexto, JsonObject objeto, Set<String> permitidos) {
+        for (String campo : objeto.keySet()) {
+            if (!permitidos.contains(campo)) {
+                errores.add(contexto + ": campo desconocido '" + campo + "'");
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.amasonapp.importer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del cálculo de dimensiones y marcadores de posición.
+ */
+public class AnalizadorImagenesTest {
+
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder();
+
+    @Test
+    public void imagenLisa_daSuColorYUnBlurHashDe4x3() {
+        BufferedImage imagen = new BufferedImage(300, 150, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 150; y++) {
+            for (int x = 0; x < 300; x++) {
+                imagen.setRGB(x, y, 0x2080C0);
+            }
+        }
+
+        AnalizadorImagenes.Metadatos metadatos = AnalizadorImagenes.analizar(imagen);
+
+        assertEquals(300, metadatos.ancho);
+        assertEquals(150, metadatos.alto);
+        assertEquals("#2080C0", metadatos.color);
+        // 1 (tamaño) + 1 (máximo) + 4 (color medio) + 2 x 11 componentes
+        assertEquals(28, metadatos.blurHash.length());
+        assertEquals('L', metadatos.blurHash.charAt(0));
+    }
+
+    @Test
+    public void degradado_daElBlurHashQueDecodificaLaApp() {
+        // Misma imagen y misma cadena que BlurHashTest en la app: si el codificador
+        // cambia, las dos pruebas dejan de coincidir
+        BufferedImage imagen = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 48; y++) {
+            for (int x = 0; x < 64; x++) {
+                imagen.setRGB(x, y, (255 * x / 63) << 16 | 160 << 8 | 255 * y / 47);
+            }
+        }
+
+        AnalizadorImagenes.Metadatos metadatos = AnalizadorImagenes.analizar(imagen);
+
+        assertEquals("L$HVbd2r$5SzoUa{jtfPfVfRfQfR", metadatos.blurHash);
+        assertEquals("#97A098", metadatos.color);
+    }
+
+    @Test
+    public void validador_completaLosPasosConLosMetadatos() throws IOException {
+        File imagenes = carpeta.newFolder("imagenes");
+        ImageIO.write(new BufferedImage(40, 80, BufferedImage.TYPE_INT_RGB), "png",
+                new File(imagenes, "tutorial_ftp_01.png"));
+        Files.write(new File(carpeta.getRoot(), "tutoriales_ftp.json").toPath(),
+                ("[{\"orden\": 1, \"textoEs\": \"Hola\", \"textoEn\": \"Hi\","
+                        + " \"imagenNombre\": \"tutorial_ftp_01\"}]").getBytes(StandardCharsets.UTF_8));
+
+        ValidadorContenido validador = new ValidadorContenido(imagenes.toPath());
+        List<DocumentoContenido> documentos = validador.leerCarpeta(carpeta.getRoot().toPath());
+
+        assertTrue(validador.getErrores().isEmpty());
+        Map<String, Object> campos = documentos.get(0).getCampos();
+        assertEquals(40L, campos.get("imagenAncho"));
+        assertEquals(80L, campos.get("imagenAlto"));
+        assertEquals("#000000", campos.get("imagenColor"));
+        assertNotNull(campos.get("imagenBlurHash"));
+    }
+
+    @Test
+    public void validador_rechazaHuellaQueNoCoincide() throws IOException {
+        File imagenes = carpeta.newFolder("imagenes");
+        ImageIO.write(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB), "png",
+                new File(imagenes, "paso.png"));
+        String hashFalso = new String(new char[64]).replace('\0', 'a');
+        Files.write(new File(carpeta.getRoot(), "tutoriales_ftp.json").toPath(),
+                ("[{\"orden\": 1, \"textoEs\": \"Hola\", \"textoEn\": \"Hi\","
+                        + " \"imagenRuta\": \"tutoriales/ftp/paso.png\", \"imagenHash\": \"" + hashFalso + "\"}]")
+                        .getBytes(StandardCharsets.UTF_8));
+
+        ValidadorContenido validador = new ValidadorContenido(imagenes.toPath());
+        validador.leerCarpeta(carpeta.getRoot().toPath());
+
+        assertTrue(String.join("\n", validador.getErrores()).contains("imagenHash no coincide"));
+    }
+}
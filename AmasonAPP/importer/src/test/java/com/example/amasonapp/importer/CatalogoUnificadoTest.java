@@ -0,0 +1,37 @@
+package com.example.amasonapp.importer;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la copia de los pasos en la colección unificada.
+ */
+public class CatalogoUnificadoTest {
+
+    @Test
+    public void pasos_seCopianConSuSeccionYPosicion() {
+        Map<String, Object> campos = new LinkedHashMap<>();
+        campos.put("orden", 4L);
+        Map<String, Object> texto = new LinkedHashMap<>();
+        texto.put("es", "Salir");
+
+        List<DocumentoContenido> copias = CatalogoUnificado.generar(Arrays.asList(
+                new DocumentoContenido("tutoriales_ftp", "paso_004", campos),
+                new DocumentoContenido("traducciones", "logout", texto)));
+
+        assertEquals(1, copias.size());
+        DocumentoContenido copia = copias.get(0);
+        assertEquals("tutoriales/tutoriales_ftp__paso_004", copia.getRuta());
+        assertEquals("tutoriales_ftp", copia.getCampos().get("seccion"));
+        assertEquals(2L, copia.getCampos().get("seccionIndice"));
+        assertEquals(4L, copia.getCampos().get("orden"));
+        // El documento original no se modifica
+        assertFalse(campos.containsKey("seccion"));
+    }
+}
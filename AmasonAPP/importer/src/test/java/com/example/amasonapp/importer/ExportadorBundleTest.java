@@ -0,0 +1,31 @@
+package com.example.amasonapp.importer;
+
+import com.google.cloud.Timestamp;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la versión de la instantánea empaquetada.
+ */
+public class ExportadorBundleTest {
+
+    @Test
+    public void version_esLaLecturaMasAntigua() {
+        long version = ExportadorBundle.versionDe(Arrays.asList(
+                Timestamp.ofTimeSecondsAndNanos(1_700_000_010, 0),
+                Timestamp.ofTimeSecondsAndNanos(1_700_000_000, 250_000_000),
+                Timestamp.ofTimeSecondsAndNanos(1_700_000_005, 0)));
+
+        assertEquals(1_700_000_000_250L, version);
+    }
+
+    @Test
+    public void sinLecturas_versionCero() {
+        assertEquals(0, ExportadorBundle.versionDe(Collections.emptyList()));
+    }
+}
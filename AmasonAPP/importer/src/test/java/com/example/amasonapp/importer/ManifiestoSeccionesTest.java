@@ -0,0 +1,68 @@
+package com.example.amasonapp.importer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del manifiesto con la versión de cada sección.
+ */
+public class ManifiestoSeccionesTest {
+
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder();
+
+    @Test
+    public void manifiesto_resumeCadaSeccion() throws IOException {
+        File imagenes = carpeta.newFolder("imagenes");
+        Files.write(new File(imagenes, "paso_02.png").toPath(), new byte[1234]);
+
+        Map<String, Object> manifiesto = ManifiestoSecciones.generar(Arrays.asList(
+                paso("tutoriales_ftp", "paso_001", 1, "Abrir", null),
+                paso("tutoriales_ftp", "paso_002", 2, "Conectar", "tutoriales/ftp/paso_02.png"),
+                paso("tutoriales_logs", "paso_001", 1, "Ver", null),
+                new DocumentoContenido("traducciones", "logout", new LinkedHashMap<>())),
+                imagenes.toPath()).getCampos();
+
+        assertEquals(2, manifiesto.size());
+        Map<?, ?> ftp = (Map<?, ?>) manifiesto.get("tutoriales_ftp");
+        assertEquals(2L, ftp.get("pasos"));
+        assertEquals(1234L, ftp.get("bytesImagenes"));
+        assertEquals(16, ((String) ftp.get("hash")).length());
+    }
+
+    @Test
+    public void hash_noDependeDelOrdenYCambiaConElContenido() {
+        DocumentoContenido uno = paso("tutoriales_ftp", "paso_001", 1, "Abrir", null);
+        DocumentoContenido dos = paso("tutoriales_ftp", "paso_002", 2, "Conectar", null);
+
+        String hash = hashFtp(ManifiestoSecciones.generar(Arrays.asList(uno, dos), null));
+
+        assertEquals(hash, hashFtp(ManifiestoSecciones.generar(Arrays.asList(dos, uno), null)));
+        assertNotEquals(hash, hashFtp(ManifiestoSecciones.generar(Arrays.asList(uno,
+                paso("tutoriales_ftp", "paso_002", 2, "Conectar al servidor", null)), null)));
+    }
+
+    private static String hashFtp(DocumentoContenido manifiesto) {
+        return (String) ((Map<?, ?>) manifiesto.getCampos().get("tutoriales_ftp")).get("hash");
+    }
+
+    private static DocumentoContenido paso(String coleccion, String id, long orden, String texto, String ruta) {
+        Map<String, Object> campos = new LinkedHashMap<>();
+        campos.put("orden", orden);
+        campos.put("textoEs", texto);
+        if (ruta != null) {
+            campos.put("imagenRuta", ruta);
+        }
+        return new DocumentoContenido(coleccion, id, campos);
+    }
+}
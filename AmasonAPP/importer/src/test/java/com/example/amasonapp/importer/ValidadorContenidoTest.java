@@ -0,0 +1,69 @@
+package com.example.amasonapp.importer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del esquema de las definiciones de contenido.
+ */
+public class ValidadorContenidoTest {
+
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder();
+
+    @Test
+    public void pasosValidos_generanIdsPorOrden() throws IOException {
+        escribir("tutoriales_ftp.json", "[{\"orden\": 2, \"textoEs\": \"Hola\", \"textoEn\": \"Hi\","
+                + " \"imagenNombre\": \"tutorial_ftp_01\"}]");
+
+        ValidadorContenido validador = new ValidadorContenido();
+        List<DocumentoContenido> documentos = validador.leerCarpeta(carpeta.getRoot().toPath());
+
+        assertTrue(validador.getErrores().isEmpty());
+        assertEquals(1, documentos.size());
+        assertEquals("tutoriales_ftp/paso_002", documentos.get(0).getRuta());
+        assertEquals(2L, documentos.get(0).getCampos().get("orden"));
+    }
+
+    @Test
+    public void erroresDeEsquema_seAcumulanYNoSeDevuelveNada() throws IOException {
+        escribir("tutoriales_logs.json", "[{\"orden\": 1, \"textoEs\": \"\", \"extra\": true},"
+                + " {\"orden\": 1, \"textoEs\": \"a\", \"textoEn\": \"b\", \"imagenRuta\": \"x.png\"}]");
+        escribir("otra_coleccion.json", "{}");
+
+        ValidadorContenido validador = new ValidadorContenido();
+        List<DocumentoContenido> documentos = validador.leerCarpeta(carpeta.getRoot().toPath());
+
+        assertTrue(documentos.isEmpty());
+        String errores = String.join("\n", validador.getErrores());
+        assertTrue(errores.contains("campo desconocido 'extra'"));
+        assertTrue(errores.contains("falta el campo 'textoEn'"));
+        assertTrue(errores.contains("orden 1 repetido"));
+        assertTrue(errores.contains("imagenRuta e imagenHash deben indicarse juntos"));
+        assertTrue(errores.contains("colección desconocida"));
+    }
+
+    @Test
+    public void traducciones_usanLaClaveComoId() throws IOException {
+        escribir("traducciones.json", "{\"logout\": {\"es\": \"Salir\", \"en\": \"Logout\"}}");
+
+        ValidadorContenido validador = new ValidadorContenido();
+        List<DocumentoContenido> documentos = validador.leerCarpeta(carpeta.getRoot().toPath());
+
+        assertEquals("traducciones/logout", documentos.get(0).getRuta());
+        assertEquals("Salir", documentos.get(0).getCampos().get("es"));
+    }
+
+    private void escribir(String nombre, String contenido) throws IOException {
+        Files.write(new File(carpeta.getRoot(), nombre).toPath(), contenido.getBytes(StandardCharsets.UTF_8));
+    }
+}